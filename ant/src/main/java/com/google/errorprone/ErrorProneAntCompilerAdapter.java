@@ -17,16 +17,35 @@
 package com.google.errorprone;
 
 import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
 import org.apache.tools.ant.taskdefs.compilers.DefaultCompilerAdapter;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+
 /**
  * Adapts the error-prone compiler to be used in an Ant build.
+ *
+ * <p>If the {@code error-prone.server} property is true, compiles are sent to a running
+ * {@link CompileServer}, whose address file is given by the {@code error-prone.server.address}
+ * property or is in the default location.  If there is no server, the compile runs in Ant's JVM.
  * @author alexeagle@google.com (Alex Eagle)
  */
 public class ErrorProneAntCompilerAdapter extends DefaultCompilerAdapter {
   @Override
   public boolean execute() throws BuildException {
     String[] args = setupModernJavacCommand().getArguments();
+    if (Project.toBoolean(project.getProperty("error-prone.server"))) {
+      String address = project.getProperty("error-prone.server.address");
+      try {
+        return CompileClient.compile(
+            address != null ? project.resolveFile(address) : CompileClient.defaultAddressFile(),
+            args, new PrintWriter(System.err, true)) == 0;
+      } catch (IOException e) {
+        attributes.log("No error-prone compile server (" + e.getMessage()
+            + "); compiling in-process", Project.MSG_VERBOSE);
+      }
+    }
     return new ErrorProneCompiler.Builder().build().compile(args) == 0;
   }
 }
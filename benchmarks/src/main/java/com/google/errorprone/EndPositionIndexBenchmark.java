@@ -0,0 +1,144 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.errorprone.benchmarks.Compilation;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building and querying an {@link EndPositionIndex} with the position-keyed HashMap it
+ * replaced, over the end positions of a set of parsed sources.  In this package because the
+ * index is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EndPositionIndexBenchmark {
+
+  /**
+   * The directory of sources to parse, relative to the working directory.
+   */
+  @Param("core/src/main/java")
+  public String sources;
+
+  private final List<Map<JCTree, Integer>> tables = new ArrayList<Map<JCTree, Integer>>();
+
+  @Setup
+  public void setUp() throws Exception {
+    for (JCCompilationUnit unit :
+        Compilation.parse(Compilation.sourcesUnder(sources)).getUnits()) {
+      tables.add(unit.endPositions);
+    }
+  }
+
+  @Benchmark
+  public long endPositionIndex() {
+    long checksum = 0;
+    for (Map<JCTree, Integer> table : tables) {
+      checksum += lookUpAll(table, new EndPositionIndex(table));
+    }
+    return checksum;
+  }
+
+  @Benchmark
+  public long positionKeyedMap() {
+    long checksum = 0;
+    for (Map<JCTree, Integer> table : tables) {
+      checksum += lookUpAll(table, new PositionKeyedMap(table));
+    }
+    return checksum;
+  }
+
+  /**
+   * Looks up every tree in the table in the map built from it, as a suggested fix does.
+   */
+  private static long lookUpAll(Map<JCTree, Integer> table, Map<JCTree, Integer> map) {
+    long checksum = 0;
+    for (JCTree tree : table.keySet()) {
+      Integer end = map.get(tree);
+      checksum += end == null ? 0 : end;
+    }
+    return checksum;
+  }
+
+  /**
+   * The map EndPositionIndex replaced: a HashMap keyed by a wrapper around each tree, which
+   * compares start position, kind and tag.
+   */
+  private static class PositionKeyedMap extends AbstractMap<JCTree, Integer> {
+    private final Map<TreeKey, Integer> map = new HashMap<TreeKey, Integer>();
+
+    PositionKeyedMap(Map<JCTree, Integer> table) {
+      for (Map.Entry<JCTree, Integer> entry : table.entrySet()) {
+        map.put(new TreeKey(entry.getKey()), entry.getValue());
+      }
+    }
+
+    @Override
+    public Integer get(Object key) {
+      return map.get(new TreeKey((JCTree) key));
+    }
+
+    @Override
+    public Set<Map.Entry<JCTree, Integer>> entrySet() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class TreeKey {
+    private final long key;
+
+    TreeKey(JCTree tree) {
+      this.key = EndPositionIndex.keyOf(tree);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof TreeKey && ((TreeKey) o).key == key;
+    }
+
+    @Override
+    public int hashCode() {
+      return (int) (key ^ (key >>> 32));
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.fixes.AppliedFix;
+import com.google.errorprone.fixes.SuggestedFix;
+
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies suggested fixes to a large generated file, as the description listener does to show
+ * the fixed line for each finding.  The file is parsed once, in the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class AppliedFixBenchmark {
+
+  private static final int FIXES = 100;
+
+  /**
+   * The number of methods in the generated file, which has three lines for each.
+   */
+  @Param({"1000", "30000"})
+  public int methods;
+
+  private String source;
+  private Map<JCTree, Integer> endPositions;
+  private final List<SuggestedFix> fixes = new ArrayList<SuggestedFix>();
+
+  @Setup
+  public void setUp() throws Exception {
+    StringBuilder builder = new StringBuilder("class Large {\n");
+    for (int i = 0; i < methods; i++) {
+      builder.append("  int method").append(i).append("() {\n");
+      builder.append("    return ").append(i).append("; // method ").append(i).append('\n');
+      builder.append("  }\n");
+    }
+    source = builder.append("}\n").toString();
+
+    JCCompilationUnit unit = Compilation.parse(Arrays.asList(
+        Compilation.source("Large", source))).getUnits().get(0);
+    endPositions = unit.endPositions;
+    final List<LiteralTree> literals = new ArrayList<LiteralTree>();
+    unit.accept(new TreeScanner<Void, Void>() {
+      @Override
+      public Void visitLiteral(LiteralTree tree, Void unused) {
+        literals.add(tree);
+        return null;
+      }
+    }, null);
+    // Fixes spread evenly through the file, as findings usually are.
+    for (int i = 0; i < FIXES; i++) {
+      LiteralTree literal = literals.get((int) ((long) i * literals.size() / FIXES));
+      fixes.add(new SuggestedFix().replace(literal, "-1"));
+    }
+  }
+
+  /**
+   * Applies a single fix, near the end of the file, to a source no fix has been applied to yet.
+   */
+  @Benchmark
+  public AppliedFix applyFirstFix() {
+    return AppliedFix.fromSource(source, endPositions).apply(fixes.get(FIXES - 1));
+  }
+
+  /**
+   * Applies every fix to the same source, which shares the work of finding its lines among
+   * them.  Returns the number of fixes that changed a line.
+   */
+  @Benchmark
+  public int applyAllFixes() {
+    AppliedFix.Applier applier = AppliedFix.fromSource(source, endPositions);
+    int applied = 0;
+    for (SuggestedFix fix : fixes) {
+      if (applier.apply(fix) != null) {
+        applied++;
+      }
+    }
+    return applied;
+  }
+}
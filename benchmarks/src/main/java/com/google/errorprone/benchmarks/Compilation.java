@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.api.JavacTaskImpl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Compilation units parsed, and optionally attributed, by javac, for benchmarks to build once in
+ * their setup and then scan or match over.  End positions are always recorded.
+ */
+public final class Compilation {
+
+  private final JavacTask task;
+  private final List<JCCompilationUnit> units;
+
+  private Compilation(JavacTask task, List<JCCompilationUnit> units) {
+    this.task = task;
+    this.units = Collections.unmodifiableList(units);
+  }
+
+  /**
+   * Parses the sources without attributing them.
+   */
+  public static Compilation parse(List<JavaFileObject> sources) throws IOException {
+    return compile(sources, false);
+  }
+
+  /**
+   * Parses and attributes the sources, as javac has when error-prone scans them.
+   *
+   * @throws IllegalStateException if the sources do not compile
+   */
+  public static Compilation analyze(List<JavaFileObject> sources) throws IOException {
+    return compile(sources, true);
+  }
+
+  private static Compilation compile(List<JavaFileObject> sources, boolean analyze)
+      throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    // javac records end positions whenever a diagnostic listener is registered.
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+    JavacTask task = (JavacTask) compiler.getTask(null, fileManager, diagnostics,
+        Arrays.asList("-proc:none"), null, sources);
+    List<JCCompilationUnit> units = new ArrayList<JCCompilationUnit>();
+    for (CompilationUnitTree unit : task.parse()) {
+      units.add((JCCompilationUnit) unit);
+    }
+    if (analyze) {
+      task.analyze();
+    }
+    for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+      if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+        throw new IllegalStateException("Benchmark sources do not compile: " + diagnostic);
+      }
+    }
+    return new Compilation(task, units);
+  }
+
+  /**
+   * Returns the Java sources under a directory, for instance core/src/main/java when run from
+   * the root of the checkout.
+   *
+   * @throws IllegalArgumentException if there are none
+   */
+  public static List<JavaFileObject> sourcesUnder(String dir) {
+    List<File> files = new ArrayList<File>();
+    addSourcesUnder(new File(dir), files);
+    if (files.isEmpty()) {
+      throw new IllegalArgumentException("No Java sources under " + new File(dir).getAbsolutePath()
+          + "; run from the root of the checkout, or set the sources parameter");
+    }
+    StandardJavaFileManager fileManager =
+        ToolProvider.getSystemJavaCompiler().getStandardFileManager(null, null, null);
+    List<JavaFileObject> sources = new ArrayList<JavaFileObject>();
+    for (JavaFileObject source : fileManager.getJavaFileObjectsFromFiles(files)) {
+      sources.add(source);
+    }
+    return sources;
+  }
+
+  private static void addSourcesUnder(File dir, List<File> sources) {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      if (file.isDirectory()) {
+        addSourcesUnder(file, sources);
+      } else if (file.getName().endsWith(".java")) {
+        sources.add(file);
+      }
+    }
+  }
+
+  /**
+   * Returns an in-memory source for a generated top-level class.
+   */
+  public static JavaFileObject source(String className, final String content) {
+    return new SimpleJavaFileObject(URI.create("string:///" + className + ".java"), Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return content;
+      }
+    };
+  }
+
+  /**
+   * Returns the context of the javac instance that compiled the units, for creating a
+   * VisitorState.
+   */
+  public Context getContext() {
+    return ((JavacTaskImpl) task).getContext();
+  }
+
+  public List<JCCompilationUnit> getUnits() {
+    return units;
+  }
+}
@@ -0,0 +1,525 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.CheckerRegistry;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a corpus of compilation units, as large as needed, for measuring how error-prone
+ * scales.  The corpus is determined by its seed and shape: each unit is generated from its own
+ * random number generator, seeded from the corpus seed and the unit's index, so any unit can be
+ * generated on its own and a larger corpus starts with the units of a smaller one.
+ *
+ * <p>Some units are copies of the checkers' test cases, each in a package of its own.  The rest
+ * are generated noise: classes with fields and methods whose bodies are nested blocks of loops,
+ * conditionals, try statements, collection calls and calls to each other, with nested classes
+ * down to the configured depth, an occasional class many times larger than the rest, and
+ * {@code @SuppressWarnings} annotations naming the registered checkers on some of the declarations.
+ *
+ * <p>Run {@link #main} to write a corpus to disk, for instance to compile it with
+ * DogfoodErrorProne.
+ */
+public class CorpusGenerator {
+
+  /**
+   * The test cases of error-prone's own checkers, relative to the root of the checkout.
+   */
+  public static final String TEST_CASES =
+      "core/src/test/resources/com/google/errorprone/bugpatterns";
+
+  private static final Pattern PACKAGE = Pattern.compile("^package\\s+[\\w.]+\\s*;",
+      Pattern.MULTILINE);
+
+  /** How much larger than the rest the occasional huge class is. */
+  private static final int HUGE_CLASS_FACTOR = 50;
+
+  /** The number of generated units in each package. */
+  private static final int UNITS_PER_PACKAGE = 100;
+
+  private final long seed;
+  private final List<Template> templates;
+  private final double templateFraction;
+  private final int methods;
+  private final int fields;
+  private final int statements;
+  private final int depth;
+  private final double hugeClasses;
+  private final double suppressions;
+  private final List<String> warningNames;
+
+  private CorpusGenerator(Builder builder) {
+    this.seed = builder.seed;
+    this.templates = builder.templates;
+    this.templateFraction = builder.templateFraction;
+    this.methods = builder.methods;
+    this.fields = builder.fields;
+    this.statements = builder.statements;
+    this.depth = builder.depth;
+    this.hugeClasses = builder.hugeClasses;
+    this.suppressions = builder.suppressions;
+    this.warningNames = builder.warningNames;
+  }
+
+  public static class Builder {
+    long seed = 0;
+    List<Template> templates = Collections.emptyList();
+    double templateFraction = 0;
+    int methods = 6;
+    int fields = 4;
+    int statements = 3;
+    int depth = 3;
+    double hugeClasses = 0.01;
+    double suppressions = 0.05;
+    List<String> warningNames = registeredCheckerNames();
+
+    public CorpusGenerator build() {
+      return new CorpusGenerator(this);
+    }
+
+    public Builder seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Makes the given fraction of the units copies of the templates.
+     */
+    public Builder templates(List<Template> templates, double fraction) {
+      this.templates = templates;
+      this.templateFraction = templates.isEmpty() ? 0 : fraction;
+      return this;
+    }
+
+    /**
+     * Sets the number of methods in each generated class.
+     */
+    public Builder methods(int methods) {
+      this.methods = methods;
+      return this;
+    }
+
+    /**
+     * Sets the number of fields in each generated class.
+     */
+    public Builder fields(int fields) {
+      this.fields = fields;
+      return this;
+    }
+
+    /**
+     * Sets the number of statements in each block of a generated method.
+     */
+    public Builder statements(int statements) {
+      this.statements = statements;
+      return this;
+    }
+
+    /**
+     * Sets how deeply classes, and blocks within methods, are nested.
+     */
+    public Builder depth(int depth) {
+      this.depth = depth;
+      return this;
+    }
+
+    /**
+     * Sets the fraction of generated classes which are many times larger than the rest.
+     */
+    public Builder hugeClasses(double fraction) {
+      this.hugeClasses = fraction;
+      return this;
+    }
+
+    /**
+     * Sets the fraction of declarations annotated with @SuppressWarnings.
+     */
+    public Builder suppressions(double fraction) {
+      this.suppressions = fraction;
+      return this;
+    }
+  }
+
+  /**
+   * The names of the checkers on the classpath, and some of javac's own warnings, for the
+   * generated {@code @SuppressWarnings} annotations to name.
+   */
+  private static List<String> registeredCheckerNames() {
+    List<String> names = new ArrayList<String>(Arrays.asList("unchecked", "rawtypes"));
+    for (CheckerRegistry.Entry entry : CheckerRegistry.allEntries()) {
+      names.add(entry.getPattern().name());
+    }
+    return names;
+  }
+
+  /**
+   * A compilation unit to copy into the corpus.
+   */
+  public static class Template {
+    private final String fileName;
+    private final String source;
+
+    public Template(String fileName, String source) {
+      this.fileName = fileName;
+      this.source = source;
+    }
+
+    /**
+     * Loads the Java sources in a directory, in order of name, which compile on their own on this
+     * class's classpath.  Which templates are left out therefore depends on the classpath: the
+     * test cases that need Guava or Guice, for instance, are only used when they are on it.
+     *
+     * @param includePositiveCases whether to include the test cases that error-prone reports
+     *     findings in.  Those make a compile with error-prone fail, after which javac stops
+     *     analyzing the rest of the corpus.
+     */
+    public static List<Template> loadAll(File dir, boolean includePositiveCases)
+        throws IOException {
+      File[] files = dir.listFiles();
+      if (files == null) {
+        throw new IllegalArgumentException("No such directory: " + dir.getAbsolutePath());
+      }
+      Arrays.sort(files);
+      List<Template> templates = new ArrayList<Template>();
+      for (File file : files) {
+        if (!file.getName().endsWith(".java")
+            || (!includePositiveCases && file.getName().contains("Positive"))) {
+          continue;
+        }
+        String source = read(file);
+        try {
+          String className = file.getName().substring(0, file.getName().length() - 5);
+          Compilation.analyze(Arrays.asList(Compilation.source(className, source)));
+        } catch (IllegalStateException e) {
+          // Needs something that isn't on the classpath.
+          continue;
+        }
+        templates.add(new Template(file.getName(), source));
+      }
+      return templates;
+    }
+  }
+
+  /**
+   * Returns the path of a unit, relative to the root of the corpus.
+   */
+  public String path(int unit) {
+    Random random = randomFor(unit);
+    Template template = pickTemplate(random);
+    if (template != null) {
+      return "corpus/t" + unit + "/" + template.fileName;
+    }
+    return packageOf(unit).replace('.', '/') + "/Unit" + unit + ".java";
+  }
+
+  /**
+   * Returns the source of a unit.
+   */
+  public String source(int unit) {
+    Random random = randomFor(unit);
+    Template template = pickTemplate(random);
+    if (template != null) {
+      Matcher packageDeclaration = PACKAGE.matcher(template.source);
+      String declaration = "package corpus.t" + unit + ";";
+      return packageDeclaration.find()
+          ? packageDeclaration.replaceFirst(declaration)
+          : declaration + "\n" + template.source;
+    }
+    return new UnitWriter(random).write(unit);
+  }
+
+  /**
+   * Returns the first {@code units} units of the corpus, in memory.
+   */
+  public List<JavaFileObject> sources(int units) {
+    List<JavaFileObject> sources = new ArrayList<JavaFileObject>();
+    for (int i = 0; i < units; i++) {
+      String path = path(i);
+      sources.add(Compilation.source(path.substring(0, path.length() - 5), source(i)));
+    }
+    return sources;
+  }
+
+  /**
+   * Writes the first {@code units} units of the corpus under a directory.
+   */
+  public void write(File dir, int units) throws IOException {
+    for (int i = 0; i < units; i++) {
+      File file = new File(dir, path(i));
+      file.getParentFile().mkdirs();
+      Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+      try {
+        out.write(source(i));
+      } finally {
+        out.close();
+      }
+    }
+  }
+
+  /**
+   * Returns the random number generator for a unit.  The seed is scrambled, since the first
+   * numbers drawn by Randoms with nearby seeds are nearly the same.
+   */
+  private Random randomFor(int unit) {
+    long z = seed * 1000003 + unit;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return new Random(z ^ (z >>> 31));
+  }
+
+  private Template pickTemplate(Random random) {
+    if (random.nextDouble() >= templateFraction) {
+      return null;
+    }
+    return templates.get(random.nextInt(templates.size()));
+  }
+
+  private static String packageOf(int unit) {
+    return "corpus.p" + (unit / UNITS_PER_PACKAGE);
+  }
+
+  /**
+   * Writes one generated unit.  Local variables are numbered across the whole unit, so no
+   * declaration ever hides another.
+   */
+  private class UnitWriter {
+    private final Random random;
+    private final StringBuilder out = new StringBuilder();
+    private int locals = 0;
+
+    UnitWriter(Random random) {
+      this.random = random;
+    }
+
+    String write(int unit) {
+      out.append("package ").append(packageOf(unit)).append(";\n\n");
+      out.append("import java.util.ArrayList;\n");
+      out.append("import java.util.HashMap;\n");
+      out.append("import java.util.List;\n");
+      out.append("import java.util.Map;\n\n");
+      writeClass("public class Unit" + unit, 0, "");
+      return out.toString();
+    }
+
+    private void writeClass(String declaration, int level, String indent) {
+      suppressions(indent);
+      out.append(indent).append(declaration).append(" {\n");
+      String memberIndent = indent + "  ";
+      int classMethods = random.nextDouble() < hugeClasses ? methods * HUGE_CLASS_FACTOR : methods;
+      for (int i = 0; i < fields; i++) {
+        suppressions(memberIndent);
+        if (i % 2 == 0) {
+          out.append(memberIndent).append("private int field").append(i).append(" = ")
+              .append(random.nextInt(100)).append(";\n");
+        } else {
+          out.append(memberIndent).append("private final List<String> field").append(i)
+              .append(" = new ArrayList<String>();\n");
+        }
+      }
+      for (int i = 0; i < classMethods; i++) {
+        out.append('\n');
+        suppressions(memberIndent);
+        out.append(memberIndent).append("int method").append(i)
+            .append("(int a, String s, List<String> list) {\n");
+        writeBlock(i, 0, memberIndent + "  ");
+        out.append(memberIndent).append("  return a + list.size();\n");
+        out.append(memberIndent).append("}\n");
+      }
+      if (level + 1 < depth) {
+        out.append('\n');
+        writeClass("static class Nested" + (level + 1), level + 1, memberIndent);
+      }
+      out.append(indent).append("}\n");
+    }
+
+    private void suppressions(String indent) {
+      if (random.nextDouble() < suppressions && !warningNames.isEmpty()) {
+        out.append(indent).append("@SuppressWarnings(\"")
+            .append(warningNames.get(random.nextInt(warningNames.size()))).append("\")\n");
+      }
+    }
+
+    /**
+     * Writes the statements of a block in the given method.  Statements may call the methods
+     * declared before it.
+     */
+    private void writeBlock(int method, int level, String indent) {
+      for (int i = 0; i < statements; i++) {
+        int local = locals++;
+        boolean nest = level + 1 < depth;
+        switch (random.nextInt(nest ? 10 : 6)) {
+          case 0:
+            out.append(indent).append("int v").append(local).append(" = a * ").append(local)
+                .append(" + s.length();\n");
+            out.append(indent).append("a += v").append(local).append(";\n");
+            break;
+          case 1:
+            out.append(indent).append("list.add(s + ").append(local).append(");\n");
+            break;
+          case 2:
+            out.append(indent).append("s = String.valueOf(a).trim();\n");
+            break;
+          case 3:
+            out.append(indent).append("Map<String, Integer> m").append(local)
+                .append(" = new HashMap<String, Integer>();\n");
+            out.append(indent).append("m").append(local).append(".put(s, a);\n");
+            out.append(indent).append("a += m").append(local).append(".size();\n");
+            break;
+          case 4:
+            if (method > 0) {
+              out.append(indent).append("a += method").append(random.nextInt(method))
+                  .append("(a, s, list);\n");
+            } else {
+              out.append(indent).append("a -= list.size();\n");
+            }
+            break;
+          case 5:
+            if (fields > 0) {
+              int field = random.nextInt(fields);
+              out.append(indent).append(field % 2 == 0
+                  ? "a += field" + field + ";\n"
+                  : "field" + field + ".add(s);\n");
+            } else {
+              out.append(indent).append("a ^= s.hashCode();\n");
+            }
+            break;
+          case 6:
+            out.append(indent).append("if (a > ").append(local).append(") {\n");
+            writeBlock(method, level + 1, indent + "  ");
+            out.append(indent).append("} else {\n");
+            writeBlock(method, level + 1, indent + "  ");
+            out.append(indent).append("}\n");
+            break;
+          case 7:
+            out.append(indent).append("for (int i").append(local).append(" = 0; i")
+                .append(local).append(" < a; i").append(local).append("++) {\n");
+            writeBlock(method, level + 1, indent + "  ");
+            out.append(indent).append("}\n");
+            break;
+          case 8:
+            out.append(indent).append("while (a > ").append(local).append(") {\n");
+            out.append(indent).append("  a /= 2;\n");
+            writeBlock(method, level + 1, indent + "  ");
+            out.append(indent).append("}\n");
+            break;
+          default:
+            out.append(indent).append("try {\n");
+            writeBlock(method, level + 1, indent + "  ");
+            out.append(indent).append("} catch (RuntimeException e").append(local)
+                .append(") {\n");
+            out.append(indent).append("  a--;\n");
+            out.append(indent).append("}\n");
+            break;
+        }
+      }
+    }
+  }
+
+  private static String read(File file) throws IOException {
+    Reader in = new InputStreamReader(new FileInputStream(file), "UTF-8");
+    try {
+      StringBuilder contents = new StringBuilder();
+      char[] buffer = new char[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        contents.append(buffer, 0, read);
+      }
+      return contents.toString();
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Writes a corpus under a directory.  Usage:
+   *
+   * <pre>
+   * CorpusGenerator [-seed N] [-methods N] [-fields N] [-statements N] [-depth N]
+   *     [-hugeClasses F] [-suppressions F] [-templates F] [-positiveCases]
+   *     [-testCases DIR] UNITS OUTPUT_DIR
+   * </pre>
+   *
+   * where F is a fraction between 0 and 1, and the test cases are read from
+   * {@value #TEST_CASES} by default.
+   */
+  public static void main(String[] args) throws IOException {
+    Builder builder = new Builder();
+    double templateFraction = 0.1;
+    boolean positiveCases = false;
+    String testCases = TEST_CASES;
+    int i = 0;
+    for (; i < args.length && args[i].startsWith("-"); i++) {
+      String flag = args[i];
+      if (flag.equals("-positiveCases")) {
+        positiveCases = true;
+        continue;
+      }
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException("Missing value for " + flag);
+      }
+      String value = args[++i];
+      if (flag.equals("-seed")) {
+        builder.seed(Long.parseLong(value));
+      } else if (flag.equals("-methods")) {
+        builder.methods(Integer.parseInt(value));
+      } else if (flag.equals("-fields")) {
+        builder.fields(Integer.parseInt(value));
+      } else if (flag.equals("-statements")) {
+        builder.statements(Integer.parseInt(value));
+      } else if (flag.equals("-depth")) {
+        builder.depth(Integer.parseInt(value));
+      } else if (flag.equals("-hugeClasses")) {
+        builder.hugeClasses(Double.parseDouble(value));
+      } else if (flag.equals("-suppressions")) {
+        builder.suppressions(Double.parseDouble(value));
+      } else if (flag.equals("-templates")) {
+        templateFraction = Double.parseDouble(value);
+      } else if (flag.equals("-testCases")) {
+        testCases = value;
+      } else {
+        throw new IllegalArgumentException("Unknown flag " + flag);
+      }
+    }
+    if (args.length - i != 2) {
+      throw new IllegalArgumentException("Usage: CorpusGenerator [flags] UNITS OUTPUT_DIR");
+    }
+    int units = Integer.parseInt(args[i]);
+    File output = new File(args[i + 1]);
+    if (templateFraction > 0) {
+      builder.templates(Template.loadAll(new File(testCases), positiveCases), templateFraction);
+    }
+    builder.build().write(output, units);
+    System.out.printf("Wrote %d units under %s\n", units, output.getAbsolutePath());
+  }
+}
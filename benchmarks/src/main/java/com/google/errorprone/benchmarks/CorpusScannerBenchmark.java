@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.ErrorProneScanner;
+import com.google.errorprone.ErrorProneScanner.EnabledPredicate;
+import com.google.errorprone.Scanner;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Description;
+
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans a generated corpus with the checkers enabled by default, to see how scanning scales with
+ * the number of compilation units.  The corpus is generated and attributed once, in the setup,
+ * and is kept in memory, so larger corpora, such as 100k units, are better timed end to end by
+ * writing them out with {@link CorpusGenerator#main} and compiling them with DogfoodErrorProne.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class CorpusScannerBenchmark {
+
+  @Param({"1000", "10000"})
+  public int units;
+
+  @Param("0")
+  public long seed;
+
+  /**
+   * The fraction of units copied from the checkers' negative test cases, which are read from
+   * {@link CorpusGenerator#TEST_CASES} relative to the working directory.
+   */
+  @Param("0.1")
+  public double testCases;
+
+  private Compilation compilation;
+  private Scanner scanner;
+
+  @Setup
+  public void setUp() throws Exception {
+    CorpusGenerator.Builder generator = new CorpusGenerator.Builder().seed(seed);
+    if (testCases > 0) {
+      generator.templates(CorpusGenerator.Template.loadAll(
+          new File(CorpusGenerator.TEST_CASES), false), testCases);
+    }
+    compilation = Compilation.analyze(generator.build().sources(units));
+    scanner = new ErrorProneScanner(EnabledPredicate.DEFAULT_CHECKS);
+  }
+
+  /**
+   * Returns the number of findings.
+   */
+  @Benchmark
+  public int scanCorpus() {
+    final int[] descriptions = {0};
+    VisitorState state = new VisitorState(compilation.getContext(), new DescriptionListener() {
+      @Override
+      public void onDescribed(Description description) {
+        descriptions[0]++;
+      }
+    });
+    for (JCCompilationUnit unit : compilation.getUnits()) {
+      scanner.scan(unit, state);
+    }
+    return descriptions[0];
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import static com.google.errorprone.matchers.Matchers.allOf;
+import static com.google.errorprone.matchers.Matchers.anyOf;
+import static com.google.errorprone.matchers.Matchers.hasMethod;
+import static com.google.errorprone.matchers.Matchers.isDescendantOfMethod;
+import static com.google.errorprone.matchers.Matchers.kindIs;
+import static com.google.errorprone.matchers.Matchers.methodHasParameters;
+import static com.google.errorprone.matchers.Matchers.methodIsNamed;
+import static com.google.errorprone.matchers.Matchers.methodSelect;
+import static com.google.errorprone.matchers.Matchers.not;
+import static com.google.errorprone.matchers.Matchers.staticMethod;
+import static com.google.errorprone.matchers.Matchers.variableType;
+
+import com.google.errorprone.MatchListener;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.Matchers;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.Tree.Kind;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs matchers built with the {@link com.google.errorprone.matchers.Matchers} combinators, of
+ * the kinds the checkers use, over every node of the kind they match in a set of attributed
+ * sources.  The sources are compiled and their nodes collected once, in the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MatchersBenchmark {
+
+  @SuppressWarnings("unchecked")
+  private static final Matcher<ExpressionTree> STATIC_METHODS = anyOf(
+      staticMethod("com.google.errorprone.util.ASTHelpers", "getSymbol"),
+      staticMethod("java.lang.String", "format"),
+      staticMethod("java.util.Arrays", "asList"));
+
+  @SuppressWarnings("unchecked")
+  private static final Matcher<MethodInvocationTree> MAP_GET = methodSelect(allOf(
+      not(kindIs(Kind.IDENTIFIER)),
+      isDescendantOfMethod("java.util.Map", "get(java.lang.Object)")));
+
+  @SuppressWarnings("unchecked")
+  private static final Matcher<VariableTree> COLLECTION_VARIABLE = variableType(anyOf(
+      Matchers.<Tree>isSubtypeOf("java.util.Collection"),
+      Matchers.<Tree>isSubtypeOf("java.util.Map")));
+
+  @SuppressWarnings("unchecked")
+  private static final Matcher<ClassTree> DECLARES_EQUALS = hasMethod(allOf(
+      methodIsNamed("equals"),
+      methodHasParameters(variableType(Matchers.<Tree>isSameType("java.lang.Object")))));
+
+  /**
+   * The directory of sources to match over, relative to the working directory.
+   */
+  @Param("core/src/main/java")
+  public String sources;
+
+  private VisitorState state;
+  private final List<ExpressionTree> methodSelects = new ArrayList<ExpressionTree>();
+  private final List<MethodInvocationTree> invocations = new ArrayList<MethodInvocationTree>();
+  private final List<VariableTree> variables = new ArrayList<VariableTree>();
+  private final List<ClassTree> classes = new ArrayList<ClassTree>();
+
+  @Setup
+  public void setUp() throws Exception {
+    Compilation compilation = Compilation.analyze(Compilation.sourcesUnder(sources));
+    state = new VisitorState(compilation.getContext(), (MatchListener) null);
+    for (JCCompilationUnit unit : compilation.getUnits()) {
+      unit.accept(new TreeScanner<Void, Void>() {
+        @Override
+        public Void visitMethodInvocation(MethodInvocationTree tree, Void unused) {
+          invocations.add(tree);
+          methodSelects.add(tree.getMethodSelect());
+          return super.visitMethodInvocation(tree, unused);
+        }
+
+        @Override
+        public Void visitVariable(VariableTree tree, Void unused) {
+          variables.add(tree);
+          return super.visitVariable(tree, unused);
+        }
+
+        @Override
+        public Void visitClass(ClassTree tree, Void unused) {
+          classes.add(tree);
+          return super.visitClass(tree, unused);
+        }
+      }, null);
+    }
+  }
+
+  @Benchmark
+  public int anyOfStaticMethods() {
+    return countMatches(STATIC_METHODS, methodSelects);
+  }
+
+  @Benchmark
+  public int allOfDescendantMethod() {
+    return countMatches(MAP_GET, invocations);
+  }
+
+  @Benchmark
+  public int variableOfSubtype() {
+    return countMatches(COLLECTION_VARIABLE, variables);
+  }
+
+  @Benchmark
+  public int hasEqualsMethod() {
+    return countMatches(DECLARES_EQUALS, classes);
+  }
+
+  private <T extends Tree> int countMatches(Matcher<? super T> matcher, List<T> trees) {
+    int matches = 0;
+    for (T tree : trees) {
+      if (matcher.matches(tree, state)) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+}
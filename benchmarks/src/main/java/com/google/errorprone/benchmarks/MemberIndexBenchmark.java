@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.MemberIndex;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.TypeSymbol;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.Context;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up a superclass's methods by name through {@link MemberIndex} with scanning
+ * all of its members, as WrongParameterPackage did, for every method of a generated class which
+ * overrides thousands of methods.  The classes are compiled once, in the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MemberIndexBenchmark {
+
+  /**
+   * The number of methods in each generated class, in pairs overloaded on their parameter.
+   */
+  @Param({"500", "5000"})
+  public int methods;
+
+  private final List<MethodSymbol> declared = new ArrayList<MethodSymbol>();
+  private TypeSymbol superClass;
+
+  @Setup
+  public void setUp() throws Exception {
+    Compilation compilation = Compilation.analyze(Arrays.asList(
+        Compilation.source("Base", source("Base", null)),
+        Compilation.source("Derived", source("Derived", "Base"))));
+    ClassTree derived = null;
+    for (JCCompilationUnit unit : compilation.getUnits()) {
+      for (Tree decl : unit.getTypeDecls()) {
+        if (((ClassTree) decl).getSimpleName().contentEquals("Derived")) {
+          derived = (ClassTree) decl;
+        }
+      }
+    }
+    for (Tree member : derived.getMembers()) {
+      if (member instanceof MethodTree) {
+        declared.add((MethodSymbol) ASTHelpers.getSymbol(member));
+      }
+    }
+    superClass = ((ClassSymbol) ASTHelpers.getSymbol(derived)).getSuperclass().tsym;
+  }
+
+  /**
+   * Scans every member of the superclass for each method.  Returns the number of members found.
+   */
+  @Benchmark
+  public int scanMembers() {
+    int found = 0;
+    for (MethodSymbol method : declared) {
+      for (Symbol member : superClass.members().getElements()) {
+        if (member.name == method.name) {
+          found++;
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Looks each method up in the superclass's scope through {@link MemberIndex}.  Returns the
+   * number of members found.
+   */
+  @Benchmark
+  public int lookUpInIndex() {
+    int found = 0;
+    MemberIndex index = MemberIndex.instance(new Context());
+    for (MethodSymbol method : declared) {
+      found += index.getMethods(superClass, method.name).size();
+    }
+    return found;
+  }
+
+  private String source(String name, String superClass) {
+    StringBuilder source = new StringBuilder();
+    source.append("public class ").append(name);
+    if (superClass != null) {
+      source.append(" extends ").append(superClass);
+    }
+    source.append(" {\n");
+    for (int i = 0; i < methods; i++) {
+      source.append("  public int method").append(i / 2)
+          .append(i % 2 == 0 ? "(int i)" : "(String s)").append(" { return ").append(i)
+          .append("; }\n");
+    }
+    return source.append("}\n").toString();
+  }
+}
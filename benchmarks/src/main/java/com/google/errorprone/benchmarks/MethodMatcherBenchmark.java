@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.MatchListener;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.DescendantOf;
+import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.StaticMethod;
+import com.google.errorprone.util.ASTHelpers;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.util.TreeScanner;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link StaticMethod} and {@link DescendantOf}, which compare Names and cache
+ * signatures, with the string-comparing versions they replaced, over every method invocation in
+ * a set of attributed sources.  Run with {@code -prof gc} to compare what they allocate too.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MethodMatcherBenchmark {
+
+  private static final String[][] STATIC_METHODS = {
+      {"com.google.errorprone.util.ASTHelpers", "getSymbol"},
+      {"com.google.errorprone.matchers.Matchers", "allOf"},
+      {"java.lang.String", "format"},
+      {"java.util.Arrays", "asList"},
+  };
+
+  private static final String[][] DESCENDANT_METHODS = {
+      {"java.util.Map", "get(java.lang.Object)"},
+      {"java.util.Collection", "contains(java.lang.Object)"},
+      {"java.util.List", "add(E)"},
+      {"java.lang.Object", "toString()"},
+  };
+
+  /**
+   * The directory of sources to match over, relative to the working directory.
+   */
+  @Param("core/src/main/java")
+  public String sources;
+
+  private VisitorState state;
+  private final List<ExpressionTree> methodSelects = new ArrayList<ExpressionTree>();
+  private final List<Matcher<ExpressionTree>> staticMethods =
+      new ArrayList<Matcher<ExpressionTree>>();
+  private final List<Matcher<ExpressionTree>> stringStaticMethods =
+      new ArrayList<Matcher<ExpressionTree>>();
+  private final List<Matcher<ExpressionTree>> descendantMethods =
+      new ArrayList<Matcher<ExpressionTree>>();
+  private final List<Matcher<ExpressionTree>> stringDescendantMethods =
+      new ArrayList<Matcher<ExpressionTree>>();
+
+  @Setup
+  public void setUp() throws Exception {
+    Compilation compilation = Compilation.analyze(Compilation.sourcesUnder(sources));
+    state = new VisitorState(compilation.getContext(), (MatchListener) null);
+    for (JCCompilationUnit unit : compilation.getUnits()) {
+      unit.accept(new TreeScanner<Void, Void>() {
+        @Override
+        public Void visitMethodInvocation(MethodInvocationTree tree, Void unused) {
+          if (ASTHelpers.getSymbol(tree.getMethodSelect()) instanceof MethodSymbol) {
+            methodSelects.add(tree.getMethodSelect());
+          }
+          return super.visitMethodInvocation(tree, unused);
+        }
+      }, null);
+    }
+    for (String[] method : STATIC_METHODS) {
+      staticMethods.add(new StaticMethod(method[0], method[1]));
+      stringStaticMethods.add(new StringStaticMethod(method[0], method[1]));
+    }
+    for (String[] method : DESCENDANT_METHODS) {
+      descendantMethods.add(new DescendantOf(method[0], method[1]));
+      stringDescendantMethods.add(new StringDescendantOf(method[0], method[1]));
+    }
+  }
+
+  @Benchmark
+  public int staticMethodByName() {
+    return countMatches(staticMethods);
+  }
+
+  @Benchmark
+  public int staticMethodByString() {
+    return countMatches(stringStaticMethods);
+  }
+
+  @Benchmark
+  public int descendantOfByName() {
+    return countMatches(descendantMethods);
+  }
+
+  @Benchmark
+  public int descendantOfByString() {
+    return countMatches(stringDescendantMethods);
+  }
+
+  private int countMatches(List<Matcher<ExpressionTree>> matchers) {
+    int matches = 0;
+    for (ExpressionTree methodSelect : methodSelects) {
+      for (Matcher<ExpressionTree> matcher : matchers) {
+        if (matcher.matches(methodSelect, state)) {
+          matches++;
+        }
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * StaticMethod as it was, comparing the rendered names of the method and its class.
+   */
+  private static class StringStaticMethod implements Matcher<ExpressionTree> {
+    private final String fullClass;
+    private final String methodName;
+
+    StringStaticMethod(String fullClass, String methodName) {
+      this.fullClass = fullClass;
+      this.methodName = methodName;
+    }
+
+    @Override
+    public boolean matches(ExpressionTree item, VisitorState state) {
+      Symbol sym = ASTHelpers.getSymbol(item);
+      if (!sym.isStatic()) {
+        return false;
+      }
+      boolean methodSame = sym.getQualifiedName().toString().equals(methodName);
+      boolean classSame = sym.owner.getQualifiedName().toString().equals(fullClass);
+      return methodSame && classSame;
+    }
+  }
+
+  /**
+   * DescendantOf as it was, rendering the signature of every method it is given.
+   */
+  private static class StringDescendantOf implements Matcher<ExpressionTree> {
+    private final String fullClassName;
+    private final String methodName;
+
+    StringDescendantOf(String fullClassName, String methodName) {
+      this.fullClassName = fullClassName;
+      this.methodName = methodName;
+    }
+
+    @Override
+    public boolean matches(ExpressionTree expressionTree, VisitorState state) {
+      Symbol sym = ASTHelpers.getSymbol(expressionTree);
+      if (sym.isStatic()) {
+        return false;
+      }
+      if (methodName.equals(sym.toString())) {
+        Type collectionType = state.getTypeFromString(fullClassName);
+        if (collectionType != null) {
+          return state.getTypes().isSubtype(sym.owner.type,
+              state.getTypes().erasure(collectionType));
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.ErrorProneScanner;
+import com.google.errorprone.ErrorProneScanner.EnabledPredicate;
+import com.google.errorprone.Scanner;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Description;
+
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans whole attributed compilation units with the checkers enabled by default, as
+ * ErrorProneAnalyzer does after flow analysis.  The sources are compiled once, in the setup.
+ *
+ * <p>One scanner is reused for every scan, as one is for every compilation unit in a build, so
+ * the suppressions it caches per symbol are warm after the first iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ScannerBenchmark {
+
+  /**
+   * The directory of sources to scan, relative to the working directory.
+   */
+  @Param("core/src/main/java")
+  public String sources;
+
+  private Compilation compilation;
+  private Scanner scanner;
+
+  @Setup
+  public void setUp() throws Exception {
+    compilation = Compilation.analyze(Compilation.sourcesUnder(sources));
+    scanner = new ErrorProneScanner(EnabledPredicate.DEFAULT_CHECKS);
+  }
+
+  /**
+   * Returns the number of findings.
+   */
+  @Benchmark
+  public int scanDefaultChecks() {
+    CountingListener listener = new CountingListener();
+    VisitorState state = new VisitorState(compilation.getContext(), listener);
+    for (JCCompilationUnit unit : compilation.getUnits()) {
+      scanner.scan(unit, state);
+    }
+    return listener.descriptions;
+  }
+
+  private static class CountingListener implements DescriptionListener {
+    int descriptions = 0;
+
+    @Override
+    public void onDescribed(Description description) {
+      descriptions++;
+    }
+  }
+}
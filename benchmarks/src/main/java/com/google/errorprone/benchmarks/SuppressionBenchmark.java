@@ -0,0 +1,159 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.benchmarks;
+
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.Scanner;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Suppressable;
+
+import com.sun.source.tree.Tree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans a generated class whose classes, fields and methods are nested {@code depth} deep, each
+ * with its own @SuppressWarnings annotation, with a scanner which asks at every node whether each
+ * of {@code depth} checkers is suppressed.  This is the work {@link Scanner} does for every
+ * checker the ErrorProneScanner runs, without the checkers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SuppressionBenchmark {
+
+  /**
+   * How deeply the classes are nested.  Past 64 the suppressed warnings no longer fit in one
+   * word of the scanner's bitsets.
+   */
+  @Param({"8", "64", "256"})
+  public int depth;
+
+  private Compilation compilation;
+  private SuppressionCountingScanner scanner;
+
+  @Setup
+  public void setUp() throws Exception {
+    compilation = Compilation.analyze(Arrays.asList(
+        Compilation.source("Nested", nestedSource(depth))));
+    scanner = new SuppressionCountingScanner(depth);
+  }
+
+  /**
+   * Returns a class with {@code depth} levels of nested classes.  The class at level {@code i}
+   * suppresses {@code Level<i>}, and has a field and a method which suppress names of their own.
+   */
+  static String nestedSource(int depth) {
+    StringBuilder source = new StringBuilder();
+    for (int i = 0; i < depth; i++) {
+      source.append("@SuppressWarnings({\"Level").append(i).append("\", \"unchecked\"})\n");
+      source.append(i == 0 ? "class Nested" : "class Nested" + i).append(" {\n");
+      source.append("  @SuppressWarnings(\"Field").append(i).append("\")\n");
+      source.append("  int field").append(i).append(" = ").append(i).append(";\n");
+      source.append("  @SuppressWarnings(\"Method").append(i).append("\")\n");
+      source.append("  int method").append(i).append("(int arg) {\n");
+      source.append("    int local = arg + field").append(i).append(";\n");
+      source.append("    return local * 2;\n");
+      source.append("  }\n");
+    }
+    for (int i = 0; i < depth; i++) {
+      source.append("}\n");
+    }
+    return source.toString();
+  }
+
+  /**
+   * Scans with the same scanner every time, so the suppressions of each declaration are only read
+   * from its annotations on the first scan.  Returns the number of suppressed checks.
+   */
+  @Benchmark
+  public int scanWithCachedSuppressions() {
+    return scan(scanner);
+  }
+
+  /**
+   * Scans with a new scanner every time, which reads the annotations of every declaration.
+   */
+  @Benchmark
+  public int scanWithNewScanner() {
+    return scan(new SuppressionCountingScanner(depth));
+  }
+
+  private int scan(SuppressionCountingScanner scanner) {
+    scanner.suppressed = 0;
+    scanner.scan(compilation.getUnits().get(0), new VisitorState(compilation.getContext(),
+        new DescriptionListener() {
+          @Override
+          public void onDescribed(Description description) {
+          }
+        }));
+    return scanner.suppressed;
+  }
+
+  /**
+   * Checks at every node whether each of the checkers named for a level of the generated class is
+   * suppressed.
+   */
+  private static class SuppressionCountingScanner extends Scanner {
+    private final long[][] masks;
+    int suppressed = 0;
+
+    SuppressionCountingScanner(int depth) {
+      masks = new long[depth][];
+      for (int i = 0; i < depth; i++) {
+        masks[i] = suppressionMask(named("Level" + i));
+      }
+    }
+
+    private static Suppressable named(final String name) {
+      return new Suppressable() {
+        @Override
+        public Set<String> getAllNames() {
+          return Collections.singleton(name);
+        }
+      };
+    }
+
+    @Override
+    protected void visitNode(Tree tree, VisitorState state) {
+      for (long[] mask : masks) {
+        if (isSuppressed(mask)) {
+          suppressed++;
+        }
+      }
+    }
+  }
+}
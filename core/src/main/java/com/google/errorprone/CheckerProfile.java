@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.errorprone.Json.quote;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Where a profiling scanner records, for each checker, how many times it was called, how many
+ * matches it found, how many times it was skipped because it was suppressed, and how long it took;
+ * and how long was spent working out which warnings are suppressed, and reporting findings and
+ * applying their suggested fixes.  Enabled with {@code -XepProfile}.
+ *
+ * <p>Compilation units are scanned, and their findings reported, one at a time on javac's
+ * thread, so the counts need no locking.
+ */
+public class CheckerProfile {
+
+  private final String[] names;
+  private final long[] calls;
+  private final long[] matches;
+  private final long[] suppressed;
+  private final long[] nanos;
+
+  private long declarations = 0;
+  private long suppressionNanos = 0;
+  private long reports = 0;
+  private long reportingNanos = 0;
+
+  /**
+   * @param names the names of the checkers, in the order of the indices they are recorded by
+   */
+  public CheckerProfile(List<String> names) {
+    this.names = names.toArray(new String[names.size()]);
+    this.calls = new long[names.size()];
+    this.matches = new long[names.size()];
+    this.suppressed = new long[names.size()];
+    this.nanos = new long[names.size()];
+  }
+
+  /**
+   * Records a call to a checker, and whether it found a match.
+   */
+  void recordCall(int checker, long elapsedNanos, boolean matched) {
+    calls[checker]++;
+    nanos[checker] += elapsedNanos;
+    if (matched) {
+      matches[checker]++;
+    }
+  }
+
+  /**
+   * Records that a checker was not called because it was suppressed.
+   */
+  void recordSuppressed(int checker) {
+    suppressed[checker]++;
+  }
+
+  /**
+   * Records the time taken to extend the current suppressions with those of a declaration.
+   */
+  void recordSuppressionHandling(long elapsedNanos) {
+    declarations++;
+    suppressionNanos += elapsedNanos;
+  }
+
+  /**
+   * Records the time taken to report a finding, including applying its suggested fix.
+   */
+  void recordReport(long elapsedNanos) {
+    reports++;
+    reportingNanos += elapsedNanos;
+  }
+
+  /**
+   * Returns the indices of the checkers, the slowest first.
+   */
+  private List<Integer> bySlowest() {
+    List<Integer> order = new ArrayList<Integer>();
+    for (int i = 0; i < names.length; i++) {
+      order.add(i);
+    }
+    Collections.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        if (nanos[a] != nanos[b]) {
+          return nanos[a] > nanos[b] ? -1 : 1;
+        }
+        return names[a].compareTo(names[b]);
+      }
+    });
+    return order;
+  }
+
+  /**
+   * Formats the profile as a table, with the slowest checkers first.  Checkers which were never
+   * called are left out.
+   */
+  public String toTable() {
+    StringBuilder table = new StringBuilder();
+    table.append(String.format(Locale.ENGLISH, "%-40s %10s %8s %10s %10s\n",
+        "error-prone checker", "calls", "matches", "suppressed", "time (ms)"));
+    long total = 0;
+    for (int i : bySlowest()) {
+      total += nanos[i];
+      if (calls[i] == 0 && suppressed[i] == 0) {
+        continue;
+      }
+      table.append(String.format(Locale.ENGLISH, "%-40s %10d %8d %10d %10.2f\n",
+          names[i], calls[i], matches[i], suppressed[i], millis(nanos[i])));
+    }
+    table.append(String.format(Locale.ENGLISH, "%-71s %10.2f\n",
+        "all checkers", millis(total)));
+    table.append(String.format(Locale.ENGLISH, "%-71s %10.2f\n",
+        "suppressions (" + declarations + " declarations)", millis(suppressionNanos)));
+    table.append(String.format(Locale.ENGLISH, "%-71s %10.2f",
+        "reporting and fixes (" + reports + " findings)", millis(reportingNanos)));
+    return table.toString();
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+
+  /**
+   * Writes the profile as a JSON object, with the slowest checkers first.  Times are in
+   * nanoseconds.
+   */
+  public void writeJson(Writer out) throws IOException {
+    out.write("{\n  \"checkers\": [");
+    String separator = "\n";
+    for (int i : bySlowest()) {
+      out.write(separator);
+      out.write("    {\"name\": " + quote(names[i]) + ", \"calls\": " + calls[i]
+          + ", \"matches\": " + matches[i] + ", \"suppressed\": " + suppressed[i]
+          + ", \"nanos\": " + nanos[i] + "}");
+      separator = ",\n";
+    }
+    out.write("\n  ],\n");
+    out.write("  \"suppressions\": {\"declarations\": " + declarations
+        + ", \"nanos\": " + suppressionNanos + "},\n");
+    out.write("  \"reporting\": {\"findings\": " + reports
+        + ", \"nanos\": " + reportingNanos + "}\n");
+    out.write("}\n");
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.errorprone.bugpatterns.BugChecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * The bug checkers in one jar or build, with their {@link BugPattern}s and the {@code *Matcher}
+ * interfaces of {@link BugChecker} they implement.
+ *
+ * <p>Subclasses are generated at build time by {@code CheckerRegistryGenerator}, an annotation
+ * processor in error_prone_docgen, from the checkers annotated with {@code @BugPattern}, and are
+ * listed in {@code META-INF/services/com.google.errorprone.CheckerRegistry}.  The scanner finds
+ * every registry on the classpath with {@link ServiceLoader}, so jars of third-party checkers
+ * built with the processor are picked up too, and can enable and create checkers without
+ * reading their annotations or instantiating them reflectively.
+ */
+public abstract class CheckerRegistry {
+
+  private static List<Entry> allEntries;
+
+  private final List<Entry> entries = new ArrayList<Entry>();
+
+  /**
+   * Returns the checkers of every registry on the classpath of this class.  The registries are
+   * only looked up once.
+   */
+  public static synchronized List<Entry> allEntries() {
+    if (allEntries == null) {
+      List<Entry> entries = new ArrayList<Entry>();
+      for (CheckerRegistry registry : ServiceLoader.load(CheckerRegistry.class,
+          CheckerRegistry.class.getClassLoader())) {
+        entries.addAll(registry.getEntries());
+      }
+      allEntries = Collections.unmodifiableList(entries);
+    }
+    return allEntries;
+  }
+
+  /**
+   * Returns this registry's checkers, in the order they were added.
+   */
+  public List<Entry> getEntries() {
+    return Collections.unmodifiableList(entries);
+  }
+
+  /**
+   * Adds a checker to the registry.  Called from the constructor of the generated subclass.
+   *
+   * @param matcherTypes the {@code *Matcher} interfaces of {@link BugChecker} which the checker
+   *     implements
+   */
+  protected final void add(Class<? extends BugChecker> checkerClass, BugPattern pattern,
+      Class<?>... matcherTypes) {
+    entries.add(new Entry(this, entries.size(), checkerClass, pattern, matcherTypes));
+  }
+
+  /**
+   * Creates a new instance of the checker added with the given index.
+   */
+  protected abstract BugChecker newChecker(int index);
+
+  /**
+   * A checker in a registry.
+   */
+  public static final class Entry {
+    private final CheckerRegistry registry;
+    private final int index;
+    private final Class<? extends BugChecker> checkerClass;
+    private final BugPattern pattern;
+    private final List<Class<?>> matcherTypes;
+
+    private Entry(CheckerRegistry registry, int index, Class<? extends BugChecker> checkerClass,
+        BugPattern pattern, Class<?>[] matcherTypes) {
+      this.registry = registry;
+      this.index = index;
+      this.checkerClass = checkerClass;
+      this.pattern = pattern;
+      this.matcherTypes = Collections.unmodifiableList(Arrays.asList(matcherTypes));
+    }
+
+    public Class<? extends BugChecker> getCheckerClass() {
+      return checkerClass;
+    }
+
+    /**
+     * Returns the checker's annotation, as recorded when the registry was generated.  It is not
+     * the annotation read from the class, and is only equal to itself.
+     */
+    public BugPattern getPattern() {
+      return pattern;
+    }
+
+    /**
+     * Returns the {@code *Matcher} interfaces of {@link BugChecker} which the checker implements.
+     */
+    public List<Class<?>> getMatcherTypes() {
+      return matcherTypes;
+    }
+
+    public BugChecker newChecker() {
+      return registry.newChecker(index);
+    }
+
+    @Override
+    public String toString() {
+      return pattern.name() + " (" + checkerClass.getName() + ")";
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * Sends compiles to a running {@link CompileServer}.
+ *
+ * <p>Its {@link #main} can be used in place of {@link ErrorProneCompiler#main}: it compiles on
+ * the server if one is running, and in its own JVM otherwise.
+ */
+public class CompileClient {
+
+  private CompileClient() {}
+
+  /**
+   * The file a server writes its address to unless told otherwise: .error-prone-server in the
+   * user's home directory.
+   */
+  public static File defaultAddressFile() {
+    return new File(System.getProperty("user.home"), ".error-prone-server");
+  }
+
+  /**
+   * Compiles on the server whose address is in the given file, and writes the compiler's output
+   * to {@code out}.  Relative paths are resolved against this JVM's working directory.
+   *
+   * @return javac's exit code
+   * @throws IOException if there is no server, or it could not be reached
+   */
+  public static int compile(File addressFile, String[] args, PrintWriter out)
+      throws IOException {
+    Socket socket = connect(addressFile);
+    try {
+      DataOutputStream request =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      CompileServer.writeString(request, CompileServer.COMPILE);
+      CompileServer.writeString(request, new File(System.getProperty("user.dir")).getPath());
+      request.writeInt(args.length);
+      for (String arg : args) {
+        CompileServer.writeString(request, arg);
+      }
+      request.flush();
+      return readResponse(socket, out);
+    } finally {
+      socket.close();
+    }
+  }
+
+  /**
+   * Stops the server whose address is in the given file.
+   */
+  public static void stop(File addressFile) throws IOException {
+    Socket socket = connect(addressFile);
+    try {
+      DataOutputStream request =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      CompileServer.writeString(request, CompileServer.STOP);
+      request.flush();
+      readResponse(socket, new PrintWriter(System.err, true));
+    } finally {
+      socket.close();
+    }
+  }
+
+  /**
+   * Connects to the server and presents the protocol version and token.
+   *
+   * @throws IOException if the server can't be reached, or refuses them
+   */
+  private static Socket connect(File addressFile) throws IOException {
+    String[] address;
+    BufferedReader in =
+        new BufferedReader(new InputStreamReader(new FileInputStream(addressFile), "UTF-8"));
+    try {
+      String line = in.readLine();
+      address = line == null ? new String[0] : line.trim().split(" ");
+    } finally {
+      in.close();
+    }
+    if (address.length != 2) {
+      throw new IOException("Invalid compile server address in " + addressFile);
+    }
+    Socket socket;
+    try {
+      socket = new Socket(InetAddress.getByName("127.0.0.1"), Integer.parseInt(address[0]));
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid compile server address in " + addressFile);
+    }
+    DataOutputStream request =
+        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    request.writeInt(CompileServer.PROTOCOL_VERSION);
+    CompileServer.writeString(request, address[1]);
+    request.flush();
+    String refusal =
+        CompileServer.readString(new DataInputStream(socket.getInputStream()));
+    if (!refusal.isEmpty()) {
+      socket.close();
+      throw new IOException("error-prone compile server refused the request: " + refusal);
+    }
+    return socket;
+  }
+
+  private static int readResponse(Socket socket, PrintWriter out) throws IOException {
+    DataInputStream response =
+        new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    out.print(CompileServer.readString(response));
+    out.flush();
+    return response.readInt();
+  }
+
+  /**
+   * Compiles on the server if one is running, and in this JVM otherwise.  Usage:
+   *
+   * <pre>
+   * CompileClient [-addressFile FILE] javac-arguments...
+   * CompileClient [-addressFile FILE] -stop
+   * </pre>
+   */
+  public static void main(String[] args) throws IOException {
+    File addressFile = defaultAddressFile();
+    if (args.length >= 2 && args[0].equals("-addressFile")) {
+      addressFile = new File(args[1]);
+      args = Arrays.copyOfRange(args, 2, args.length);
+    }
+    if (args.length == 1 && args[0].equals("-stop")) {
+      stop(addressFile);
+      return;
+    }
+    if (addressFile.exists()) {
+      try {
+        System.exit(compile(addressFile, args, new PrintWriter(System.err, true)));
+      } catch (IOException e) {
+        // Stale address file, or the server stopped; compile here instead.
+      }
+    }
+    ErrorProneCompiler.main(args);
+  }
+}
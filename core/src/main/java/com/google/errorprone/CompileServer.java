@@ -0,0 +1,441 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.errorprone.ErrorProneScanner.EnabledPredicate.DEFAULT_CHECKS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A long-lived process which compiles with error-prone on behalf of {@link CompileClient}s, so
+ * that builds which compile many modules don't pay for starting a JVM, loading the checkers and
+ * warming up the matchers for each of them.
+ *
+ * <p>Every compile gets its own javac Context, as a compile in a fresh JVM would.  What is
+ * shared between compiles is the JIT-compiled code, and the scanner with its checkers.  Compiles
+ * run one at a time: some checkers share static matchers which keep state while matching, such as
+ * {@link com.google.errorprone.matchers.MultiMatcher}, so two compiles at once could report each
+ * other's nodes.  Requests which arrive during a compile wait for it to finish.
+ *
+ * <p>The server listens on a port of the loopback interface, and writes the port and a random
+ * token to its address file, which only its owner may read.  Requests which don't present the
+ * token are refused.  Relative paths in a request are resolved against the client's working
+ * directory, except for those inside {@code @argfiles}.
+ */
+public class CompileServer {
+
+  static final int PROTOCOL_VERSION = 1;
+  static final String COMPILE = "compile";
+  static final String STOP = "stop";
+
+  /**
+   * The longest token a client may present.  The token is read before anything else in the
+   * request, so a connection which doesn't know it can't make the server allocate more.
+   */
+  private static final int MAX_TOKEN_BYTES = 64;
+
+  /**
+   * The longest string an authenticated request may contain.
+   */
+  private static final int MAX_STRING_BYTES = 64 * 1024 * 1024;
+
+  /**
+   * How many connections may be open at once; further connections are closed at once, and their
+   * clients compile in their own JVMs.
+   */
+  private static final int MAX_CONNECTIONS = 16;
+
+  /**
+   * How long a client has to present the protocol version and token, in milliseconds.
+   */
+  private static final int HANDSHAKE_TIMEOUT_MILLIS = 10 * 1000;
+
+  /**
+   * The exit code javac uses when the compiler itself fails.
+   */
+  private static final int EXIT_ABNORMAL = 4;
+
+  /**
+   * The javac options whose value is a file, or a list of files.
+   */
+  private static final Set<String> PATH_OPTIONS = new HashSet<String>(Arrays.asList(
+      "-d", "-s", "-classpath", "-cp", "-sourcepath", "-bootclasspath", "-extdirs",
+      "-endorseddirs", "-processorpath", "-Xstdout"));
+
+  /**
+   * The javac options whose value is not a file.
+   */
+  private static final Set<String> OTHER_OPTIONS_WITH_VALUES = new HashSet<String>(Arrays.asList(
+      "-encoding", "-source", "-target", "-processor", "-Xmaxerrs", "-Xmaxwarns"));
+
+  private final ServerSocket serverSocket;
+  private final String token;
+  private final Semaphore connections = new Semaphore(MAX_CONNECTIONS);
+
+  /**
+   * Held for the duration of each compile, and guards {@link #scanner}.
+   */
+  private final Object compileLock = new Object();
+
+  /**
+   * The scanner used by every compile; created by the first one, and dropped if a compile fails
+   * in the middle of a scan.
+   */
+  private Scanner scanner;
+  private volatile boolean stopped = false;
+
+  /**
+   * Creates a server listening on the given port of the loopback interface, or on any free port
+   * if it is 0.
+   */
+  public CompileServer(int port) throws IOException {
+    this.serverSocket = new ServerSocket(port, 50, InetAddress.getByName("127.0.0.1"));
+    byte[] secret = new byte[16];
+    new SecureRandom().nextBytes(secret);
+    StringBuilder hex = new StringBuilder();
+    for (byte b : secret) {
+      hex.append(String.format("%02x", b));
+    }
+    this.token = hex.toString();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Writes the port and token clients need to connect to the file, readable only by its owner.
+   *
+   * <p>A file is created with the permissions the umask allows, and anyone who opens it before
+   * they are narrowed can read what is written to it later.  So the address is written inside a
+   * directory only the owner can enter, and the finished file renamed into place.
+   */
+  public void writeAddressTo(File file) throws IOException {
+    file = file.getAbsoluteFile();
+    File privateDirectory = File.createTempFile(file.getName(), "", file.getParentFile());
+    if (!privateDirectory.delete() || !privateDirectory.mkdir()
+        || !restrictToOwner(privateDirectory)) {
+      privateDirectory.delete();
+      throw new IOException("Could not create a private directory next to " + file);
+    }
+    File temp = new File(privateDirectory, file.getName());
+    try {
+      new FileOutputStream(temp).close();
+      if (!restrictToOwner(temp)) {
+        throw new IOException("Could not make " + temp + " readable only by its owner");
+      }
+      Writer out = new OutputStreamWriter(new FileOutputStream(temp), "UTF-8");
+      try {
+        out.write(getPort() + " " + token + "\n");
+      } finally {
+        out.close();
+      }
+      file.delete();
+      if (!temp.renameTo(file)) {
+        throw new IOException("Could not move " + temp + " to " + file);
+      }
+    } finally {
+      temp.delete();
+      privateDirectory.delete();
+    }
+  }
+
+  private static boolean restrictToOwner(File file) {
+    boolean restricted = file.setReadable(false, false) && file.setWritable(false, false)
+        && file.setReadable(true, true) && file.setWritable(true, true);
+    if (file.isDirectory()) {
+      restricted &= file.setExecutable(false, false) && file.setExecutable(true, true);
+    }
+    return restricted;
+  }
+
+  /**
+   * Accepts requests until a client asks the server to stop, handling each on a thread of its
+   * own, up to {@link #MAX_CONNECTIONS} at a time.
+   */
+  public void serve() throws IOException {
+    while (!stopped) {
+      final Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (SocketException e) {
+        if (stopped) {
+          // The socket was closed by a stop request.
+          return;
+        }
+        throw e;
+      }
+      if (!connections.tryAcquire()) {
+        socket.close();
+        continue;
+      }
+      Thread handler = new Thread("error-prone compile " + socket.getPort()) {
+        @Override
+        public void run() {
+          try {
+            handle(socket);
+          } catch (IOException e) {
+            // The client went away; there is no one to tell.
+          } finally {
+            try {
+              socket.close();
+            } catch (IOException e) {
+              // Already gone.
+            } finally {
+              connections.release();
+            }
+          }
+        }
+      };
+      handler.start();
+    }
+  }
+
+  /**
+   * Stops accepting requests.  Compiles in progress run to completion.
+   */
+  public void stop() throws IOException {
+    stopped = true;
+    serverSocket.close();
+  }
+
+  /**
+   * Reads a request, and writes the compiler's output and exit code back.
+   *
+   * <p>A request starts with the protocol version and the token, which the server answers with
+   * an empty string if it accepts them, or the reason it doesn't.  The client has
+   * {@link #HANDSHAKE_TIMEOUT_MILLIS} to send them.  The client then sends the
+   * command and, for a compile, its working directory and the javac arguments.  Every string is
+   * sent as its length followed by its bytes in UTF-8, since command lines can exceed what
+   * {@link DataOutputStream#writeUTF} allows.
+   */
+  private void handle(Socket socket) throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+    if (in.readInt() != PROTOCOL_VERSION) {
+      writeString(out, "unsupported protocol version");
+      out.flush();
+      return;
+    }
+    if (!token.equals(readString(in, MAX_TOKEN_BYTES))) {
+      writeString(out, "wrong token");
+      out.flush();
+      return;
+    }
+    writeString(out, "");
+    out.flush();
+    socket.setSoTimeout(0);
+
+    String command = readString(in);
+    if (command.equals(STOP)) {
+      stop();
+      respond(out, "", 0);
+      return;
+    }
+    if (!command.equals(COMPILE)) {
+      respond(out, "error-prone compile server: unknown command " + command + "\n", 2);
+      return;
+    }
+    File workingDirectory = new File(readString(in));
+    String[] args = new String[in.readInt()];
+    for (int i = 0; i < args.length; i++) {
+      args[i] = readString(in);
+    }
+    StringWriter output = new StringWriter();
+    int exitCode = compile(resolveAgainst(workingDirectory, args), new PrintWriter(output, true));
+    respond(out, output.toString(), exitCode);
+  }
+
+  private static void respond(DataOutputStream out, String output, int exitCode)
+      throws IOException {
+    writeString(out, output);
+    out.writeInt(exitCode);
+    out.flush();
+  }
+
+  /**
+   * Compiles with the server's scanner, once any compile in progress has finished.
+   */
+  int compile(String[] args, PrintWriter out) {
+    synchronized (compileLock) {
+      if (scanner == null) {
+        scanner = new ErrorProneScanner(DEFAULT_CHECKS);
+      }
+      try {
+        return new ErrorProneCompiler.Builder()
+            .redirectOutputTo(out)
+            .report(scanner)
+            .build()
+            .compile(args);
+      } catch (RuntimeException e) {
+        // Would have ended a compile in a JVM of its own; here it only ends this one, and the
+        // scanner, which may have been left mid-scan, is dropped.
+        e.printStackTrace(out);
+        scanner = null;
+        return EXIT_ABNORMAL;
+      } finally {
+        out.flush();
+      }
+    }
+  }
+
+  /**
+   * Resolves the relative source files and paths in a command line against a directory, which
+   * the server's own working directory is not.  If no classpath is given, javac would default
+   * to the server's, so the directory is made the classpath instead, as javac would on the
+   * client.  Unless the command line names one, the directory is also made the working directory
+   * error-prone makes the paths in patches relative to.
+   */
+  static String[] resolveAgainst(File dir, String[] args) {
+    List<String> resolved = new ArrayList<String>();
+    boolean hasClasspath = false;
+    boolean hasWorkingDirectory = false;
+    for (int i = 0; i < args.length; i++) {
+      String arg = args[i];
+      if (PATH_OPTIONS.contains(arg) && i + 1 < args.length) {
+        hasClasspath |= arg.equals("-classpath") || arg.equals("-cp");
+        resolved.add(arg);
+        resolved.add(resolvePaths(dir, args[++i]));
+      } else if (OTHER_OPTIONS_WITH_VALUES.contains(arg) && i + 1 < args.length) {
+        resolved.add(arg);
+        resolved.add(args[++i]);
+      } else if (arg.startsWith(ErrorProneOptions.CACHE_DIR)) {
+        resolved.add(resolvePrefixed(dir, ErrorProneOptions.CACHE_DIR, arg));
+      } else if (arg.startsWith(ErrorProneOptions.PATCH_DIR)) {
+        resolved.add(resolvePrefixed(dir, ErrorProneOptions.PATCH_DIR, arg));
+      } else if (arg.startsWith(ErrorProneOptions.PROFILE + "=")) {
+        resolved.add(resolvePrefixed(dir, ErrorProneOptions.PROFILE + "=", arg));
+      } else if (arg.startsWith(ErrorProneOptions.FINDINGS)) {
+        resolved.add(resolvePrefixed(dir, ErrorProneOptions.FINDINGS, arg));
+      } else if (arg.startsWith(ErrorProneOptions.WORKING_DIR)) {
+        hasWorkingDirectory = true;
+        resolved.add(resolvePrefixed(dir, ErrorProneOptions.WORKING_DIR, arg));
+      } else if (arg.startsWith("@")) {
+        resolved.add("@" + resolve(dir, arg.substring(1)));
+      } else if (arg.startsWith("-")) {
+        resolved.add(arg);
+      } else {
+        resolved.add(resolve(dir, arg));
+      }
+    }
+    if (!hasClasspath) {
+      resolved.add(0, "-classpath");
+      resolved.add(1, dir.getPath());
+    }
+    if (!hasWorkingDirectory) {
+      resolved.add(0, ErrorProneOptions.WORKING_DIR + dir.getPath());
+    }
+    return resolved.toArray(new String[resolved.size()]);
+  }
+
+  private static String resolvePrefixed(File dir, String prefix, String arg) {
+    return prefix + resolve(dir, arg.substring(prefix.length()));
+  }
+
+  private static String resolvePaths(File dir, String paths) {
+    StringBuilder resolved = new StringBuilder();
+    for (String path : paths.split(File.pathSeparator, -1)) {
+      if (resolved.length() > 0) {
+        resolved.append(File.pathSeparator);
+      }
+      resolved.append(path.isEmpty() ? dir.getPath() : resolve(dir, path));
+    }
+    return resolved.toString();
+  }
+
+  private static String resolve(File dir, String path) {
+    File file = new File(path);
+    return file.isAbsolute() ? path : new File(dir, path).getPath();
+  }
+
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes("UTF-8");
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    return readString(in, MAX_STRING_BYTES);
+  }
+
+  private static String readString(DataInputStream in, int maxBytes) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > maxBytes) {
+      throw new IOException("Invalid string length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, "UTF-8");
+  }
+
+  /**
+   * Runs a server until a client stops it.  Usage:
+   *
+   * <pre>
+   * CompileServer [-port N] [-addressFile FILE]
+   * </pre>
+   *
+   * The server listens on any free port by default, and writes its address to
+   * {@link CompileClient#defaultAddressFile()}.
+   */
+  public static void main(String[] args) throws IOException {
+    int port = 0;
+    File addressFile = CompileClient.defaultAddressFile();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-port") && i + 1 < args.length) {
+        port = Integer.parseInt(args[++i]);
+      } else if (args[i].equals("-addressFile") && i + 1 < args.length) {
+        addressFile = new File(args[++i]);
+      } else {
+        System.err.println("Usage: CompileServer [-port N] [-addressFile FILE]");
+        System.exit(2);
+      }
+    }
+    CompileServer server = new CompileServer(port);
+    server.writeAddressTo(addressFile);
+    System.err.printf("error-prone compile server listening on port %d\n", server.getPort());
+    try {
+      server.serve();
+    } finally {
+      addressFile.delete();
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.sun.tools.javac.tree.JCTree;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The end positions from one parse of a file (as used for javac endpositions), looked up by the
+ * trees of another parse of the same file.  JCTree does not implement equals and hashCode, so
+ * trees are matched on their start position, kind and tag instead.  This is an approximation and
+ * may not distinguish between unequal tree nodes.
+ *
+ * <p>Do not match on the trees' string representations.  The index is built from trees straight
+ * out of the parser, but looked up with trees after the flow phase, and the attribute phase may
+ * change how they print.  For example, annotation nodes after the parse phase look like:
+ * {@code @SuppressWarnings("foo")}, but after the flow phase they look like:
+ * {@code @SuppressWarnings(value = "foo")}.
+ *
+ * <p>Keys are packed into a sorted array of longs, with the end positions in a parallel array,
+ * so that building the index allocates two arrays rather than an object per tree, and lookups
+ * are a binary search which allocates nothing.
+ */
+class EndPositionIndex extends AbstractMap<JCTree, Integer> {
+
+  /**
+   * The key of each tree, in ascending order.
+   */
+  private final long[] keys;
+
+  /**
+   * The end position of the tree with the key at the same index in {@link #keys}.
+   */
+  private final int[] endPositions;
+
+  public EndPositionIndex(Map<JCTree, Integer> map) {
+    keys = new long[map.size()];
+    endPositions = new int[map.size()];
+    int i = 0;
+    for (Map.Entry<JCTree, Integer> entry : map.entrySet()) {
+      keys[i] = keyOf(entry.getKey());
+      endPositions[i] = entry.getValue();
+      i++;
+    }
+    sort(keys, endPositions, 0, keys.length - 1);
+  }
+
+  @Override
+  public Integer get(Object key) {
+    if (!(key instanceof JCTree)) {
+      return null;
+    }
+    int index = Arrays.binarySearch(keys, keyOf((JCTree) key));
+    return index < 0 ? null : endPositions[index];
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public Set<Map.Entry<JCTree, Integer>> entrySet() {
+    throw new UnsupportedOperationException("entrySet() not implemented on EndPositionIndex");
+  }
+
+  /**
+   * Packs a tree's start position into the high 32 bits of its key, followed by its kind and
+   * its tag in 16 bits each.
+   */
+  static long keyOf(JCTree node) {
+    int kind;
+    try {
+      kind = node.getKind().ordinal() + 1;
+    } catch (AssertionError e) {
+      // getKind() throws an AssertionError for LetExpr and TypeBoundKind.
+      kind = 0;
+    }
+    return ((long) node.getStartPosition() << 32) | ((kind & 0xffffL) << 16)
+        | (node.getTag() & 0xffffL);
+  }
+
+  /**
+   * Sorts {@code keys[low..high]} in ascending order, moving {@code values} along with them.
+   */
+  private static void sort(long[] keys, int[] values, int low, int high) {
+    while (high - low > 16) {
+      long pivot = keys[(low + high) >>> 1];
+      int i = low;
+      int j = high;
+      while (i <= j) {
+        while (keys[i] < pivot) {
+          i++;
+        }
+        while (keys[j] > pivot) {
+          j--;
+        }
+        if (i <= j) {
+          swap(keys, values, i++, j--);
+        }
+      }
+      // Recurse into the smaller half, and loop on the larger one, to bound the stack depth.
+      if (j - low < high - i) {
+        sort(keys, values, low, j);
+        low = i;
+      } else {
+        sort(keys, values, i, high);
+        high = j;
+      }
+    }
+    for (int i = low + 1; i <= high; i++) {
+      for (int j = i; j > low && keys[j - 1] > keys[j]; j--) {
+        swap(keys, values, j - 1, j);
+      }
+    }
+  }
+
+  private static void swap(long[] keys, int[] values, int i, int j) {
+    long key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+    int value = values[i];
+    values[i] = values[j];
+    values[j] = value;
+  }
+}
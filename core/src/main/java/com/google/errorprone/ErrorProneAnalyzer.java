@@ -16,16 +16,32 @@
 
 package com.google.errorprone;
 
+import com.google.errorprone.ResultCache.Finding;
+import com.google.errorprone.fixes.PatchDirectory;
+
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.Tree;
 import com.sun.tools.javac.comp.AttrContext;
 import com.sun.tools.javac.comp.Env;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Log;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
 /**
  * Used to run an error-prone analysis as a phase in the javac compiler.
  */
@@ -45,18 +61,98 @@ public class ErrorProneAnalyzer {
    */
   private final Set<CompilationUnitTree> compilationUnitsScanned;
 
+  /**
+   * Findings from earlier compiles, or null if they are not being cached.
+   */
+  private final ResultCache resultCache;
+
+  /**
+   * Where to write the suggested fixes for each compilation unit, or null if they are only
+   * reported in diagnostics.
+   */
+  private final PatchDirectory patchDirectory;
+
+  /**
+   * Where the scanner and the description listeners record how long they take, or null if they
+   * are not being profiled; and the file to write the profile to, if any.
+   */
+  private final CheckerProfile profile;
+  private final File profileFile;
+
+  /**
+   * Where each finding is also written as it is reported, or null if findings are only reported
+   * in diagnostics; and the file it writes to.
+   */
+  private final FindingsWriter findingsWriter;
+  private final File findingsFile;
+
   public ErrorProneAnalyzer(Log log, Context context) {
     this.log = log;
     this.context = context;
     this.classesEncountered = new HashSet<Tree>();
     this.compilationUnitsScanned = new HashSet<CompilationUnitTree>();
-    this.errorProneScanner = context.get(Scanner.class);
-    if (this.errorProneScanner == null) {
+    Scanner scanner = context.get(Scanner.class);
+    if (scanner == null) {
       throw new IllegalStateException(
           "No error-prone scanner registered in context. Is annotation processing enabled? " +
           "Please report bug to error-prone: " +
           "http://code.google.com/p/error-prone/issues/entry");
     }
+    ErrorProneOptions options = context.get(ErrorProneOptions.class);
+    if (options != null && options.isProfiling() && scanner.profiledCopy() != null) {
+      scanner = scanner.profiledCopy();
+    }
+    this.errorProneScanner = scanner;
+    this.profile = scanner.getProfile();
+    this.profileFile = options == null ? null : options.getProfileFile();
+    this.resultCache = createResultCache(options, errorProneScanner, context);
+    this.patchDirectory = options == null || options.getPatchDirectory() == null
+        ? null : new PatchDirectory(options.getPatchDirectory(), options.getWorkingDirectory());
+    this.findingsFile = options == null ? null : options.getFindingsFile();
+    this.findingsWriter = findingsFile == null ? null : openFindingsWriter(log, findingsFile);
+  }
+
+  private static FindingsWriter openFindingsWriter(Log log, File file) {
+    try {
+      return FindingsWriter.open(file);
+    } catch (IOException e) {
+      log.error("error.prone", "Could not write error-prone findings to " + file + ": "
+          + e.getMessage());
+      return null;
+    }
+  }
+
+  private static ResultCache createResultCache(ErrorProneOptions options, Scanner scanner,
+      Context context) {
+    // Cached findings don't include their checkers or fixes, so every unit is scanned when
+    // writing patches or structured findings.
+    if (options == null || options.getCacheDirectory() == null
+        || options.getPatchDirectory() != null || options.getFindingsFile() != null) {
+      return null;
+    }
+    String fingerprint = scanner.getFingerprint();
+    JavaFileManager fileManager = context.get(JavaFileManager.class);
+    if (fingerprint == null || !(fileManager instanceof StandardJavaFileManager)) {
+      return null;
+    }
+    StandardJavaFileManager standardFileManager = (StandardJavaFileManager) fileManager;
+    return new ResultCache(options.getCacheDirectory(), options.getCacheMaxBytes(), fingerprint,
+        standardFileManager.getLocation(StandardLocation.CLASS_PATH),
+        standardFileManager.getLocation(StandardLocation.SOURCE_PATH));
+  }
+
+  /**
+   * Reports the compilation units entered into the compile.  Their sources are part of the key
+   * under which each unit's findings are cached, since a unit's findings can depend on any of
+   * them.
+   */
+  public void reportEntered(Iterable<? extends CompilationUnitTree> compilationUnits) {
+    if (resultCache == null) {
+      return;
+    }
+    for (CompilationUnitTree compilationUnit : compilationUnits) {
+      resultCache.addSource(compilationUnit.getSourceFile());
+    }
   }
 
   /**
@@ -69,12 +165,12 @@ public class ErrorProneAnalyzer {
         // TODO(eaftan): This check for size == 1 is an optimization for the common case of 1 class
         // per file. We should benchmark to see if it actually helps.
         if (env.toplevel.getTypeDecls().size() == 1) {
-          errorProneScanner.scan(env.toplevel, createVisitorState(env));
+          analyze(env, hasErrors);
           compilationUnitsScanned.add(env.toplevel);
         } else {
           classesEncountered.add(env.tree);
           if (allClassesSeen(env)) {
-            errorProneScanner.scan(env.toplevel, createVisitorState(env));
+            analyze(env, hasErrors);
             compilationUnitsScanned.add(env.toplevel);
           }
         }
@@ -88,18 +184,136 @@ public class ErrorProneAnalyzer {
     }
   }
 
+  private void analyze(Env<AttrContext> env, boolean hasErrors) {
+    UnitAnalysis unit = new UnitAnalysis(env.toplevel, createDescriptionListener(env), hasErrors);
+    lookUp(unit);
+    if (unit.cachedFindings == null) {
+      errorProneScanner.scan(env.toplevel, new VisitorState(context, unit.listener));
+      unit.listener.finish();
+      store(unit);
+    } else {
+      replay(unit);
+    }
+  }
+
+  /**
+   * Looks for findings from an earlier compile of the unit.  If there are none, arranges for
+   * the findings from this compile to be recorded, unless javac's own errors may have affected
+   * them.
+   */
+  private void lookUp(UnitAnalysis unit) {
+    if (resultCache == null) {
+      return;
+    }
+    unit.cacheKey = resultCache.keyFor(unit.compilationUnit);
+    unit.cachedFindings = resultCache.get(unit.cacheKey);
+    if (unit.cachedFindings == null && !unit.hasErrors) {
+      unit.recordedFindings = new ArrayList<Finding>();
+      unit.listener.recordFindings(unit.recordedFindings);
+    }
+  }
+
+  private void replay(UnitAnalysis unit) {
+    for (Finding finding : unit.cachedFindings) {
+      unit.listener.replay(finding);
+    }
+  }
+
+  private void store(UnitAnalysis unit) {
+    if (unit.recordedFindings != null) {
+      resultCache.put(unit.cacheKey, unit.recordedFindings);
+    }
+  }
+
+  /**
+   * Trims the result cache, summarizes the patches written, completes the findings file, and
+   * reports the profile.
+   */
+  public void shutdown() {
+    if (resultCache != null && resultCache.getHits() + resultCache.getMisses() > 0) {
+      resultCache.trim();
+      log.note("error.prone.cache", resultCache.getHits(), resultCache.getMisses());
+    }
+    TypeResolutionCache typeCache = context.get(TypeResolutionCache.class);
+    if (typeCache != null && typeCache.getHits() + typeCache.getMisses() > 0) {
+      log.note("error.prone.type.cache", typeCache.getHits(), typeCache.getMisses());
+    }
+    if (patchDirectory != null) {
+      log.note("error.prone.patches", patchDirectory.getFixCount(),
+          patchDirectory.getPatchCount(), patchDirectory.getConflictCount());
+    }
+    if (findingsWriter != null) {
+      closeFindingsWriter();
+    }
+    if (profile != null) {
+      log.note("error.prone.profile", profile.toTable());
+      if (profileFile != null) {
+        writeProfile();
+      }
+    }
+  }
+
+  private void writeProfile() {
+    try {
+      Writer out = new OutputStreamWriter(new FileOutputStream(profileFile), "UTF-8");
+      try {
+        profile.writeJson(out);
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      log.warning("error.prone", "Could not write the error-prone profile to " + profileFile
+          + ": " + e.getMessage());
+    }
+  }
+
+  private void closeFindingsWriter() {
+    try {
+      findingsWriter.close();
+      log.note("error.prone.findings", findingsWriter.getCount(), findingsFile);
+    } catch (IOException e) {
+      log.warning("error.prone", "Could not write error-prone findings to " + findingsFile
+          + ": " + e.getMessage());
+    }
+  }
+
+  private JavacErrorDescriptionListener createDescriptionListener(Env<AttrContext> env) {
+    JavaFileObject sourceFile = env.enclClass.sym.sourcefile != null
+        ? env.enclClass.sym.sourcefile
+        : env.toplevel.sourcefile;
+    JavacErrorDescriptionListener listener = new JavacErrorDescriptionListener(log,
+        env.toplevel.endPositions, sourceFile, context);
+    if (patchDirectory != null) {
+      listener.writePatchTo(patchDirectory, env.toplevel);
+    }
+    if (profile != null) {
+      listener.recordTimesIn(profile);
+    }
+    if (findingsWriter != null) {
+      listener.alsoReportTo(
+          new StructuredDescriptionListener(findingsWriter, env.toplevel, sourceFile));
+    }
+    return listener;
+  }
+
   /**
-   * Create a VisitorState object from an environment.
+   * A compilation unit being analyzed, and the findings cached for it, if any, in which case it
+   * is not scanned at all.
    */
-  private VisitorState createVisitorState(Env<AttrContext> env) {
-    DescriptionListener logReporter = new JavacErrorDescriptionListener(log,
-        env.toplevel.endPositions,
-        env.enclClass.sym.sourcefile != null
-            ? env.enclClass.sym.sourcefile
-            : env.toplevel.sourcefile,
-        context);
-    VisitorState visitorState = new VisitorState(context, logReporter);
-    return visitorState;
+  private static class UnitAnalysis {
+    final JCCompilationUnit compilationUnit;
+    final JavacErrorDescriptionListener listener;
+    final boolean hasErrors;
+    String cacheKey;
+    List<Finding> cachedFindings;
+    List<Finding> recordedFindings;
+
+    UnitAnalysis(JCCompilationUnit compilationUnit, JavacErrorDescriptionListener listener,
+        boolean hasErrors) {
+      this.compilationUnit = compilationUnit;
+      this.listener = listener;
+      this.hasErrors = hasErrors;
+    }
   }
 
   /**
@@ -24,6 +24,7 @@ import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.List;
 
 import java.io.PrintWriter;
+import java.lang.reflect.Method;
 
 import javax.annotation.processing.Processor;
 import javax.tools.DiagnosticListener;
@@ -53,6 +54,12 @@ public class ErrorProneCompiler extends Main {
     return new ErrorProneCompiler.Builder().listenToDiagnostics(listener).build().compile(args);
   }
 
+  /**
+   * The exit code javac uses for an invalid command line.
+   */
+  private static final int EXIT_CMDERR = 2;
+
+  private final PrintWriter out;
   private final DiagnosticListener<? super JavaFileObject> diagnosticListener;
   private final Scanner errorProneScanner;
   private final Class<? extends JavaCompiler> compilerClass;
@@ -62,6 +69,7 @@ public class ErrorProneCompiler extends Main {
       Scanner errorProneScanner,
       Class<? extends JavaCompiler> compilerClass) {
     super(s, printWriter);
+    this.out = printWriter;
     this.diagnosticListener = diagnosticListener;
     this.errorProneScanner = errorProneScanner;
     this.compilerClass = compilerClass;
@@ -71,11 +79,14 @@ public class ErrorProneCompiler extends Main {
     DiagnosticListener<? super JavaFileObject> diagnosticListener = null;
     PrintWriter out = new PrintWriter(System.err, true);
     String compilerName = "javac (with error-prone)";
-    Scanner scanner = new ErrorProneScanner(DEFAULT_CHECKS);
+    Scanner scanner = null;
     Class<? extends JavaCompiler> compilerClass = ErrorReportingJavaCompiler.class;
 
     public ErrorProneCompiler build() {
-      return new ErrorProneCompiler(compilerName, out, diagnosticListener, scanner, compilerClass);
+      // The default scanner is only created if no other was given, since loading the checkers
+      // is a noticeable part of a small compile.
+      return new ErrorProneCompiler(compilerName, out, diagnosticListener,
+          scanner != null ? scanner : new ErrorProneScanner(DEFAULT_CHECKS), compilerClass);
     }
 
     public Builder named(String compilerName) {
@@ -112,6 +123,15 @@ public class ErrorProneCompiler extends Main {
   @Override
   public int compile(String[] strings, Context context, List<JavaFileObject> javaFileObjects,
       Iterable<? extends Processor> iterable) {
+    ErrorProneOptions options;
+    try {
+      options = ErrorProneOptions.parse(strings);
+    } catch (IllegalArgumentException e) {
+      out.println(e.getMessage());
+      return EXIT_CMDERR;
+    }
+    strings = options.getRemainingArgs();
+    context.put(ErrorProneOptions.class, options);
     if (diagnosticListener != null) {
       context.put(DiagnosticListener.class, diagnosticListener);
     }
@@ -127,14 +147,7 @@ public class ErrorProneCompiler extends Main {
           "Vote: http://code.google.com/p/error-prone/issues/detail?id=16");
     }
     try {
-      Class<?> messagesClass;
-      try {
-        messagesClass = getClass().getClassLoader().loadClass("com.sun.tools.javac.util.Messages");
-      } catch (ClassNotFoundException e) {
-        messagesClass = getClass().getClassLoader().loadClass("com.sun.tools.javac.util.JavacMessages");
-      }
-      Object instance = messagesClass.getMethod("instance", Context.class).invoke(null, context);
-      messagesClass.getMethod("add", String.class).invoke(instance, "com.google.errorprone.errors");
+      MessageBundle.add(context);
     } catch (Exception e) {
       throw new RuntimeException(String.format(
           "Unable to register message bundle. java.vm.vendor=[%s],  java.version=[%s]",
@@ -150,4 +163,33 @@ public class ErrorProneCompiler extends Main {
     }
     return super.compile(strings, context, javaFileObjects, iterable);
   }
+
+  /**
+   * Registers error-prone's messages with a compilation.  The javac methods that do it are looked
+   * up once, rather than for every compile a long-lived process such as {@link CompileServer}
+   * runs.
+   */
+  private static class MessageBundle {
+    private static Method instance;
+    private static Method add;
+
+    static void add(Context context) throws Exception {
+      Object messages;
+      synchronized (MessageBundle.class) {
+        if (instance == null) {
+          Class<?> messagesClass;
+          ClassLoader classLoader = ErrorProneCompiler.class.getClassLoader();
+          try {
+            messagesClass = classLoader.loadClass("com.sun.tools.javac.util.Messages");
+          } catch (ClassNotFoundException e) {
+            messagesClass = classLoader.loadClass("com.sun.tools.javac.util.JavacMessages");
+          }
+          add = messagesClass.getMethod("add", String.class);
+          instance = messagesClass.getMethod("instance", Context.class);
+        }
+        messages = instance.invoke(null, context);
+      }
+      add.invoke(messages, "com.google.errorprone.errors");
+    }
+  }
 }
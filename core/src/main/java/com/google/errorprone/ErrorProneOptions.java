@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Options for error-prone itself, given on the command line alongside the javac flags.  All of
+ * them start with {@code -Xep}, and are removed from the arguments before javac sees them.
+ */
+public class ErrorProneOptions {
+
+  private static final String PREFIX = "-Xep";
+  static final String CACHE_DIR = "-XepCacheDir=";
+  private static final String CACHE_MAX_BYTES = "-XepCacheMaxBytes=";
+  static final String PATCH_DIR = "-XepPatchDir=";
+  static final String PROFILE = "-XepProfile";
+  static final String FINDINGS = "-XepFindings=";
+  static final String WORKING_DIR = "-XepWorkingDir=";
+
+  private static final long DEFAULT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+
+  private final String[] remainingArgs;
+  private File cacheDirectory = null;
+  private long cacheMaxBytes = DEFAULT_CACHE_MAX_BYTES;
+  private File patchDirectory = null;
+  private boolean profiling = false;
+  private File profileFile = null;
+  private File findingsFile = null;
+  private File workingDirectory = new File(System.getProperty("user.dir"));
+
+  private ErrorProneOptions(String[] remainingArgs) {
+    this.remainingArgs = remainingArgs;
+  }
+
+  /**
+   * Separates the error-prone options from the given command line.
+   *
+   * @throws IllegalArgumentException if an error-prone option is not recognized, or has an
+   * invalid value
+   */
+  public static ErrorProneOptions parse(String[] args) {
+    List<String> remaining = new ArrayList<String>();
+    List<String> options = new ArrayList<String>();
+    for (String arg : args) {
+      if (arg.startsWith(PREFIX)) {
+        options.add(arg);
+      } else {
+        remaining.add(arg);
+      }
+    }
+    ErrorProneOptions result =
+        new ErrorProneOptions(remaining.toArray(new String[remaining.size()]));
+    for (String option : options) {
+      if (option.startsWith(CACHE_DIR) && option.length() > CACHE_DIR.length()) {
+        result.cacheDirectory = new File(option.substring(CACHE_DIR.length()));
+      } else if (option.startsWith(CACHE_MAX_BYTES)) {
+        result.cacheMaxBytes =
+            parsePositiveLong(option, option.substring(CACHE_MAX_BYTES.length()));
+      } else if (option.startsWith(PATCH_DIR) && option.length() > PATCH_DIR.length()) {
+        result.patchDirectory = new File(option.substring(PATCH_DIR.length()));
+      } else if (option.equals(PROFILE)) {
+        result.profiling = true;
+      } else if (option.startsWith(PROFILE + "=") && option.length() > PROFILE.length() + 1) {
+        result.profiling = true;
+        result.profileFile = new File(option.substring(PROFILE.length() + 1));
+      } else if (option.startsWith(FINDINGS) && option.length() > FINDINGS.length()) {
+        result.findingsFile = new File(option.substring(FINDINGS.length()));
+      } else if (option.startsWith(WORKING_DIR) && option.length() > WORKING_DIR.length()) {
+        result.workingDirectory = new File(option.substring(WORKING_DIR.length()));
+      } else {
+        throw new IllegalArgumentException("Unknown error-prone option: " + option);
+      }
+    }
+    return result;
+  }
+
+  private static long parsePositiveLong(String option, String value) {
+    try {
+      long result = Long.parseLong(value);
+      if (result > 0) {
+        return result;
+      }
+    } catch (NumberFormatException e) {
+      // Reported below.
+    }
+    throw new IllegalArgumentException(
+        "Expected a positive number in error-prone option: " + option);
+  }
+
+  /**
+   * The command line with all error-prone options removed, to be passed on to javac.
+   */
+  public String[] getRemainingArgs() {
+    return remainingArgs;
+  }
+
+  /**
+   * The directory in which to keep the findings for each compilation unit, so that they can be
+   * reported without scanning the unit again if it is compiled unchanged; null, the default,
+   * if findings are not cached.
+   */
+  public File getCacheDirectory() {
+    return cacheDirectory;
+  }
+
+  /**
+   * The size to which the cache directory is trimmed at the end of each compile.
+   */
+  public long getCacheMaxBytes() {
+    return cacheMaxBytes;
+  }
+
+  /**
+   * The directory to which the suggested fixes for each compilation unit are written as a unified
+   * diff; null, the default, if fixes are only shown in the diagnostics.
+   */
+  public File getPatchDirectory() {
+    return patchDirectory;
+  }
+
+  /**
+   * Whether to record how long each checker takes, and print a table of the times at the end of
+   * the compile.
+   */
+  public boolean isProfiling() {
+    return profiling;
+  }
+
+  /**
+   * The file to which the profile is also written as JSON; null, the default, if it is only
+   * printed.
+   */
+  public File getProfileFile() {
+    return profileFile;
+  }
+
+  /**
+   * The file to which each finding is also written as it is reported, as SARIF if its name ends
+   * in {@code .sarif} and as JSON Lines otherwise; null, the default, if findings are only
+   * reported in the diagnostics.
+   */
+  public File getFindingsFile() {
+    return findingsFile;
+  }
+
+  /**
+   * The directory the paths in patches are made relative to; by default the JVM's working
+   * directory, which for a compile server is not the client's.
+   */
+  public File getWorkingDirectory() {
+    return workingDirectory;
+  }
+}
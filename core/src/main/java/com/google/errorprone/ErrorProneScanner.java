@@ -19,12 +19,26 @@ package com.google.errorprone;
 import static com.google.errorprone.BugPattern.MaturityLevel.MATURE;
 import static com.google.errorprone.bugpatterns.BugChecker.*;
 
-import com.google.errorprone.bugpatterns.*;
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.MethodNameFilter;
+import com.google.errorprone.matchers.Suppressable;
 import com.sun.source.tree.*;
+import com.sun.source.tree.Tree.Kind;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+import javax.lang.model.element.Name;
 
 /**
  * Scans the parsed AST, looking for violations of any of the enabled checks.
@@ -61,63 +75,34 @@ public class ErrorProneScanner extends Scanner {
     });
   }
 
-  // TODO: discover all @BugPattern-annotated classes
-  private static final List<? extends Class<? extends BugChecker>> ALL_CHECKERS = Arrays.asList(
-      SelfEquals.class,
-      OrderingFrom.class,
-      PreconditionsCheckNotNull.class,
-      PreconditionsExpensiveString.class,
-      PreconditionsCheckNotNullPrimitive.class,
-      CollectionIncompatibleType.class,
-      ArrayEquals.class,
-      ArrayToString.class,
-      ReturnValueIgnored.class,
-      NonRuntimeAnnotation.class,
-      InvalidPatternSyntax.class,
-      ModifyingCollectionWithItself.class,
-      PreconditionsTooManyArgs.class,
-      CheckReturnValue.class,
-      DeadException.class,
-      InjectAssistedInjectAndInjectOnConstructors.class,
-      InjectMoreThanOneQualifier.class,
-      InjectMoreThanOneScopeAnnotationOnClass.class,
-      InjectScopeAnnotationOnInterfaceOrAbstractClass.class,
-      FallThroughSuppression.class,
-      SuppressWarningsDeprecated.class,
-      EmptyIfStatement.class,
-      EmptyStatement.class,
-      InvalidNumericEquality.class,
-      InvalidStringEquality.class,
-      SelfEquality.class,
-      BadShiftAmount.class,
-      ArrayToStringConcatenation.class,
-      ComparisonOutOfRange.class,
-      SelfAssignment.class,
-      GuiceAssistedParameters.class,
-      CovariantEquals.class,
-      JUnit4TestNotRun.class,
-      WrongParameterPackage.class,
-      LongLiteralLowerCaseSuffix.class,
-      UnneededConditionalOperator.class,
-      ArrayToStringCompoundAssignment.class,
-      InjectScopeOrQualifierAnnotationRetention.class,
-      InjectInvalidTargetingOnScopingAnnotation.class,
-      GuiceAssistedInjectScoping.class,
-      InjectJavaxInjectOnFinalField.class,
-      GuiceInjectOnFinalField.class
-  );
-
-  @SuppressWarnings("unchecked")
+  /**
+   * Create a scanner for the checkers in the {@link CheckerRegistry registries} on the classpath
+   * which the predicate enables.
+   *
+   * @throws IllegalStateException if no checkers are registered at all, which means the build
+   *     that produced error-prone did not generate its registry
+   */
   public ErrorProneScanner(EnabledPredicate predicate) {
-    try {
-      for (final Class<? extends BugChecker> checkerClass: ALL_CHECKERS) {
-        if (predicate.isEnabled(checkerClass, checkerClass.getAnnotation(BugPattern.class))) {
-          BugChecker checker = checkerClass.newInstance();
-          registerNodeTypes(checker);
+    this.dispatchTable = new EnumMap<Kind, KindMatchers<?>>(Kind.class);
+    this.checkers = new ArrayList<BugChecker>();
+    if (CheckerRegistry.allEntries().isEmpty()) {
+      throw new IllegalStateException("No bug checkers are registered: error-prone was built "
+          + "without the CheckerRegistryGenerator annotation processor, or META-INF/services/"
+          + CheckerRegistry.class.getName() + " is missing from its jar");
+    }
+    for (CheckerRegistry.Entry entry : CheckerRegistry.allEntries()) {
+      if (predicate.isEnabled(entry.getCheckerClass(), entry.getPattern())) {
+        List<NodeType<?>> nodeTypes = new ArrayList<NodeType<?>>();
+        for (Class<?> matcherType : entry.getMatcherTypes()) {
+          NodeType<?> nodeType = NODE_TYPES_BY_MATCHER.get(matcherType);
+          if (nodeType == null) {
+            throw new IllegalStateException("Checker registry entry " + entry
+                + " has unknown matcher type " + matcherType.getName());
+          }
+          nodeTypes.add(nodeType);
         }
+        registerNodeTypes(entry.newChecker(), nodeTypes);
       }
-    } catch (Exception e) {
-      throw new RuntimeException("Could not reflectively create error prone matchers", e);
     }
   }
 
@@ -127,184 +112,591 @@ public class ErrorProneScanner extends Scanner {
    * @param checkers The checkers that this scanner should use.
    */
   public ErrorProneScanner(BugChecker... checkers) {
+    this.dispatchTable = new EnumMap<Kind, KindMatchers<?>>(Kind.class);
+    this.checkers = new ArrayList<BugChecker>();
     for (BugChecker checker : checkers) {
-      registerNodeTypes(checker);
+      List<NodeType<?>> nodeTypes = new ArrayList<NodeType<?>>();
+      for (NodeType<?> nodeType : NODE_TYPES) {
+        if (nodeType.matcherType.isInstance(checker)) {
+          nodeTypes.add(nodeType);
+        }
+      }
+      registerNodeTypes(checker, nodeTypes);
     }
   }
 
-  private final List<MethodInvocationTreeMatcher> methodInvocationMatchers =
-      new ArrayList<MethodInvocationTreeMatcher>();
-  private final List<NewClassTreeMatcher> newClassMatchers =
-      new ArrayList<NewClassTreeMatcher>();
-  private final List<AnnotationTreeMatcher> annotationMatchers =
-      new ArrayList<AnnotationTreeMatcher>();
-  private final List<EmptyStatementTreeMatcher> emptyStatementMatchers =
-      new ArrayList<EmptyStatementTreeMatcher>();
-  private final List<AssignmentTreeMatcher> assignmentMatchers =
-      new ArrayList<AssignmentTreeMatcher>();
-  private final List<VariableTreeMatcher> variableMatchers =
-      new ArrayList<VariableTreeMatcher>();
-  private final List<MethodTreeMatcher> methodMatchers =
-      new ArrayList<MethodTreeMatcher>();
-  private final List<LiteralTreeMatcher> literalMatchers =
-      new ArrayList<LiteralTreeMatcher>();
-  private final List<ConditionalExpressionTreeMatcher> conditionalExpressionMatchers =
-      new ArrayList<ConditionalExpressionTreeMatcher>();
-  private final List<BinaryTreeMatcher> binaryExpressionMatchers =
-      new ArrayList<BinaryTreeMatcher>();
-  private final List<CompoundAssignmentTreeMatcher> compoundAssignmentMatchers =
-      new ArrayList<CompoundAssignmentTreeMatcher>();
-  private final List<ClassTreeMatcher> classMatchers =
-      new ArrayList<ClassTreeMatcher>();
-
-  private void registerNodeTypes(BugChecker checker) {
-    if (checker instanceof MethodInvocationTreeMatcher)
-      this.methodInvocationMatchers.add((MethodInvocationTreeMatcher) checker);
-    if (checker instanceof NewClassTreeMatcher)
-      this.newClassMatchers.add((NewClassTreeMatcher) checker);
-    if (checker instanceof AnnotationTreeMatcher)
-      this.annotationMatchers.add((AnnotationTreeMatcher) checker);
-    if (checker instanceof EmptyStatementTreeMatcher)
-      this.emptyStatementMatchers.add((EmptyStatementTreeMatcher) checker);
-    if (checker instanceof AssignmentTreeMatcher)
-      this.assignmentMatchers.add((AssignmentTreeMatcher) checker);
-    if (checker instanceof VariableTreeMatcher)
-      this.variableMatchers.add((VariableTreeMatcher) checker);
-    if (checker instanceof MethodTreeMatcher)
-      this.methodMatchers.add((MethodTreeMatcher) checker);
-    if (checker instanceof LiteralTreeMatcher)
-      this.literalMatchers.add((LiteralTreeMatcher) checker);
-    if (checker instanceof ConditionalExpressionTreeMatcher)
-      this.conditionalExpressionMatchers.add((ConditionalExpressionTreeMatcher) checker);
-    if (checker instanceof BinaryTreeMatcher)
-      this.binaryExpressionMatchers.add((BinaryTreeMatcher) checker);
-    if (checker instanceof CompoundAssignmentTreeMatcher)
-      this.compoundAssignmentMatchers.add((CompoundAssignmentTreeMatcher) checker);
-    if (checker instanceof ClassTreeMatcher)
-      this.classMatchers.add((ClassTreeMatcher) checker);
+  /**
+   * The matchers to run for each kind of node, built once when the scanner is created.  Kinds
+   * that no enabled checker is interested in have no entry, so visiting those nodes costs only
+   * the lookup.
+   */
+  private final Map<Kind, KindMatchers<?>> dispatchTable;
+
+  /**
+   * The enabled checkers.
+   */
+  private final List<BugChecker> checkers;
+
+  private String fingerprint;
+
+  private ErrorProneScanner(ErrorProneScanner original, CheckerProfile profile) {
+    super(original, profile);
+    this.dispatchTable = original.dispatchTable;
+    this.checkers = original.checkers;
   }
 
+  /**
+   * Returns a copy of this scanner which shares its checkers, and records how long each of them
+   * takes in a new profile.
+   */
   @Override
-  public Void visitMethodInvocation(
-      MethodInvocationTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (MethodInvocationTreeMatcher matcher : methodInvocationMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchMethodInvocation(tree, state), tree, state);
+  public Scanner profiledCopy() {
+    List<String> names = new ArrayList<String>();
+    for (BugChecker checker : checkers) {
+      names.add(checker.getCanonicalName());
     }
-    return super.visitMethodInvocation(tree, state);
+    return new ErrorProneScanner(this, new CheckerProfile(names));
   }
 
+  /**
+   * The names of the enabled checkers, and a digest of the contents of each jar or class
+   * directory that they or error-prone itself were loaded from.  Checkers depend on shared
+   * matchers, ASTHelpers and VisitorState as much as on their own classes, so a change anywhere
+   * in that code invalidates the fingerprint.
+   */
   @Override
-  public Void visitBinary(BinaryTree tree,  VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (BinaryTreeMatcher matcher : binaryExpressionMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchBinary(tree, state), tree, state);
+  public String getFingerprint() {
+    if (fingerprint == null) {
+      List<Class<?>> classes = new ArrayList<Class<?>>();
+      classes.add(Scanner.class);
+      List<String> names = new ArrayList<String>();
+      for (BugChecker checker : checkers) {
+        classes.add(checker.getClass());
+        names.add(checker.getClass().getName());
+      }
+      Collections.sort(names);
+      Set<File> locations = new TreeSet<File>();
+      for (Class<?> clazz : classes) {
+        File location = ResultCache.codeLocation(clazz);
+        if (location == null) {
+          return null;
+        }
+        locations.add(location);
+      }
+      List<String> versions = new ArrayList<String>();
+      for (File location : locations) {
+        String version = ResultCache.contentVersion(location);
+        if (version == null) {
+          return null;
+        }
+        versions.add(location + "@" + version);
+      }
+      fingerprint = names + " " + versions;
     }
-    return super.visitBinary(tree, state);
+    return fingerprint;
   }
 
-  @Override
-  public Void visitNewClass(NewClassTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (NewClassTreeMatcher matcher : newClassMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchNewClass(tree, state), tree, state);
+  /**
+   * Adds a checker to the dispatch table for each of the given node types, which must be those
+   * whose matcher interfaces it implements.
+   */
+  private void registerNodeTypes(BugChecker checker, List<NodeType<?>> nodeTypes) {
+    int checkerIndex = checkers.size();
+    checkers.add(checker);
+    long[] suppressionMask = suppressionMask(checker);
+    Set<String> methodNames = checker instanceof MethodNameFilter
+        ? ((MethodNameFilter) checker).getMethodNames()
+        : null;
+    for (NodeType<?> nodeType : nodeTypes) {
+      register(nodeType, checker, checkerIndex, suppressionMask,
+          nodeType.matcherType == MethodInvocationTreeMatcher.class ? methodNames : null);
     }
-    return super.visitNewClass(tree, visitorState);
   }
 
-  @Override
-  public Void visitAnnotation(AnnotationTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (AnnotationTreeMatcher matcher : annotationMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchAnnotation(tree, state), tree, state);
+  private <M extends Suppressable> void register(NodeType<M> nodeType, BugChecker checker,
+      int checkerIndex, long[] suppressionMask, Set<String> methodNames) {
+    M matcher = nodeType.matcherType.cast(checker);
+    for (Kind kind : nodeType.kinds) {
+      @SuppressWarnings("unchecked")
+      KindMatchers<M> kindMatchers = (KindMatchers<M>) dispatchTable.get(kind);
+      if (kindMatchers == null) {
+        kindMatchers = new KindMatchers<M>(nodeType);
+        dispatchTable.put(kind, kindMatchers);
+      }
+      kindMatchers.add(matcher, checkerIndex, suppressionMask, methodNames);
     }
-    return super.visitAnnotation(tree, visitorState);
   }
 
   @Override
-  public Void visitEmptyStatement(
-      EmptyStatementTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (EmptyStatementTreeMatcher matcher : emptyStatementMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchEmptyStatement(tree, state), tree, state);
+  protected void visitNode(Tree tree, VisitorState state) {
+    KindMatchers<?> kindMatchers = dispatchTable.get(tree.getKind());
+    if (kindMatchers == null) {
+      return;
     }
-    return super.visitEmptyStatement(tree, visitorState);
+    kindMatchers.match(this, tree, state);
   }
 
-  @Override
-  public Void visitAssignment(AssignmentTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (AssignmentTreeMatcher matcher : assignmentMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchAssignment(tree, state), tree, state);
+  /**
+   * The enabled matchers for one kind of node, together with the node type used to invoke them.
+   * Shared between a scanner and its profiled copy, so suppressions are checked against the
+   * scanner doing the matching.
+   *
+   * <p>Method invocations are also indexed by the name of the invoked method, so that checkers
+   * which declare the methods they are interested in, by implementing {@link MethodNameFilter},
+   * are only called for invocations of those methods.
+   */
+  private static class KindMatchers<M extends Suppressable> {
+    private final NodeType<M> nodeType;
+    private final List<M> matchers = new ArrayList<M>();
+    private final List<long[]> suppressionMasks = new ArrayList<long[]>();
+
+    /**
+     * The index of each matcher's checker in the scanner's list of checkers, which is how it is
+     * identified in a {@link CheckerProfile}.
+     */
+    private final List<Integer> checkerIndices = new ArrayList<Integer>();
+
+    /**
+     * The names of the methods each matcher can match, or null for those which may match any.
+     */
+    private final List<Set<String>> methodNames = new ArrayList<Set<String>>();
+    private boolean filteredByMethodName = false;
+
+    /**
+     * The indices of the matchers to run on an invocation of each method name seen so far.  Names
+     * belong to a compilation's name table, so the keys are weak to let it be collected.
+     */
+    private final Map<Name, int[]> byMethodName = new WeakHashMap<Name, int[]>();
+
+    KindMatchers(NodeType<M> nodeType) {
+      this.nodeType = nodeType;
     }
-    return super.visitAssignment(tree, visitorState);
-  }
 
+    void add(M matcher, int checkerIndex, long[] suppressionMask, Set<String> names) {
+      matchers.add(matcher);
+      checkerIndices.add(checkerIndex);
+      suppressionMasks.add(suppressionMask);
+      methodNames.add(names);
+      filteredByMethodName |= names != null;
+    }
 
-  @Override
-  public Void visitVariable(VariableTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (VariableTreeMatcher matcher : variableMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchVariable(tree, state), tree, state);
+    void match(ErrorProneScanner scanner, Tree tree, VisitorState state) {
+      Name name = filteredByMethodName ? invokedMethodName(tree) : null;
+      if (name == null) {
+        for (int i = 0; i < matchers.size(); i++) {
+          match(i, scanner, tree, state);
+        }
+      } else {
+        int[] selected = select(name);
+        for (int i = 0; i < selected.length; i++) {
+          match(selected[i], scanner, tree, state);
+        }
+      }
     }
-    return super.visitVariable(tree, visitorState);
-  }
 
-  @Override
-  public Void visitMethod(MethodTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (MethodTreeMatcher matcher : methodMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchMethod(tree, state), tree, state);
+    private void match(int i, ErrorProneScanner scanner, Tree tree, VisitorState state) {
+      CheckerProfile profile = scanner.getProfile();
+      if (profile != null) {
+        profiledMatch(i, profile, scanner, tree, state);
+        return;
+      }
+      if (scanner.isSuppressed(suppressionMasks.get(i))) return;
+      scanner.reportMatch(nodeType.match(matchers.get(i), tree, state), tree, state);
     }
-    return super.visitMethod(tree, visitorState);
-  }
 
-  @Override
-  public Void visitLiteral(LiteralTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (LiteralTreeMatcher matcher : literalMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchLiteral(tree, state), tree, state);
+    /**
+     * Matches as above, recording the call in the profile.  The time taken to report a match is
+     * recorded by the listener, not counted against the checker.
+     */
+    private void profiledMatch(int i, CheckerProfile profile, ErrorProneScanner scanner,
+        Tree tree, VisitorState state) {
+      int checker = checkerIndices.get(i);
+      if (scanner.isSuppressed(suppressionMasks.get(i))) {
+        profile.recordSuppressed(checker);
+        return;
+      }
+      long start = System.nanoTime();
+      Description description = nodeType.match(matchers.get(i), tree, state);
+      profile.recordCall(checker, System.nanoTime() - start,
+          description != null && description != Description.NO_MATCH);
+      scanner.reportMatch(description, tree, state);
     }
-    return super.visitLiteral(tree, visitorState);
-  }
 
-  @Override
-  public Void visitConditionalExpression(
-      ConditionalExpressionTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (ConditionalExpressionTreeMatcher matcher : conditionalExpressionMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchConditionalExpression(tree, state), tree, state);
+    private int[] select(Name name) {
+      int[] selected = byMethodName.get(name);
+      if (selected == null) {
+        String nameStr = name.toString();
+        selected = new int[matchers.size()];
+        int count = 0;
+        for (int i = 0; i < matchers.size(); i++) {
+          Set<String> names = methodNames.get(i);
+          if (names == null || names.contains(nameStr)) {
+            selected[count++] = i;
+          }
+        }
+        selected = Arrays.copyOf(selected, count);
+        byMethodName.put(name, selected);
+      }
+      return selected;
+    }
+
+    /**
+     * Returns the simple name of the method a method invocation calls, or null if the tree is not
+     * a method invocation.
+     */
+    private static Name invokedMethodName(Tree tree) {
+      if (tree.getKind() != Kind.METHOD_INVOCATION) {
+        return null;
+      }
+      ExpressionTree methodSelect = ((MethodInvocationTree) tree).getMethodSelect();
+      switch (methodSelect.getKind()) {
+        case IDENTIFIER:
+          return ((IdentifierTree) methodSelect).getName();
+        case MEMBER_SELECT:
+          return ((MemberSelectTree) methodSelect).getIdentifier();
+        default:
+          return null;
+      }
     }
-    return super.visitConditionalExpression(tree, visitorState);
   }
 
-  @Override
-  public Void visitCompoundAssignment(CompoundAssignmentTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (CompoundAssignmentTreeMatcher matcher : compoundAssignmentMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchCompoundAssignment(tree, state), tree, state);
+  /**
+   * Binds one of the {@code *TreeMatcher} interfaces in {@link BugChecker} to the tree interface
+   * it matches, and to the tree kinds which have that interface.
+   */
+  private abstract static class NodeType<M extends Suppressable> {
+    final Class<M> matcherType;
+    final List<Kind> kinds = new ArrayList<Kind>();
+
+    NodeType(Class<M> matcherType, Class<? extends Tree> treeType) {
+      this.matcherType = matcherType;
+      for (Kind kind : Kind.values()) {
+        // Kind.OTHER has no tree interface of its own; it is matched by TreeMatcher.
+        Class<? extends Tree> kindInterface = kind == Kind.OTHER ? Tree.class : kind.asInterface();
+        if (kindInterface == treeType) {
+          kinds.add(kind);
+        }
+      }
     }
-    return super.visitCompoundAssignment(tree, visitorState);
+
+    abstract Description match(M matcher, Tree tree, VisitorState state);
   }
 
-  @Override
-  public Void visitClass(ClassTree tree, VisitorState visitorState) {
-    VisitorState state = visitorState.withPath(getCurrentPath());
-    for (ClassTreeMatcher matcher : classMatchers) {
-      if (isSuppressed(matcher)) continue;
-      reportMatch(matcher.matchClass(tree, state), tree, state);
+  /**
+   * One entry for every matcher interface in {@link BugChecker}, and so for every method of
+   * {@link com.sun.source.tree.TreeVisitor}.
+   */
+  private static final List<NodeType<?>> NODE_TYPES = Arrays.<NodeType<?>>asList(
+      new NodeType<AnnotationTreeMatcher>(AnnotationTreeMatcher.class, AnnotationTree.class) {
+        @Override
+        Description match(AnnotationTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchAnnotation((AnnotationTree) tree, state);
+        }
+      },
+      new NodeType<ArrayAccessTreeMatcher>(ArrayAccessTreeMatcher.class, ArrayAccessTree.class) {
+        @Override
+        Description match(ArrayAccessTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchArrayAccess((ArrayAccessTree) tree, state);
+        }
+      },
+      new NodeType<ArrayTypeTreeMatcher>(ArrayTypeTreeMatcher.class, ArrayTypeTree.class) {
+        @Override
+        Description match(ArrayTypeTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchArrayType((ArrayTypeTree) tree, state);
+        }
+      },
+      new NodeType<AssertTreeMatcher>(AssertTreeMatcher.class, AssertTree.class) {
+        @Override
+        Description match(AssertTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchAssert((AssertTree) tree, state);
+        }
+      },
+      new NodeType<AssignmentTreeMatcher>(AssignmentTreeMatcher.class, AssignmentTree.class) {
+        @Override
+        Description match(AssignmentTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchAssignment((AssignmentTree) tree, state);
+        }
+      },
+      new NodeType<BinaryTreeMatcher>(BinaryTreeMatcher.class, BinaryTree.class) {
+        @Override
+        Description match(BinaryTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchBinary((BinaryTree) tree, state);
+        }
+      },
+      new NodeType<BlockTreeMatcher>(BlockTreeMatcher.class, BlockTree.class) {
+        @Override
+        Description match(BlockTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchBlock((BlockTree) tree, state);
+        }
+      },
+      new NodeType<BreakTreeMatcher>(BreakTreeMatcher.class, BreakTree.class) {
+        @Override
+        Description match(BreakTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchBreak((BreakTree) tree, state);
+        }
+      },
+      new NodeType<CaseTreeMatcher>(CaseTreeMatcher.class, CaseTree.class) {
+        @Override
+        Description match(CaseTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchCase((CaseTree) tree, state);
+        }
+      },
+      new NodeType<CatchTreeMatcher>(CatchTreeMatcher.class, CatchTree.class) {
+        @Override
+        Description match(CatchTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchCatch((CatchTree) tree, state);
+        }
+      },
+      new NodeType<ClassTreeMatcher>(ClassTreeMatcher.class, ClassTree.class) {
+        @Override
+        Description match(ClassTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchClass((ClassTree) tree, state);
+        }
+      },
+      new NodeType<CompilationTreeMatcher>(
+          CompilationTreeMatcher.class, CompilationUnitTree.class) {
+        @Override
+        Description match(CompilationTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchCompilationUnit((CompilationUnitTree) tree, state);
+        }
+      },
+      new NodeType<CompoundAssignmentTreeMatcher>(
+          CompoundAssignmentTreeMatcher.class, CompoundAssignmentTree.class) {
+        @Override
+        Description match(CompoundAssignmentTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchCompoundAssignment((CompoundAssignmentTree) tree, state);
+        }
+      },
+      new NodeType<ConditionalExpressionTreeMatcher>(
+          ConditionalExpressionTreeMatcher.class, ConditionalExpressionTree.class) {
+        @Override
+        Description match(ConditionalExpressionTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchConditionalExpression((ConditionalExpressionTree) tree, state);
+        }
+      },
+      new NodeType<ContinueTreeMatcher>(ContinueTreeMatcher.class, ContinueTree.class) {
+        @Override
+        Description match(ContinueTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchContinue((ContinueTree) tree, state);
+        }
+      },
+      new NodeType<DoWhileLoopTreeMatcher>(DoWhileLoopTreeMatcher.class, DoWhileLoopTree.class) {
+        @Override
+        Description match(DoWhileLoopTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchDoWhileLoop((DoWhileLoopTree) tree, state);
+        }
+      },
+      new NodeType<EmptyStatementTreeMatcher>(
+          EmptyStatementTreeMatcher.class, EmptyStatementTree.class) {
+        @Override
+        Description match(EmptyStatementTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchEmptyStatement((EmptyStatementTree) tree, state);
+        }
+      },
+      new NodeType<EnhancedForLoopTreeMatcher>(
+          EnhancedForLoopTreeMatcher.class, EnhancedForLoopTree.class) {
+        @Override
+        Description match(EnhancedForLoopTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchEnhancedForLoop((EnhancedForLoopTree) tree, state);
+        }
+      },
+      new NodeType<ErroneousTreeMatcher>(ErroneousTreeMatcher.class, ErroneousTree.class) {
+        @Override
+        Description match(ErroneousTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchErroneous((ErroneousTree) tree, state);
+        }
+      },
+      new NodeType<ExpressionStatementTreeMatcher>(
+          ExpressionStatementTreeMatcher.class, ExpressionStatementTree.class) {
+        @Override
+        Description match(ExpressionStatementTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchExpressionStatement((ExpressionStatementTree) tree, state);
+        }
+      },
+      new NodeType<ForLoopTreeMatcher>(ForLoopTreeMatcher.class, ForLoopTree.class) {
+        @Override
+        Description match(ForLoopTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchForLoop((ForLoopTree) tree, state);
+        }
+      },
+      new NodeType<IdentifierTreeMatcher>(IdentifierTreeMatcher.class, IdentifierTree.class) {
+        @Override
+        Description match(IdentifierTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchIdentifier((IdentifierTree) tree, state);
+        }
+      },
+      new NodeType<IfTreeMatcher>(IfTreeMatcher.class, IfTree.class) {
+        @Override
+        Description match(IfTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchIf((IfTree) tree, state);
+        }
+      },
+      new NodeType<ImportTreeMatcher>(ImportTreeMatcher.class, ImportTree.class) {
+        @Override
+        Description match(ImportTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchImport((ImportTree) tree, state);
+        }
+      },
+      new NodeType<InstanceOfTreeMatcher>(InstanceOfTreeMatcher.class, InstanceOfTree.class) {
+        @Override
+        Description match(InstanceOfTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchInstanceOf((InstanceOfTree) tree, state);
+        }
+      },
+      new NodeType<LabeledStatementTreeMatcher>(
+          LabeledStatementTreeMatcher.class, LabeledStatementTree.class) {
+        @Override
+        Description match(LabeledStatementTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchLabeledStatement((LabeledStatementTree) tree, state);
+        }
+      },
+      new NodeType<LiteralTreeMatcher>(LiteralTreeMatcher.class, LiteralTree.class) {
+        @Override
+        Description match(LiteralTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchLiteral((LiteralTree) tree, state);
+        }
+      },
+      new NodeType<MemberSelectTreeMatcher>(MemberSelectTreeMatcher.class, MemberSelectTree.class) {
+        @Override
+        Description match(MemberSelectTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchMemberSelect((MemberSelectTree) tree, state);
+        }
+      },
+      new NodeType<MethodTreeMatcher>(MethodTreeMatcher.class, MethodTree.class) {
+        @Override
+        Description match(MethodTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchMethod((MethodTree) tree, state);
+        }
+      },
+      new NodeType<MethodInvocationTreeMatcher>(
+          MethodInvocationTreeMatcher.class, MethodInvocationTree.class) {
+        @Override
+        Description match(MethodInvocationTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchMethodInvocation((MethodInvocationTree) tree, state);
+        }
+      },
+      new NodeType<ModifiersTreeMatcher>(ModifiersTreeMatcher.class, ModifiersTree.class) {
+        @Override
+        Description match(ModifiersTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchModifiers((ModifiersTree) tree, state);
+        }
+      },
+      new NodeType<NewArrayTreeMatcher>(NewArrayTreeMatcher.class, NewArrayTree.class) {
+        @Override
+        Description match(NewArrayTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchNewArray((NewArrayTree) tree, state);
+        }
+      },
+      new NodeType<NewClassTreeMatcher>(NewClassTreeMatcher.class, NewClassTree.class) {
+        @Override
+        Description match(NewClassTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchNewClass((NewClassTree) tree, state);
+        }
+      },
+      new NodeType<TreeMatcher>(TreeMatcher.class, Tree.class) {
+        @Override
+        Description match(TreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchOther(tree, state);
+        }
+      },
+      new NodeType<ParameterizedTypeTreeMatcher>(
+          ParameterizedTypeTreeMatcher.class, ParameterizedTypeTree.class) {
+        @Override
+        Description match(ParameterizedTypeTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchParameterizedType((ParameterizedTypeTree) tree, state);
+        }
+      },
+      new NodeType<ParenthesizedTreeMatcher>(
+          ParenthesizedTreeMatcher.class, ParenthesizedTree.class) {
+        @Override
+        Description match(ParenthesizedTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchParenthesized((ParenthesizedTree) tree, state);
+        }
+      },
+      new NodeType<PrimitiveTypeTreeMatcher>(
+          PrimitiveTypeTreeMatcher.class, PrimitiveTypeTree.class) {
+        @Override
+        Description match(PrimitiveTypeTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchPrimitiveType((PrimitiveTypeTree) tree, state);
+        }
+      },
+      new NodeType<ReturnTreeMatcher>(ReturnTreeMatcher.class, ReturnTree.class) {
+        @Override
+        Description match(ReturnTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchReturn((ReturnTree) tree, state);
+        }
+      },
+      new NodeType<SwitchTreeMatcher>(SwitchTreeMatcher.class, SwitchTree.class) {
+        @Override
+        Description match(SwitchTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchSwitch((SwitchTree) tree, state);
+        }
+      },
+      new NodeType<SynchronizedTreeMatcher>(SynchronizedTreeMatcher.class, SynchronizedTree.class) {
+        @Override
+        Description match(SynchronizedTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchSynchronized((SynchronizedTree) tree, state);
+        }
+      },
+      new NodeType<ThrowTreeMatcher>(ThrowTreeMatcher.class, ThrowTree.class) {
+        @Override
+        Description match(ThrowTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchThrow((ThrowTree) tree, state);
+        }
+      },
+      new NodeType<TryTreeMatcher>(TryTreeMatcher.class, TryTree.class) {
+        @Override
+        Description match(TryTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchTry((TryTree) tree, state);
+        }
+      },
+      new NodeType<TypeCastTreeMatcher>(TypeCastTreeMatcher.class, TypeCastTree.class) {
+        @Override
+        Description match(TypeCastTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchTypeCast((TypeCastTree) tree, state);
+        }
+      },
+      new NodeType<TypeParameterTreeMatcher>(
+          TypeParameterTreeMatcher.class, TypeParameterTree.class) {
+        @Override
+        Description match(TypeParameterTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchTypeParameter((TypeParameterTree) tree, state);
+        }
+      },
+      new NodeType<UnaryTreeMatcher>(UnaryTreeMatcher.class, UnaryTree.class) {
+        @Override
+        Description match(UnaryTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchUnary((UnaryTree) tree, state);
+        }
+      },
+      new NodeType<VariableTreeMatcher>(VariableTreeMatcher.class, VariableTree.class) {
+        @Override
+        Description match(VariableTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchVariable((VariableTree) tree, state);
+        }
+      },
+      new NodeType<WhileLoopTreeMatcher>(WhileLoopTreeMatcher.class, WhileLoopTree.class) {
+        @Override
+        Description match(WhileLoopTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchWhileLoop((WhileLoopTree) tree, state);
+        }
+      },
+      new NodeType<WildcardTreeMatcher>(WildcardTreeMatcher.class, WildcardTree.class) {
+        @Override
+        Description match(WildcardTreeMatcher matcher, Tree tree, VisitorState state) {
+          return matcher.matchWildcard((WildcardTree) tree, state);
+        }
+      }
+  );
+
+  /**
+   * The entries of {@link #NODE_TYPES}, by matcher interface.
+   */
+  private static final Map<Class<?>, NodeType<?>> NODE_TYPES_BY_MATCHER =
+      new HashMap<Class<?>, NodeType<?>>();
+  static {
+    for (NodeType<?> nodeType : NODE_TYPES) {
+      NODE_TYPES_BY_MATCHER.put(nodeType.matcherType, nodeType);
     }
-    return super.visitClass(tree, visitorState);
   }
 }
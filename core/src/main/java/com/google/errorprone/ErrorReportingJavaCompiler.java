@@ -19,8 +19,10 @@ package com.google.errorprone;
 import com.sun.tools.javac.comp.AttrContext;
 import com.sun.tools.javac.comp.Env;
 import com.sun.tools.javac.main.JavaCompiler;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.Context.Factory;
+import com.sun.tools.javac.util.List;
 
 import java.util.Queue;
 
@@ -34,6 +36,9 @@ public class ErrorReportingJavaCompiler extends JavaCompiler {
 
   public ErrorReportingJavaCompiler(Context context) {
     super(context);
+    // Record end positions as each file is parsed, as if -Xjcov were given, so that suggested
+    // fixes can be applied without parsing the file a second time.
+    genEndPos = true;
     errorProneAnalyzer = new ErrorProneAnalyzer(log, context);
   }
 
@@ -59,22 +64,25 @@ public class ErrorReportingJavaCompiler extends JavaCompiler {
     });
   }
 
+  @Override
+  public List<JCCompilationUnit> enterTrees(List<JCCompilationUnit> roots) {
+    List<JCCompilationUnit> entered = super.enterTrees(roots);
+    errorProneAnalyzer.reportEntered(roots);
+    return entered;
+  }
+
   @Override
   protected void flow(Env<AttrContext> attrContextEnv, Queue<Env<AttrContext>> envs) {
     super.flow(attrContextEnv, envs);
     postFlow(attrContextEnv);
   }
 
-  public void profilePostFlow(Env<AttrContext> attrContextEnv) {
+  @Override
+  public void close(boolean disposeNames) {
     try {
-      // For profiling with YourKit, add to classpath:
-      // <Profiler Installation Directory>/lib/yjp-controller-api-redist.jar
-//      Controller controller = new Controller();
-//      controller.startCPUProfiling(ProfilingModes.CPU_SAMPLING, "");
-      postFlow(attrContextEnv);
-//      controller.stopCPUProfiling();
-    } catch (Exception e) {
-      throw new RuntimeException(e);
+      errorProneAnalyzer.shutdown();
+    } finally {
+      super.close(disposeNames);
     }
   }
 
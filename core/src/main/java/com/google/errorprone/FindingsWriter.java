@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.fixes.Replacement;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the findings of a compile to a file in a structured format, for tools which would
+ * otherwise have to scrape them from javac's diagnostics.  Each finding is written as soon as it
+ * is reported, through a buffer, so memory use does not grow with the number of findings.
+ * Enabled with {@code -XepFindings=FILE}: the file is written as SARIF if its name ends in
+ * {@code .sarif}, and as JSON Lines, one object per finding, otherwise.  The listeners for all
+ * the compilation units in a compile share one writer.
+ */
+public abstract class FindingsWriter {
+
+  private static final String SARIF_SUFFIX = ".sarif";
+
+  protected final Writer out;
+  private int count = 0;
+
+  protected FindingsWriter(Writer out) {
+    this.out = out;
+  }
+
+  /**
+   * Creates the given file, and a writer for findings in the format its name calls for.
+   */
+  public static FindingsWriter open(File file) throws IOException {
+    Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    FindingsWriter writer = file.getName().endsWith(SARIF_SUFFIX)
+        ? new SarifFindingsWriter(out)
+        : new JsonLinesFindingsWriter(out);
+    writer.writeHeader();
+    return writer;
+  }
+
+  public final void write(Finding finding) throws IOException {
+    writeFinding(finding);
+    count++;
+  }
+
+  /**
+   * Completes the file, and closes it.
+   */
+  public final void close() throws IOException {
+    try {
+      writeFooter();
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * The number of findings written so far.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Writes whatever must come before the first finding.
+   */
+  protected void writeHeader() throws IOException {}
+
+  protected abstract void writeFinding(Finding finding) throws IOException;
+
+  /**
+   * Writes whatever must come after the last finding.
+   */
+  protected void writeFooter() throws IOException {}
+
+  /**
+   * A finding, with its position both as offsets into the source file and as the 1-based line
+   * and column where it starts.  Columns count characters, with no expansion of tabs.
+   */
+  public static class Finding {
+    final String checkerName;
+    final SeverityLevel severity;
+    final String path;
+    final String uri;
+    final int startPosition;
+    final int endPosition;
+    final int line;
+    final int column;
+    final String message;
+    final List<Replacement> replacements;
+
+    /**
+     * @param checkerName the checker's name, or null if it is not known
+     * @param path the path of the source file, as given to javac
+     * @param uri the URI of the source file
+     * @param replacements the suggested fix, in the order of their start positions; empty if
+     *     there is none
+     */
+    public Finding(String checkerName, SeverityLevel severity, String path, String uri,
+        int startPosition, int endPosition, int line, int column, String message,
+        List<Replacement> replacements) {
+      this.checkerName = checkerName;
+      this.severity = severity;
+      this.path = path;
+      this.uri = uri;
+      this.startPosition = startPosition;
+      this.endPosition = endPosition;
+      this.line = line;
+      this.column = column;
+      this.message = message;
+      this.replacements = replacements;
+    }
+  }
+}
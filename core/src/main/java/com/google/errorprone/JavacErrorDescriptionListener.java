@@ -16,16 +16,22 @@
 
 package com.google.errorprone;
 
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.ResultCache.Finding;
 import com.google.errorprone.fixes.AppliedFix;
+import com.google.errorprone.fixes.FilePatch;
+import com.google.errorprone.fixes.PatchDirectory;
 import com.google.errorprone.matchers.Description;
 
 import com.sun.tools.javac.main.JavaCompiler;
 import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
 import com.sun.tools.javac.util.Context;
 import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
 import com.sun.tools.javac.util.Log;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import javax.tools.JavaFileObject;
@@ -40,6 +46,36 @@ public class JavacErrorDescriptionListener implements DescriptionListener {
   private final JavaFileObject sourceFile;
   private final JavaCompiler compiler;
 
+  /**
+   * Where to record findings as they are reported, for the result cache; null if they are not
+   * being recorded.
+   */
+  private List<Finding> recordedFindings;
+
+  /**
+   * Applies suggested fixes to this file; created for the first fix, and shared by the rest so
+   * that the file's line starts are only found once.
+   */
+  private AppliedFix.Applier fixApplier;
+
+  /**
+   * Where to write the patch of all the fixes suggested for this file, and the patch so far;
+   * null if fixes are not being written.
+   */
+  private PatchDirectory patchDirectory;
+  private JCCompilationUnit compilationUnit;
+  private FilePatch patch;
+
+  /**
+   * Where to record how long reporting each finding takes; null unless profiling.
+   */
+  private CheckerProfile profile;
+
+  /**
+   * Where else to report each finding, as it was described; null if findings only go to the log.
+   */
+  private DescriptionListener otherListener;
+
   // The suffix for properties in src/main/resources/com/google/errorprone/errors.properties
   private static final String MESSAGE_BUNDLE_KEY = "error.prone";
 
@@ -51,27 +87,106 @@ public class JavacErrorDescriptionListener implements DescriptionListener {
     this.compiler = JavaCompiler.instance(context);
   }
 
+  /**
+   * Adds each finding reported from now on to the given list.
+   */
+  public void recordFindings(List<Finding> findings) {
+    this.recordedFindings = findings;
+  }
+
+  /**
+   * Merges each fix suggested from now on into a patch for the compilation unit, to be written
+   * to the given directory by {@link #finish()}.
+   */
+  public void writePatchTo(PatchDirectory patchDirectory, JCCompilationUnit compilationUnit) {
+    this.patchDirectory = patchDirectory;
+    this.compilationUnit = compilationUnit;
+  }
+
+  /**
+   * Records the time taken to report each finding from now on, including applying its suggested
+   * fix, in the given profile.
+   */
+  public void recordTimesIn(CheckerProfile profile) {
+    this.profile = profile;
+  }
+
+  /**
+   * Passes each finding reported from now on to the given listener as well, with its suggested
+   * fix, once it has been reported to the log.
+   */
+  public void alsoReportTo(DescriptionListener listener) {
+    this.otherListener = listener;
+  }
+
+  /**
+   * Called once everything found in the file has been reported.  Writes out the patch of the
+   * fixes suggested for it, if there is one, and lets it be garbage collected.
+   */
+  public void finish() {
+    if (patch == null) {
+      return;
+    }
+    try {
+      patchDirectory.write(sourceFile, patch);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      patch = null;
+    }
+  }
+
+  /**
+   * Reports a finding again, as it was recorded in an earlier compile.
+   */
+  public void replay(Finding finding) {
+    JavaFileObject originalSource = log.useSource(sourceFile);
+    try {
+      report(finding.getSeverity(), finding.getPosition(), finding.getMessage());
+    } finally {
+      if (originalSource != null) {
+        log.useSource(originalSource);
+      }
+    }
+  }
+
   @Override
   public void onDescribed(Description description) {
+    if (profile == null) {
+      describe(description);
+    } else {
+      long start = System.nanoTime();
+      describe(description);
+      profile.recordReport(System.nanoTime() - start);
+    }
+  }
+
+  private void describe(Description description) {
     JavaFileObject originalSource;
     // Swap the log's source and the current file's source; then be sure to swap them back later.
     originalSource = log.useSource(sourceFile);
     try {
-      CharSequence content = sourceFile.getCharContent(true);
-
-      // If endPositions were not computed (-Xjcov option was not passed), reparse the file
-      // and compute the end positions so we can generate suggested fixes.
-      if (endPositions == null) {
-        boolean prevGenEndPos = compiler.genEndPos;
-        compiler.genEndPos = true;
-        Map<JCTree, Integer> endPosMap = compiler.parse(sourceFile).endPositions;
-        compiler.genEndPos = prevGenEndPos;
-        endPositions = new WrappedTreeMap(endPosMap);
-      }
-
       AppliedFix fix = null;
       if (description.suggestedFix != null) {
-        fix = AppliedFix.fromSource(content, endPositions).apply(description.suggestedFix);
+        // ErrorReportingJavaCompiler records end positions as it parses.  Only if the file was
+        // parsed by some other compiler without them, reparse it to compute them.
+        if (endPositions == null) {
+          boolean prevGenEndPos = compiler.genEndPos;
+          compiler.genEndPos = true;
+          Map<JCTree, Integer> endPosMap = compiler.parse(sourceFile).endPositions;
+          compiler.genEndPos = prevGenEndPos;
+          endPositions = new EndPositionIndex(endPosMap);
+        }
+        if (fixApplier == null) {
+          fixApplier = AppliedFix.fromSource(sourceFile.getCharContent(true), endPositions);
+        }
+        fix = fixApplier.apply(description.suggestedFix);
+        if (patchDirectory != null) {
+          if (patch == null) {
+            patch = new FilePatch(compilationUnit, endPositions);
+          }
+          patch.add(description.suggestedFix);
+        }
       }
       final String message;
       if (description.suggestedFix == null || fix == null) {
@@ -83,15 +198,14 @@ public class JavacErrorDescriptionListener implements DescriptionListener {
           message = description.message + "\nDid you mean '" + fix.getNewCodeSnippet() + "'?";
         }
       }
-      switch (description.severity) {
-        case ERROR:
-          log.error((DiagnosticPosition) description.node, MESSAGE_BUNDLE_KEY, message);
-          break;
-        case WARNING:
-          log.warning((DiagnosticPosition) description.node, MESSAGE_BUNDLE_KEY, message);
-          break;
-        default:
-          break;
+      DiagnosticPosition position = (DiagnosticPosition) description.node;
+      if (recordedFindings != null) {
+        recordedFindings.add(new Finding(description.severity, position.getStartPosition(),
+            position.getPreferredPosition(), position.getEndPosition(endPositions), message));
+      }
+      report(description.severity, position, message);
+      if (otherListener != null) {
+        otherListener.onDescribed(description);
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -101,4 +215,17 @@ public class JavacErrorDescriptionListener implements DescriptionListener {
       }
     }
   }
+
+  private void report(SeverityLevel severity, DiagnosticPosition position, String message) {
+    switch (severity) {
+      case ERROR:
+        log.error(position, MESSAGE_BUNDLE_KEY, message);
+        break;
+      case WARNING:
+        log.warning(position, MESSAGE_BUNDLE_KEY, message);
+        break;
+      default:
+        break;
+    }
+  }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.errorprone.Json.quote;
+
+import com.google.errorprone.fixes.Replacement;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes each finding as a JSON object on a line of its own, for example:
+ *
+ * <pre>
+ * {"checker": "EmptyIf", "severity": "ERROR", "file": "src/Foo.java", "start": 120, "end": 121,
+ *  "line": 7, "column": 15, "message": "[EmptyIf] Empty statement after if",
+ *  "replacements": [{"start": 120, "end": 121, "replaceWith": ""}]}
+ * </pre>
+ *
+ * (all on one line).  Offsets are in characters from the start of the file, and the end is
+ * exclusive.
+ */
+public class JsonLinesFindingsWriter extends FindingsWriter {
+
+  public JsonLinesFindingsWriter(Writer out) {
+    super(out);
+  }
+
+  @Override
+  protected void writeFinding(Finding finding) throws IOException {
+    String checker = finding.checkerName == null ? "null" : quote(finding.checkerName);
+    out.write("{\"checker\": " + checker
+        + ", \"severity\": " + quote(finding.severity.name())
+        + ", \"file\": " + quote(finding.path)
+        + ", \"start\": " + finding.startPosition + ", \"end\": " + finding.endPosition
+        + ", \"line\": " + finding.line + ", \"column\": " + finding.column
+        + ", \"message\": " + quote(finding.message)
+        + ", \"replacements\": [");
+    String separator = "";
+    for (Replacement replacement : finding.replacements) {
+      out.write(separator);
+      out.write("{\"start\": " + replacement.startPosition
+          + ", \"end\": " + replacement.endPosition
+          + ", \"replaceWith\": " + quote(replacement.replaceWith) + "}");
+      separator = ", ";
+    }
+    out.write("]}\n");
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Name;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts strings to javac Names in one compilation.  The compiler's name table is found once
+ * per Context, and each string is only converted once, so converting a string that has been seen
+ * before costs a hash lookup.
+ *
+ * <p>The name table is found reflectively, as it is {@code com.sun.tools.javac.util.Names} in
+ * OpenJDK 7 but {@code com.sun.tools.javac.util.Name.Table} in OpenJDK 6, and we compile against
+ * both.
+ */
+class NameTable {
+
+  // Finding the methods requires expensive reflection, so is done once.
+  private static final TableAccess TABLE_ACCESS = createTableAccess();
+
+  /**
+   * The compiler's Names (OpenJDK 7) or Name.Table (OpenJDK 6) for the Context.
+   */
+  private final Object table;
+  private final Map<String, Name> names = new HashMap<String, Name>();
+
+  private NameTable(Object table) {
+    this.table = table;
+  }
+
+  /**
+   * Returns the name table for the given context, creating it if needed.
+   */
+  static NameTable instance(Context context) {
+    NameTable instance = context.get(NameTable.class);
+    if (instance == null) {
+      instance = new NameTable(TABLE_ACCESS.table(context));
+      context.put(NameTable.class, instance);
+    }
+    return instance;
+  }
+
+  Name fromString(String nameStr) {
+    Name name = names.get(nameStr);
+    if (name == null) {
+      name = TABLE_ACCESS.fromString(table, nameStr);
+      names.put(nameStr, name);
+    }
+    return name;
+  }
+
+  private static TableAccess createTableAccess() {
+    ClassLoader classLoader = NameTable.class.getClassLoader();
+    // OpenJDK 7
+    try {
+      Class<?> namesClass = classLoader.loadClass("com.sun.tools.javac.util.Names");
+      return new TableAccess(namesClass.getDeclaredMethod("instance", Context.class),
+          namesClass.getDeclaredMethod("fromString", String.class), false);
+    } catch (ClassNotFoundException e) {
+      // OpenJDK 6
+      try {
+        Class<?> nameTableClass = classLoader.loadClass("com.sun.tools.javac.util.Name$Table");
+        return new TableAccess(nameTableClass.getMethod("instance", Context.class),
+            Name.class.getMethod("fromString", nameTableClass, String.class), true);
+      } catch (Exception e1) {
+        throw new RuntimeException("Unexpected error loading com.sun.tools.javac.util.Names", e1);
+      }
+    } catch (Exception e) {
+      throw new RuntimeException("Unexpected error loading com.sun.tools.javac.util.Names", e);
+    }
+  }
+
+  private static class TableAccess {
+    private final Method instanceMethod;
+    private final Method fromStringMethod;
+
+    /**
+     * Whether fromString is a static method of Name taking the table, as in OpenJDK 6, rather
+     * than a method of the table.
+     */
+    private final boolean staticFromString;
+
+    TableAccess(Method instanceMethod, Method fromStringMethod, boolean staticFromString) {
+      this.instanceMethod = instanceMethod;
+      this.fromStringMethod = fromStringMethod;
+      this.staticFromString = staticFromString;
+    }
+
+    Object table(Context context) {
+      try {
+        return instanceMethod.invoke(null, context);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    Name fromString(Object table, String nameStr) {
+      try {
+        return staticFromString
+            ? (Name) fromStringMethod.invoke(null, table, nameStr)
+            : (Name) fromStringMethod.invoke(table, nameStr);
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+}
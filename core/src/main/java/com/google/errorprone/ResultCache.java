@@ -0,0 +1,521 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.util.ASTHelpers;
+
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.CompletionFailure;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.TreeScanner;
+import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.tools.JavaFileObject;
+
+/**
+ * A directory of the findings reported for compilation units in earlier compiles, so that an
+ * unchanged compilation unit need not be scanned again.
+ *
+ * <p>Findings are looked up by a digest of the compilation unit's source, the fingerprint of the
+ * scanner (which checkers it runs, and the version of their code and error-prone's), the
+ * contents of every source in the same compilation, the jars on the classpath and sourcepath,
+ * and the class and source files outside the compilation that the types the unit refers to, and
+ * their supertypes, were loaded from.  A checker may look at any type the unit refers to, so a
+ * unit's findings are only reused when nothing it could depend on has changed.  Directories on
+ * the paths are not walked: a class output directory which is also on the classpath changes on
+ * every compile, and only the files the unit loaded from them matter.  The least recently used
+ * entries are deleted when the directory grows beyond its maximum size.
+ */
+public class ResultCache {
+
+  /**
+   * Changed whenever the format of the cache files changes.
+   */
+  private static final int FORMAT_VERSION = 1;
+
+  private static final String SUFFIX = ".findings";
+
+  private final File directory;
+  private final long maxBytes;
+  private final String scannerFingerprint;
+  private final Iterable<? extends File> classpath;
+  private final Iterable<? extends File> sourcepath;
+
+  /**
+   * The sources in the compilation, by URI, so that they are digested in a stable order.
+   */
+  private final Map<String, JavaFileObject> sources = new TreeMap<String, JavaFileObject>();
+
+  /**
+   * Digest of the scanner fingerprint, the sources in the compilation, and the entries of the
+   * classpath and sourcepath; computed on the first lookup.
+   */
+  private byte[] compilationDigest;
+
+  private int hits = 0;
+  private int misses = 0;
+
+  public ResultCache(File directory, long maxBytes, String scannerFingerprint,
+      Iterable<? extends File> classpath, Iterable<? extends File> sourcepath) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.scannerFingerprint = scannerFingerprint;
+    this.classpath = classpath;
+    this.sourcepath = sourcepath;
+  }
+
+  /**
+   * Adds a source file to those in the compilation.  All of them must be added before the first
+   * lookup.
+   */
+  public void addSource(JavaFileObject sourceFile) {
+    sources.put(sourceFile.toUri().toString(), sourceFile);
+    compilationDigest = null;
+  }
+
+  /**
+   * A finding as it was reported to the Log: its severity, position and full message.
+   */
+  public static class Finding {
+    final SeverityLevel severity;
+    final int startPosition;
+    final int preferredPosition;
+    final int endPosition;
+    final String message;
+
+    public Finding(SeverityLevel severity, int startPosition, int preferredPosition,
+        int endPosition, String message) {
+      this.severity = severity;
+      this.startPosition = startPosition;
+      this.preferredPosition = preferredPosition;
+      this.endPosition = endPosition;
+      this.message = message;
+    }
+
+    public SeverityLevel getSeverity() {
+      return severity;
+    }
+
+    public DiagnosticPosition getPosition() {
+      return new CachedPosition(startPosition, preferredPosition, endPosition);
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+
+  /**
+   * Returns the key under which findings for the given attributed compilation unit are stored,
+   * or null if its source can't be read.
+   */
+  public String keyFor(JCCompilationUnit unit) {
+    try {
+      MessageDigest digest = newDigest();
+      digest.update(getCompilationDigest());
+      for (File file : filesLoadedFor(unit)) {
+        updateWithFile(digest, file);
+      }
+      digest.update("unit\n".getBytes("UTF-8"));
+      digest.update(unit.getSourceFile().getCharContent(true).toString().getBytes("UTF-8"));
+      return toHex(digest.digest());
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the findings stored under the given key, or null if there are none.
+   */
+  public List<Finding> get(String key) {
+    if (key == null) {
+      misses++;
+      return null;
+    }
+    File file = new File(directory, key + SUFFIX);
+    List<Finding> findings = null;
+    try {
+      findings = read(file);
+    } catch (IOException e) {
+      // Missing, or written by another version; either way the unit is scanned again.
+    }
+    if (findings == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    file.setLastModified(System.currentTimeMillis());
+    return findings;
+  }
+
+  /**
+   * Stores the findings reported for the compilation unit with the given key.
+   */
+  public void put(String key, List<Finding> findings) {
+    if (key == null) {
+      return;
+    }
+    try {
+      directory.mkdirs();
+      // Written under a temporary name so that concurrent compiles never read a partial file.
+      File temp = File.createTempFile(key, ".tmp", directory);
+      try {
+        write(temp, findings);
+        File file = new File(directory, key + SUFFIX);
+        if (!temp.renameTo(file)) {
+          file.delete();
+          temp.renameTo(file);
+        }
+      } finally {
+        temp.delete();
+      }
+    } catch (IOException e) {
+      // Not worth failing the compile for; the unit will be scanned again next time.
+    }
+  }
+
+  /**
+   * Deletes the least recently used entries until the cache is no bigger than its maximum size.
+   */
+  public void trim() {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    long totalBytes = 0;
+    for (File file : files) {
+      totalBytes += file.length();
+    }
+    if (totalBytes <= maxBytes) {
+      return;
+    }
+    final long[] lastUsed = new long[files.length];
+    Integer[] order = new Integer[files.length];
+    for (int i = 0; i < files.length; i++) {
+      lastUsed[i] = files[i].lastModified();
+      order[i] = i;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer a, Integer b) {
+        return lastUsed[a] < lastUsed[b] ? -1 : (lastUsed[a] == lastUsed[b] ? 0 : 1);
+      }
+    });
+    for (int i = 0; i < order.length && totalBytes > maxBytes; i++) {
+      File file = files[order[i]];
+      long length = file.length();
+      if (file.delete()) {
+        totalBytes -= length;
+      }
+    }
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public int getMisses() {
+    return misses;
+  }
+
+  private byte[] getCompilationDigest() throws IOException {
+    if (compilationDigest == null) {
+      MessageDigest digest = newDigest();
+      digest.update(("format " + FORMAT_VERSION + "\n").getBytes("UTF-8"));
+      digest.update((scannerFingerprint + "\n").getBytes("UTF-8"));
+      for (Map.Entry<String, JavaFileObject> source : sources.entrySet()) {
+        byte[] content = source.getValue().getCharContent(true).toString().getBytes("UTF-8");
+        digest.update((source.getKey() + " " + content.length + "\n").getBytes("UTF-8"));
+        digest.update(content);
+      }
+      for (Iterable<? extends File> path : Arrays.asList(classpath, sourcepath)) {
+        digest.update("path\n".getBytes("UTF-8"));
+        if (path != null) {
+          for (File entry : path) {
+            updateWithFile(digest, entry);
+          }
+        }
+      }
+      compilationDigest = digest.digest();
+    }
+    return compilationDigest;
+  }
+
+  /**
+   * Adds the path, size and modification time of a file to the digest, or only the path of a
+   * directory.
+   */
+  private static void updateWithFile(MessageDigest digest, File file)
+      throws UnsupportedEncodingException {
+    String line = file.isDirectory()
+        ? file.getPath() + "\n"
+        : file.getPath() + " " + file.length() + " " + file.lastModified() + "\n";
+    digest.update(line.getBytes("UTF-8"));
+  }
+
+  /**
+   * Returns the class and source files, outside the compilation and not inside a jar, that the
+   * types the unit refers to and their supertypes were loaded from.
+   */
+  private Set<File> filesLoadedFor(JCCompilationUnit unit) {
+    ClassCollector collector = new ClassCollector();
+    collector.scan(unit);
+    Set<File> files = new TreeSet<File>();
+    for (ClassSymbol classSymbol : collector.classes) {
+      if (classSymbol.classfile == null) {
+        continue;
+      }
+      URI uri = classSymbol.classfile.toUri();
+      if ("file".equals(uri.getScheme()) && !sources.containsKey(uri.toString())) {
+        files.add(new File(uri));
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Collects the classes a tree's types and symbols belong to, with their supertypes and
+   * enclosing classes.
+   */
+  private static class ClassCollector extends TreeScanner {
+    final Set<ClassSymbol> classes = new HashSet<ClassSymbol>();
+
+    @Override
+    public void scan(JCTree tree) {
+      if (tree == null) {
+        return;
+      }
+      if (tree.type != null) {
+        add(tree.type);
+      }
+      Symbol symbol = ASTHelpers.getSymbol(tree);
+      if (symbol != null) {
+        add(symbol.enclClass());
+      }
+      super.scan(tree);
+    }
+
+    private void add(Type type) {
+      if (type.tsym instanceof ClassSymbol) {
+        add((ClassSymbol) type.tsym);
+      }
+    }
+
+    private void add(ClassSymbol classSymbol) {
+      if (classSymbol == null || !classes.add(classSymbol)) {
+        return;
+      }
+      add(classSymbol.owner.enclClass());
+      try {
+        add(classSymbol.getSuperclass());
+        for (Type type : classSymbol.getInterfaces()) {
+          add(type);
+        }
+      } catch (CompletionFailure e) {
+        // Its supertypes can't be read, so they are left out.
+      }
+    }
+  }
+
+  /**
+   * Returns the jar or class directory a class, such as a checker, was loaded from, or null if
+   * it is not known.
+   */
+  public static File codeLocation(Class<?> clazz) {
+    CodeSource source = clazz.getProtectionDomain().getCodeSource();
+    if (source == null || source.getLocation() == null) {
+      return null;
+    }
+    try {
+      return new File(source.getLocation().toURI());
+    } catch (URISyntaxException e) {
+      return null;
+    } catch (IllegalArgumentException e) {
+      // Not a file: URI.
+      return null;
+    }
+  }
+
+  /**
+   * Identifies the version of the code in a jar or class directory by a digest of its contents.
+   * Returns null if it can't be read.
+   */
+  public static String contentVersion(File location) {
+    try {
+      MessageDigest digest = newDigest();
+      updateWithContents(digest, location, "");
+      return toHex(digest.digest());
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Adds the relative path and contents of a file, or of each file under a directory, to the
+   * digest.
+   */
+  private static void updateWithContents(MessageDigest digest, File file, String path)
+      throws IOException {
+    if (file.isDirectory()) {
+      File[] children = file.listFiles();
+      if (children == null) {
+        throw new IOException("Could not list " + file);
+      }
+      Arrays.sort(children);
+      for (File child : children) {
+        updateWithContents(digest, child, path + "/" + child.getName());
+      }
+      return;
+    }
+    digest.update((path + " " + file.length() + "\n").getBytes("UTF-8"));
+    InputStream in = new FileInputStream(file);
+    try {
+      byte[] buffer = new byte[8192];
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        digest.update(buffer, 0, read);
+      }
+    } finally {
+      in.close();
+    }
+  }
+
+  private static List<Finding> read(File file) throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      if (in.readInt() != FORMAT_VERSION) {
+        return null;
+      }
+      int count = in.readInt();
+      List<Finding> findings = new ArrayList<Finding>(count);
+      for (int i = 0; i < count; i++) {
+        SeverityLevel severity = SeverityLevel.valueOf(in.readUTF());
+        int startPosition = in.readInt();
+        int preferredPosition = in.readInt();
+        int endPosition = in.readInt();
+        String message = in.readUTF();
+        findings.add(
+            new Finding(severity, startPosition, preferredPosition, endPosition, message));
+      }
+      return findings;
+    } catch (IllegalArgumentException e) {
+      // An unknown severity.
+      return null;
+    } finally {
+      in.close();
+    }
+  }
+
+  private static void write(File file, List<Finding> findings) throws IOException {
+    DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(findings.size());
+      for (Finding finding : findings) {
+        out.writeUTF(finding.severity.name());
+        out.writeInt(finding.startPosition);
+        out.writeInt(finding.preferredPosition);
+        out.writeInt(finding.endPosition);
+        out.writeUTF(finding.message);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Every Java platform supports SHA-1", e);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    StringBuilder result = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      result.append(Character.forDigit((b >> 4) & 0xf, 16));
+      result.append(Character.forDigit(b & 0xf, 16));
+    }
+    return result.toString();
+  }
+
+  /**
+   * The position of a finding read back from the cache, where there is no tree to point at.
+   */
+  private static class CachedPosition implements DiagnosticPosition {
+    final int startPosition;
+    final int preferredPosition;
+    final int endPosition;
+
+    CachedPosition(int startPosition, int preferredPosition, int endPosition) {
+      this.startPosition = startPosition;
+      this.preferredPosition = preferredPosition;
+      this.endPosition = endPosition;
+    }
+
+    @Override
+    public JCTree getTree() {
+      return null;
+    }
+
+    @Override
+    public int getStartPosition() {
+      return startPosition;
+    }
+
+    @Override
+    public int getPreferredPosition() {
+      return preferredPosition;
+    }
+
+    @Override
+    public int getEndPosition(Map<JCTree, Integer> endPosTable) {
+      return endPosition;
+    }
+  }
+}
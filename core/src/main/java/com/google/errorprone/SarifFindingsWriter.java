@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.errorprone.Json.quote;
+
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.fixes.Replacement;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the findings as a SARIF 2.1.0 log with a single run, each finding a result whose
+ * location gives the offset and length of the matched code as well as the line and column it
+ * starts at, and whose suggested fix, if any, is a fix of a single artifact change.
+ *
+ * <p>The log is written as it goes: the header first, then a line for each result, and the
+ * closing brackets only when the writer is closed, so a log whose compile did not finish is
+ * truncated.
+ */
+public class SarifFindingsWriter extends FindingsWriter {
+
+  private String separator = "\n";
+
+  public SarifFindingsWriter(Writer out) {
+    super(out);
+  }
+
+  @Override
+  protected void writeHeader() throws IOException {
+    out.write("{\n");
+    out.write("  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n");
+    out.write("  \"version\": \"2.1.0\",\n");
+    out.write("  \"runs\": [{\n");
+    out.write("    \"tool\": {\"driver\": {\"name\": \"error-prone\", "
+        + "\"informationUri\": \"http://code.google.com/p/error-prone\"}},\n");
+    out.write("    \"results\": [");
+  }
+
+  @Override
+  protected void writeFinding(Finding finding) throws IOException {
+    out.write(separator);
+    separator = ",\n";
+    String artifact = "{\"uri\": " + quote(finding.uri) + "}";
+    out.write("      {");
+    if (finding.checkerName != null) {
+      out.write("\"ruleId\": " + quote(finding.checkerName) + ", ");
+    }
+    out.write("\"level\": " + quote(levelOf(finding.severity))
+        + ", \"message\": {\"text\": " + quote(finding.message) + "}"
+        + ", \"locations\": [{\"physicalLocation\": {\"artifactLocation\": " + artifact
+        + ", \"region\": {\"startLine\": " + finding.line
+        + ", \"startColumn\": " + finding.column
+        + ", \"charOffset\": " + finding.startPosition
+        + ", \"charLength\": " + (finding.endPosition - finding.startPosition) + "}}}]");
+    if (!finding.replacements.isEmpty()) {
+      out.write(", \"fixes\": [{\"artifactChanges\": [{\"artifactLocation\": " + artifact
+          + ", \"replacements\": [");
+      String replacementSeparator = "";
+      for (Replacement replacement : finding.replacements) {
+        out.write(replacementSeparator);
+        out.write("{\"deletedRegion\": {\"charOffset\": " + replacement.startPosition
+            + ", \"charLength\": " + (replacement.endPosition - replacement.startPosition) + "}"
+            + ", \"insertedContent\": {\"text\": " + quote(replacement.replaceWith) + "}}");
+        replacementSeparator = ", ";
+      }
+      out.write("]}]}]");
+    }
+    out.write("}");
+  }
+
+  @Override
+  protected void writeFooter() throws IOException {
+    out.write("\n    ]\n");
+    out.write("  }]\n");
+    out.write("}\n");
+  }
+
+  private static String levelOf(SeverityLevel severity) {
+    switch (severity) {
+      case ERROR:
+        return "error";
+      case WARNING:
+        return "warning";
+      default:
+        return "note";
+    }
+  }
+}
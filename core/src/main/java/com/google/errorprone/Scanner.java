@@ -18,7 +18,6 @@ package com.google.errorprone;
 
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Suppressable;
-import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.TreePathScanner;
@@ -26,54 +25,141 @@ import com.sun.tools.javac.code.Attribute;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
 import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.Pair;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
- * TODO(eaftan): I'm worried about this performance of this code,
- * specifically the part that handles SuppressWarnings.  We should
- * profile it and see where the hotspots are.
+ * A TreePathScanner which keeps track of the warnings suppressed by @SuppressWarnings
+ * annotations on the enclosing declarations of the current node.
+ *
+ * <p>Every warning name a checker answers to is interned to a small integer the first time it is
+ * seen.  The set of currently suppressed warnings is then a bitset over those integers, and a
+ * checker's names are a mask over the same bits, so asking whether a checker is suppressed is a
+ * bitwise AND.  Names in @SuppressWarnings annotations that no checker answers to, such as
+ * "unchecked", are ignored rather than interned, so the table is bounded by the checkers run and
+ * does not grow with the code scanned, however many compiles a scanner is used for.  Bitsets are
+ * never mutated once built: entering a scope with new suppressions allocates a new one, and leaving
+ * the scope reinstates the previous one.
+ *
+ * <p>Only declarations can carry a @SuppressWarnings annotation that affects the code beneath
+ * them, so only class, method, variable and package declarations are inspected.  What each
+ * declared symbol suppresses is computed once and cached.
  *
  * @author alexeagle@google.com (Alex Eagle)
  * @author eaftan@google.com (Eddie Aftandilian)
  */
 public class Scanner extends TreePathScanner<Void, VisitorState> {
 
-  public Set<String> suppressions = new HashSet<String>();
+  private static final long[] NO_SUPPRESSIONS = new long[0];
+
+  /**
+   * The bit assigned to each checker's warning names.  Shared with a profiled copy of this
+   * scanner, so that the suppression masks its checkers were registered with still apply.
+   */
+  private final Map<String, Integer> nameIndices;
+
+  /**
+   * Where to record how long matching and suppression handling take; null unless profiling.
+   */
+  private final CheckerProfile profile;
+
+  /**
+   * Masks for suppressables which were not registered up front with
+   * {@link #suppressionMask(Suppressable)}.
+   */
+  private final Map<Suppressable, long[]> suppressionMasks =
+      new IdentityHashMap<Suppressable, long[]>();
+
+  /**
+   * The warnings suppressed by the annotations on each declared symbol inspected so far.  Weak,
+   * since a scanner may outlive the compilation that created the symbols.
+   */
+  private final Map<Symbol, long[]> declaredSuppressions = new WeakHashMap<Symbol, long[]>();
+
+  /**
+   * The number of warning names interned when {@link #declaredSuppressions} was last valid.
+   * Interning a name can make a cached bitset incomplete, so the cache is cleared when it grows.
+   */
+  private int declaredSuppressionsNameCount = 0;
+
+  /**
+   * The number of times the annotations of a symbol have been read.
+   */
+  private int annotationLookups = 0;
+
+  /**
+   * The warnings suppressed at the current node.
+   */
+  private long[] suppressions = NO_SUPPRESSIONS;
+
+  /**
+   * The path to the current node, which the VisitorState passed to visit methods reads from.
+   */
+  private TreePathCursor cursor = new TreePathCursor();
+
+  public Scanner() {
+    this.nameIndices = new HashMap<String, Integer>();
+    this.profile = null;
+  }
+
+  /**
+   * Creates a copy of the given scanner which records into the given profile.  The copy shares
+   * the warning names interned so far with the original; traversal state is its own.
+   */
+  protected Scanner(Scanner original, CheckerProfile profile) {
+    this.nameIndices = original.nameIndices;
+    this.profile = profile;
+  }
+
+  /**
+   * Returns a copy of this scanner which records how long its matchers take in a new profile,
+   * available from {@link #getProfile()}.  Returns null if this scanner cannot be profiled.
+   */
+  public Scanner profiledCopy() {
+    return null;
+  }
+
+  /**
+   * Returns the profile this scanner records into, or null if it is not profiling.
+   */
+  public final CheckerProfile getProfile() {
+    return profile;
+  }
+
+  /**
+   * Identifies the matchers this scanner runs, and their versions, so that findings from an
+   * earlier compile can be reused if they have not changed.  Returns null if the scanner's
+   * findings should not be cached.
+   */
+  public String getFingerprint() {
+    return null;
+  }
 
   /**
    * Scan a tree from a position identified by a TreePath.
    */
   @Override
   public Void scan(TreePath path, VisitorState state) {
-    /**
-     * We maintain a list of suppressed warnings for the current node. When we
-     * explore a new node, we have to extend the suppression set with any new
-     * suppressed warnings.  We also have to retain the previous suppression set
-     * so that we can reinstate it when we move up the tree.
-     *
-     * We avoid copying the suppression set if the next node to explore does not
-     * have any suppressed warnings.  This is the common case.
-     */
-    Set<String> newSuppressions = null;
-    Set<String> prevSuppressions = suppressions;
-    Symbol sym = ASTHelpers.getSymbol(path.getLeaf());
-    if (sym != null) {
-      newSuppressions = extendSuppressionSet(sym, state.getSymtab().suppressWarningsType,
-          suppressions);
-      if (newSuppressions != null) {
-        suppressions = newSuppressions;
-      }
-    }
-
+    TreePathCursor outerCursor = cursor;
+    cursor = new TreePathCursor(path);
+    long[] prevSuppressions = suppressions;
+    suppressions = extendSuppressions(path.getLeaf(), state, suppressions);
     try {
-      return super.scan(path, state);
+      state = state.withCursor(cursor);
+      visitNode(path.getLeaf(), state);
+      return path.getLeaf().accept(this, state);
     } finally {
       suppressions = prevSuppressions;
+      cursor = outerCursor;
     }
   }
 
@@ -87,49 +173,115 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
       return null;
     }
 
-    /**
-     * We maintain a list of suppressed warnings for the current node. When we
-     * explore a new node, we have to extend the suppression set with any new
-     * suppressed warnings.  We also have to retain the previous suppression set
-     * so that we can reinstate it when we move up the tree.
-     *
-     * We avoid copying the suppression set if the next node to explore does not
-     * have any suppressed warnings.  This is the common case.
-     */
-    Set<String> newSuppressions = null;
-    Set<String> prevSuppressions = suppressions;
-    Symbol sym = ASTHelpers.getSymbol(tree);
-    if (sym != null) {
-      newSuppressions = extendSuppressionSet(sym, state.getSymtab().suppressWarningsType,
-          suppressions);
-      if (newSuppressions != null) {
-        suppressions = newSuppressions;
-      }
+    if (!state.readsPathFrom(cursor)) {
+      // Only happens on entering a tree; the state is then passed down unchanged.
+      state = state.withCursor(cursor);
     }
-
+    cursor.push(tree);
+    long[] prevSuppressions = suppressions;
+    suppressions = extendSuppressions(tree, state, suppressions);
     try {
-      return super.scan(tree, state);
+      visitNode(tree, state);
+      return tree.accept(this, state);
     } finally {
       suppressions = prevSuppressions;
+      cursor.pop();
     }
+  }
 
+  /**
+   * Returns the path to the node being visited.  The path is built on demand from the scanner's
+   * cursor, so prefer not to call this unless it is needed.
+   */
+  @Override
+  public TreePath getCurrentPath() {
+    return cursor.getPath();
   }
 
   /**
-   * Extends a set of suppressed warnings with the contents of any SuppressWarnings annotations
-   * on the given symbol.  Does not mutate the passed-in set of suppressions.  If there were
-   * additional warnings to suppress, it returns a copy of the passed-in set with the new warnings
-   * added.  If there were no additional warnings to suppress, it returns null.
+   * Called once for every node, after the suppressions declared on that node are in effect but
+   * before the node itself is visited.  The default implementation does nothing; subclasses that
+   * dispatch to matchers by node kind can override it instead of the individual visit methods.
+   *
+   * @param tree The node about to be visited
+   * @param state The visitor state, whose path is that of the node for the duration of the call
+   */
+  protected void visitNode(Tree tree, VisitorState state) {
+  }
+
+  /**
+   * Extends a set of suppressed warnings with the warnings suppressed by the given node, if it is
+   * a declaration.  Does not mutate the passed-in bitset.  If there were additional warnings to
+   * suppress, it returns a copy of the passed-in bitset with the new warnings added; otherwise,
+   * the common case, it returns the passed-in bitset itself.
+   *
+   * @param tree The node, which may be an annotated declaration
+   * @param state The VisitorState, used to look up the SuppressWarnings type
+   * @param suppressions The currently-suppressed warnings
+   */
+  private long[] extendSuppressions(Tree tree, VisitorState state, long[] suppressions) {
+    Symbol sym = getDeclaredSymbol(tree);
+    if (sym == null) {
+      return suppressions;
+    }
+    if (profile == null) {
+      return union(suppressions, lookUpSuppressions(sym, state));
+    }
+    long start = System.nanoTime();
+    long[] result = union(suppressions, lookUpSuppressions(sym, state));
+    profile.recordSuppressionHandling(System.nanoTime() - start);
+    return result;
+  }
+
+  /**
+   * Returns the warnings suppressed by the annotations on a declared symbol, reading them if
+   * they have not been read before.
+   */
+  private long[] lookUpSuppressions(Symbol sym, VisitorState state) {
+    int nameCount = getInternedNameCount();
+    if (nameCount != declaredSuppressionsNameCount) {
+      declaredSuppressions.clear();
+      declaredSuppressionsNameCount = nameCount;
+    }
+    long[] declared = declaredSuppressions.get(sym);
+    if (declared == null) {
+      declared = getDeclaredSuppressions(sym, state.getSymtab().suppressWarningsType);
+      declaredSuppressions.put(sym, declared);
+    }
+    return declared;
+  }
+
+  /**
+   * Returns the symbol declared by the given node, or null if the node is not a class, method,
+   * variable or package declaration.  References to a symbol, such as identifiers and field
+   * accesses, deliberately return null: the annotations of the referenced declaration do not
+   * apply at the point of use.
+   */
+  private static Symbol getDeclaredSymbol(Tree tree) {
+    if (tree instanceof JCClassDecl) {
+      return ((JCClassDecl) tree).sym;
+    }
+    if (tree instanceof JCMethodDecl) {
+      return ((JCMethodDecl) tree).sym;
+    }
+    if (tree instanceof JCVariableDecl) {
+      return ((JCVariableDecl) tree).sym;
+    }
+    if (tree instanceof JCCompilationUnit) {
+      return ((JCCompilationUnit) tree).packge;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the warnings suppressed by any SuppressWarnings annotations on the given symbol.
    *
    * @param sym The possibly-annotated symbol
    * @param suppressWarningsType The type of the SuppressWarnings annotation
-   * @param suppressions The set of currently-suppressed warnings
-   * @return A new set with additional warnings added, if there were any new ones. Null otherwise.
    */
-  private Set<String> extendSuppressionSet(Symbol sym, Type suppressWarningsType,
-      Set<String> suppressions) {
-    boolean copied = false;
-    Set<String> newSuppressions = null;
+  private long[] getDeclaredSuppressions(Symbol sym, Type suppressWarningsType) {
+    annotationLookups++;
+    long[] declared = NO_SUPPRESSIONS;
 
     // Iterate over annotations on this symbol, looking for SuppressWarnings
     for (Attribute.Compound attr : sym.getAnnotationMirrors()) {
@@ -140,12 +292,10 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
           if (value.fst.name.toString().equals("value"))
             if (value.snd instanceof Attribute.Array) {  // SuppressWarnings takes an array
               for (Attribute suppress : ((Attribute.Array) value.snd).values) {
-                if (!copied) {
-                  newSuppressions = new HashSet<String>(suppressions);
-                  copied = true;
+                Integer index = nameIndex((String) suppress.getValue());
+                if (index != null) {
+                  declared = withBit(declared, index);
                 }
-                // TODO(eaftan): check return value to see if this was a new warning?
-                newSuppressions.add((String) suppress.getValue());
               }
             } else {
               throw new RuntimeException("Expected SuppressWarnings annotation to take array type");
@@ -154,7 +304,106 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
       }
     }
 
-    return newSuppressions;
+    return declared;
+  }
+
+  /**
+   * Returns the number of symbols whose annotations this scanner has read while looking for
+   * SuppressWarnings.
+   */
+  int getAnnotationLookups() {
+    return annotationLookups;
+  }
+
+  /**
+   * Returns the number of warning names interned so far.
+   */
+  int getInternedNameCount() {
+    return nameIndices.size();
+  }
+
+  /**
+   * Returns the bit assigned to the given warning name, or null if no checker answers to it.
+   */
+  private Integer nameIndex(String name) {
+    return nameIndices.get(name);
+  }
+
+  /**
+   * Returns the bit assigned to the given warning name, assigning the next free one if the name
+   * has not been seen before.
+   */
+  private int internName(String name) {
+    Integer index = nameIndices.get(name);
+    if (index == null) {
+      index = nameIndices.size();
+      nameIndices.put(name, index);
+    }
+    return index;
+  }
+
+  /**
+   * Returns a bitset with the given bit set, copying the passed-in bitset only if the bit was not
+   * already set.
+   */
+  private static long[] withBit(long[] bits, int index) {
+    int word = index >>> 6;
+    long bit = 1L << index;
+    if (word < bits.length && (bits[word] & bit) != 0) {
+      return bits;
+    }
+    long[] result = new long[Math.max(bits.length, word + 1)];
+    System.arraycopy(bits, 0, result, 0, bits.length);
+    result[word] |= bit;
+    return result;
+  }
+
+  /**
+   * Returns the union of two bitsets.  Returns the first bitset itself if it already contains
+   * every bit of the second.
+   */
+  private static long[] union(long[] bits, long[] moreBits) {
+    long[] result = bits;
+    for (int word = 0; word < moreBits.length; word++) {
+      long existing = word < bits.length ? bits[word] : 0;
+      if ((moreBits[word] & ~existing) != 0) {
+        if (result == bits) {
+          result = new long[Math.max(bits.length, moreBits.length)];
+          System.arraycopy(bits, 0, result, 0, bits.length);
+        }
+        result[word] |= moreBits[word];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Interns all the warning IDs of a suppressable and returns the mask to pass to
+   * {@link #isSuppressed(long[])}.  Scanners which run a fixed set of matchers should compute
+   * the masks once, up front.
+   */
+  protected long[] suppressionMask(Suppressable suppressable) {
+    long[] mask = NO_SUPPRESSIONS;
+    for (String name : suppressable.getAllNames()) {
+      mask = withBit(mask, internName(name));
+    }
+    return mask;
+  }
+
+  /**
+   * Returns true if any of the warning IDs in the mask are in the set of current suppressions
+   * from scanning down the AST.
+   *
+   * @param mask a mask computed by {@link #suppressionMask(Suppressable)}
+   */
+  protected boolean isSuppressed(long[] mask) {
+    int words = Math.min(mask.length, suppressions.length);
+    for (int i = 0; i < words; i++) {
+      if ((mask[i] & suppressions[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
@@ -164,7 +413,12 @@ public class Scanner extends TreePathScanner<Void, VisitorState> {
    * @param suppressable holds a collection of warning IDs
    */
   protected boolean isSuppressed(Suppressable suppressable) {
-    return !Collections.disjoint(suppressable.getAllNames(), suppressions);
+    long[] mask = suppressionMasks.get(suppressable);
+    if (mask == null) {
+      mask = suppressionMask(suppressable);
+      suppressionMasks.put(suppressable, mask);
+    }
+    return isSuppressed(mask);
   }
 
   protected <T extends Tree> void reportMatch(Description description, T match, VisitorState state)
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.google.errorprone.fixes.ImportReplacements;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.SuggestedFix;
+import com.google.errorprone.matchers.Description;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.util.JCDiagnostic.DiagnosticPosition;
+import com.sun.tools.javac.util.Position.LineMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.JavaFileObject;
+
+/**
+ * Passes the findings in a compilation unit on to a {@link FindingsWriter} as they are reported,
+ * with their positions and suggested fixes worked out from the unit's end positions and line
+ * map.  The imports a fix adds or removes are written as replacements too, as they would appear
+ * in a patch.  If the unit was parsed without end positions, findings are written with no fix,
+ * and ending where they start.
+ */
+public class StructuredDescriptionListener implements DescriptionListener {
+
+  private static final Comparator<Replacement> BY_START = new Comparator<Replacement>() {
+    @Override
+    public int compare(Replacement a, Replacement b) {
+      if (a.startPosition != b.startPosition) {
+        return a.startPosition < b.startPosition ? -1 : 1;
+      }
+      return a.endPosition < b.endPosition ? -1 : (a.endPosition == b.endPosition ? 0 : 1);
+    }
+  };
+
+  private final FindingsWriter writer;
+  private final JCCompilationUnit compilationUnit;
+  private final JavaFileObject sourceFile;
+  private final Map<JCTree, Integer> endPositions;
+  private final LineMap lineMap;
+
+  public StructuredDescriptionListener(FindingsWriter writer, JCCompilationUnit compilationUnit,
+      JavaFileObject sourceFile) {
+    this.writer = writer;
+    this.compilationUnit = compilationUnit;
+    this.sourceFile = sourceFile;
+    this.endPositions = compilationUnit.endPositions;
+    this.lineMap = compilationUnit.lineMap;
+  }
+
+  @Override
+  public void onDescribed(Description description) {
+    DiagnosticPosition position = (DiagnosticPosition) description.node;
+    int start = position.getStartPosition();
+    int end = endPositions == null
+        ? start : Math.max(start, position.getEndPosition(endPositions));
+    int line = lineMap.getLineNumber(start);
+    int column = start - lineMap.getStartPosition(line) + 1;
+    try {
+      List<Replacement> replacements = new ArrayList<Replacement>();
+      SuggestedFix fix = description.suggestedFix;
+      if (fix != null && endPositions != null) {
+        replacements.addAll(fix.getReplacements(endPositions));
+        if (!fix.getImportsToAdd().isEmpty() || !fix.getImportsToRemove().isEmpty()) {
+          replacements.addAll(ImportReplacements.of(compilationUnit, endPositions,
+              sourceFile.getCharContent(true), fix.getImportsToAdd(),
+              fix.getImportsToRemove()));
+        }
+        Collections.sort(replacements, BY_START);
+      }
+      writer.write(new FindingsWriter.Finding(description.checkerName, description.severity,
+          sourceFile.getName(), sourceFile.toUri().toString(), start, end, line, column,
+          description.message, replacements));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The path from the compilation unit to the node a {@link Scanner} is visiting, kept as a stack
+ * of trees which the scanner pushes and pops as it goes.  A TreePath for the current node is
+ * only built when someone asks for it, and the TreePaths built for its ancestors are reused
+ * until the scanner leaves them, so walking a tree allocates nothing unless a matcher looks at
+ * the path.
+ *
+ * <p>The cursor also keeps track of the innermost class, method and block enclosing each tree,
+ * and of each tree's position among its parent's children, so finding the enclosing class or the
+ * next statement in a block takes constant time rather than a walk up the path.
+ */
+class TreePathCursor {
+
+  private Tree[] trees = new Tree[32];
+
+  /**
+   * The TreePath of {@code trees[i]}, for each i less than {@link #built}.
+   */
+  private TreePath[] paths = new TreePath[32];
+
+  /**
+   * For each tree on the stack, the index of the innermost class, method and block at or above it,
+   * or -1 if there is none.
+   */
+  private int[] classes = new int[32];
+  private int[] methods = new int[32];
+  private int[] blocks = new int[32];
+
+  /**
+   * For each tree on the stack, the number of its children pushed so far, and its own position
+   * among its parent's children.  Only the scanner pushes trees, and it visits the statements of a
+   * block in order, so the position of a child of a block is that of the statement it is.
+   */
+  private int[] childCounts = new int[32];
+  private int[] childIndices = new int[32];
+
+  private int depth = 0;
+  private int built = 0;
+
+  TreePathCursor() {}
+
+  /**
+   * Creates a cursor positioned at the leaf of the given path.
+   */
+  TreePathCursor(TreePath path) {
+    for (TreePath p = path; p != null; p = p.getParentPath()) {
+      depth++;
+    }
+    ensureCapacity(depth);
+    int i = depth;
+    for (TreePath p = path; p != null; p = p.getParentPath()) {
+      i--;
+      trees[i] = p.getLeaf();
+      paths[i] = p;
+    }
+    built = depth;
+    for (i = 0; i < depth; i++) {
+      enter(i);
+      if (i > 0 && trees[i - 1] instanceof BlockTree) {
+        childIndices[i] = ((BlockTree) trees[i - 1]).getStatements().indexOf(trees[i]);
+        childCounts[i - 1] = childIndices[i] + 1;
+      }
+    }
+  }
+
+  void push(Tree tree) {
+    ensureCapacity(depth + 1);
+    trees[depth] = tree;
+    enter(depth);
+    depth++;
+    if (built >= depth) {
+      built = depth - 1;
+    }
+  }
+
+  /**
+   * Records the enclosing trees of the tree at index i, and its position among its parent's
+   * children, given those of its ancestors.
+   */
+  private void enter(int i) {
+    Tree tree = trees[i];
+    classes[i] = tree instanceof ClassTree ? i : (i > 0 ? classes[i - 1] : -1);
+    methods[i] = tree instanceof MethodTree ? i : (i > 0 ? methods[i - 1] : -1);
+    blocks[i] = tree instanceof BlockTree ? i : (i > 0 ? blocks[i - 1] : -1);
+    childIndices[i] = i > 0 ? childCounts[i - 1]++ : 0;
+    childCounts[i] = 0;
+  }
+
+  void pop() {
+    depth--;
+    trees[depth] = null;
+    paths[depth] = null;
+    if (built > depth) {
+      built = depth;
+    }
+  }
+
+  /**
+   * Returns the path to the current node, or null if the cursor is not in a tree.
+   */
+  TreePath getPath() {
+    if (depth == 0) {
+      return null;
+    }
+    for (; built < depth; built++) {
+      paths[built] = new TreePath(built == 0 ? null : paths[built - 1], trees[built]);
+    }
+    return paths[depth - 1];
+  }
+
+  /**
+   * Returns the innermost class enclosing the current node, which may be the node itself, or null
+   * if there is none.
+   */
+  ClassTree getEnclosingClass() {
+    return (ClassTree) innermost(classes);
+  }
+
+  /**
+   * Returns the innermost method enclosing the current node, which may be the node itself, or
+   * null if there is none.
+   */
+  MethodTree getEnclosingMethod() {
+    return (MethodTree) innermost(methods);
+  }
+
+  /**
+   * Returns the innermost block enclosing the current node, which may be the node itself, or null
+   * if there is none.
+   */
+  BlockTree getEnclosingBlock() {
+    return (BlockTree) innermost(blocks);
+  }
+
+  /**
+   * Returns the statement after the one containing the current node, in the innermost block
+   * enclosing the current node's parent; null if that is the last statement, or there is no
+   * such block.
+   */
+  StatementTree getNextStatement() {
+    if (depth < 2) {
+      return null;
+    }
+    int block = blocks[depth - 2];
+    if (block < 0) {
+      return null;
+    }
+    List<? extends StatementTree> statements = ((BlockTree) trees[block]).getStatements();
+    int index = childIndices[block + 1];
+    if (index >= statements.size() || statements.get(index) != trees[block + 1]) {
+      // A scanner skipped some of the block's statements.
+      index = statements.indexOf(trees[block + 1]);
+    }
+    int next = index + 1;
+    return next < statements.size() ? statements.get(next) : null;
+  }
+
+  private Tree innermost(int[] enclosing) {
+    if (depth == 0) {
+      return null;
+    }
+    int i = enclosing[depth - 1];
+    return i < 0 ? null : trees[i];
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > trees.length) {
+      int newLength = Math.max(capacity, trees.length * 2);
+      trees = Arrays.copyOf(trees, newLength);
+      paths = Arrays.copyOf(paths, newLength);
+      classes = Arrays.copyOf(classes, newLength);
+      methods = Arrays.copyOf(methods, newLength);
+      blocks = Arrays.copyOf(blocks, newLength);
+      childCounts = Arrays.copyOf(childCounts, newLength);
+      childIndices = Arrays.copyOf(childIndices, newLength);
+    }
+  }
+}
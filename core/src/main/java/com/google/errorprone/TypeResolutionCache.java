@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.util.Context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The types which {@link VisitorState#getTypeFromString} has resolved in one compilation, shared
+ * by all the matchers which run in it.  Types which could not be found are cached too, as null,
+ * since the classpath doesn't change during a compilation.
+ */
+public class TypeResolutionCache {
+
+  private final Map<String, Type> types = new HashMap<String, Type>();
+  private int hits = 0;
+  private int misses = 0;
+
+  /**
+   * Returns the cache for the given context, creating it if needed.
+   */
+  public static TypeResolutionCache instance(Context context) {
+    TypeResolutionCache instance = context.get(TypeResolutionCache.class);
+    if (instance == null) {
+      instance = new TypeResolutionCache();
+      context.put(TypeResolutionCache.class, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns whether the given type string has been resolved, counting a hit if it has and a miss
+   * if not.
+   */
+  public boolean contains(String typeStr) {
+    if (types.containsKey(typeStr)) {
+      hits++;
+      return true;
+    }
+    misses++;
+    return false;
+  }
+
+  /**
+   * Returns the type the given type string resolved to, or null if it could not be found or has
+   * not been resolved.
+   */
+  public Type get(String typeStr) {
+    return types.get(typeStr);
+  }
+
+  /**
+   * Records the type the given type string resolved to; null if it could not be found.
+   */
+  public void put(String typeStr, Type type) {
+    types.put(typeStr, type);
+  }
+
+  /**
+   * How many lookups were answered from the cache.
+   */
+  public int getHits() {
+    return hits;
+  }
+
+  /**
+   * How many lookups had to resolve the type.
+   */
+  public int getMisses() {
+    return misses;
+  }
+}
@@ -17,7 +17,12 @@
 package com.google.errorprone;
 
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.util.ASTHelpers;
 
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.StatementTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Symbol;
@@ -37,7 +42,6 @@ import com.sun.tools.javac.util.List;
 import com.sun.tools.javac.util.Name;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
 
 /**
  * @author alexeagle@google.com (Alex Eagle)
@@ -49,35 +53,131 @@ public class VisitorState {
   public final Context context;
   private final TreePath path;
 
-  private VisitorState(Context context, TreePath path,
-      DescriptionListener descriptionListener, MatchListener matchListener) {
+  /**
+   * The scanner's cursor, from which the path is read if it is not fixed; null if it is fixed.
+   */
+  private final TreePathCursor cursor;
+  private final TypeResolutionCache typeCache;
+  private final NameTable nameTable;
+
+  private VisitorState(Context context, TreePath path, TreePathCursor cursor,
+      DescriptionListener descriptionListener, MatchListener matchListener,
+      TypeResolutionCache typeCache, NameTable nameTable) {
     this.context = context;
     this.path = path;
+    this.cursor = cursor;
     this.descriptionListener = descriptionListener;
     this.matchListener = matchListener;
+    this.typeCache = typeCache;
+    this.nameTable = nameTable;
   }
 
   public VisitorState(Context context, DescriptionListener listener) {
-    this(context, null, listener, new MatchListener() {
+    this(context, null, null, listener, new MatchListener() {
       @Override
       public void onMatch(Tree tree) {
       }
-    });
+    }, TypeResolutionCache.instance(context), NameTable.instance(context));
   }
 
   public VisitorState(Context context, MatchListener listener) {
-    this(context, null, new DescriptionListener() {
+    this(context, null, null, new DescriptionListener() {
       @Override
       public void onDescribed(Description description) {}
-    }, listener);
+    }, listener, TypeResolutionCache.instance(context), NameTable.instance(context));
   }
 
   public VisitorState withPath(TreePath path) {
-    return new VisitorState(context, path, descriptionListener, matchListener);
+    return new VisitorState(context, path, null, descriptionListener, matchListener, typeCache,
+        nameTable);
+  }
+
+  /**
+   * Returns a state whose path follows the scanner's cursor, so that the same state can be
+   * passed to every node the scanner visits.
+   */
+  VisitorState withCursor(TreePathCursor cursor) {
+    return new VisitorState(context, null, cursor, descriptionListener, matchListener,
+        typeCache, nameTable);
+  }
+
+  boolean readsPathFrom(TreePathCursor cursor) {
+    return this.cursor == cursor;
+  }
+
+  /**
+   * Returns a state which keeps the current path after the scanner has moved on.  The state
+   * passed to a matcher reads its path from the scanner as it walks the tree, so a checker which
+   * holds on to the state beyond the call (to report on a node later, say) must hold on to a
+   * snapshot instead.
+   */
+  public VisitorState snapshot() {
+    return cursor == null ? this : withPath(cursor.getPath());
   }
 
+  /**
+   * Returns the path to the node being matched.  Building it may allocate, so matchers which
+   * don't need the path should not ask for it.
+   */
   public TreePath getPath() {
-    return path;
+    return cursor != null ? cursor.getPath() : path;
+  }
+
+  /**
+   * Returns the innermost class enclosing the node being matched, which may be the node itself,
+   * or null if there is none.  While a scanner is visiting the node this takes constant time.
+   */
+  public ClassTree getEnclosingClass() {
+    return cursor != null
+        ? cursor.getEnclosingClass()
+        : ASTHelpers.findEnclosingNode(path, ClassTree.class);
+  }
+
+  /**
+   * Returns the innermost method enclosing the node being matched, which may be the node itself,
+   * or null if there is none.  While a scanner is visiting the node this takes constant time.
+   */
+  public MethodTree getEnclosingMethod() {
+    return cursor != null
+        ? cursor.getEnclosingMethod()
+        : ASTHelpers.findEnclosingNode(path, MethodTree.class);
+  }
+
+  /**
+   * Returns the innermost block enclosing the node being matched, which may be the node itself,
+   * or null if there is none.  While a scanner is visiting the node this takes constant time.
+   */
+  public BlockTree getEnclosingBlock() {
+    return cursor != null
+        ? cursor.getEnclosingBlock()
+        : ASTHelpers.findEnclosingNode(path, BlockTree.class);
+  }
+
+  /**
+   * Returns the statement following the one that contains the node being matched, in the
+   * innermost block enclosing the node's parent.  Returns null if that statement is the last in
+   * its block, or if there is no such block.
+   */
+  public StatementTree getNextStatement() {
+    if (cursor != null) {
+      return cursor.getNextStatement();
+    }
+    if (path == null || path.getParentPath() == null) {
+      return null;
+    }
+    Tree statement = path.getLeaf();
+    TreePath blockPath = path.getParentPath();
+    while (blockPath != null && !(blockPath.getLeaf() instanceof BlockTree)) {
+      statement = blockPath.getLeaf();
+      blockPath = blockPath.getParentPath();
+    }
+    if (blockPath == null) {
+      return null;
+    }
+    java.util.List<? extends StatementTree> statements =
+        ((BlockTree) blockPath.getLeaf()).getStatements();
+    int next = statements.indexOf(statement) + 1;
+    return next < statements.size() ? statements.get(next) : null;
   }
 
   public TreeMaker getTreeMaker() {
@@ -100,51 +200,8 @@ public class VisitorState {
     return matchListener;
   }
 
-  // Cache the name lookup strategy since it requires expensive reflection, and is used a lot
-  private static final NameLookupStrategy NAME_LOOKUP_STRATEGY = createNameLookup();
-  private static NameLookupStrategy createNameLookup() {
-    ClassLoader classLoader = VisitorState.class.getClassLoader();
-    // OpenJDK 7
-    try {
-      Class<?> namesClass = classLoader.loadClass("com.sun.tools.javac.util.Names");
-      final Method instanceMethod = namesClass.getDeclaredMethod("instance", Context.class);
-      final Method fromStringMethod = namesClass.getDeclaredMethod("fromString", String.class);
-      return new NameLookupStrategy() {
-        @Override public Name fromString(Context context, String nameStr) {
-          try {
-            Object names = instanceMethod.invoke(null, context);
-            return (Name) fromStringMethod.invoke(names, nameStr);
-          } catch (Exception e) {
-            throw new RuntimeException(e);
-          }
-        }
-      };
-    } catch (ClassNotFoundException e) {
-      // OpenJDK 6
-      try {
-        Class<?> nameTableClass = classLoader.loadClass("com.sun.tools.javac.util.Name$Table");
-        final Method instanceMethod = nameTableClass.getMethod("instance", Context.class);
-        final Method fromStringMethod = Name.class.getMethod("fromString", nameTableClass, String.class);
-        return new NameLookupStrategy() {
-          @Override public Name fromString(Context context, String nameStr) {
-            try {
-              Object nameTable = instanceMethod.invoke(null, context);
-              return (Name) fromStringMethod.invoke(null, nameTable, nameStr);
-            } catch (Exception e1) {
-              throw new RuntimeException(e1);
-            }
-          }
-        };
-      } catch (Exception e1) {
-        throw new RuntimeException("Unexpected error loading com.sun.tools.javac.util.Names", e1);
-      }
-    } catch (Exception e) {
-      throw new RuntimeException("Unexpected error loading com.sun.tools.javac.util.Names", e);
-    }
-  }
-
   public Name getName(String nameStr) {
-    return NAME_LOOKUP_STRATEGY.fromString(context, nameStr);
+    return nameTable.fromString(nameStr);
   }
 
   /**
@@ -156,10 +213,22 @@ public class VisitorState {
    * result would always be false even if it could create the type.  Thus it might be best to bail
    * out early in your matcher if this method returns null on your type of interest.
    *
+   * <p>Results, including types which cannot be found, are cached for the rest of the compilation
+   * in its {@link TypeResolutionCache}.
+   *
    * @param typeStr The canonical string representation of a simple type (e.g., "java.lang.Object")
    * @return The Type that corresponds to the string, or null if it cannot be found
    */
   public Type getTypeFromString(String typeStr) {
+    if (typeCache.contains(typeStr)) {
+      return typeCache.get(typeStr);
+    }
+    Type type = resolveTypeFromString(typeStr);
+    typeCache.put(typeStr, type);
+    return type;
+  }
+
+  private Type resolveTypeFromString(String typeStr) {
     validateTypeStr(typeStr);
     if (isPrimitiveType(typeStr)) {
       return getPrimitiveType(typeStr);
@@ -250,7 +319,8 @@ public class VisitorState {
 
   /**
    * Gets the original source code that represents the given node.  The source is only available
-   * if the compiler was invoked with the -Xjcov option.
+   * if end positions were recorded when the file was parsed, as they are by
+   * {@link ErrorReportingJavaCompiler} or when the compiler is invoked with the -Xjcov option.
    *
    * <p>Note that this may be different from what is returned by calling .toString() on the node.
    * This returns exactly what is in the source code, whereas .toString() pretty-prints the node
@@ -312,8 +382,4 @@ public class VisitorState {
         typeStr.equals("long") || typeStr.equals("float") || typeStr.equals("double") ||
         typeStr.equals("boolean") || typeStr.equals("char");
   }
-
-  private interface NameLookupStrategy {
-    Name fromString(Context context, String nameStr);
-  }
 }
@@ -25,6 +25,7 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
@@ -35,13 +36,15 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 import com.sun.tools.javac.tree.JCTree.JCIdent;
 import com.sun.tools.javac.tree.JCTree.JCMethodInvocation;
 
+import java.util.Set;
+
 /**
  * An abstract base class to match method invocations in which the return value is not used.
  *
  * @author eaftan@google.com (Eddie Aftandilian)
  */
 abstract class AbstractReturnValueIgnored extends BugChecker
-    implements MethodInvocationTreeMatcher {
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings("unchecked")
   public Description matchMethodInvocation(
@@ -61,6 +64,14 @@ abstract class AbstractReturnValueIgnored extends BugChecker
    */
   public abstract Matcher<MethodInvocationTree> specializedMatcher();
 
+  /**
+   * The names of the methods the specialized matcher can match, if it knows them.
+   */
+  @Override
+  public Set<String> getMethodNames() {
+    return Matchers.methodNames(specializedMatcher());
+  }
+
   /**
    * Fixes the error by assigning the result of the call to the receiver reference, or deleting
    * the method call.
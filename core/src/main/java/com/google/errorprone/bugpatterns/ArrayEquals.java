@@ -29,10 +29,13 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 
+import java.util.Set;
+
 /**
  * @author eaftan@google.com (Eddie Aftandilian)
  */
@@ -43,7 +46,8 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
         "is needed, == should be used instead for clarity. Otherwise, use Arrays.equals to " +
         "compare the contents of the arrays.",
     category = JDK, severity = ERROR, maturity = MATURE)
-public class ArrayEquals extends BugChecker implements MethodInvocationTreeMatcher {
+public class ArrayEquals extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings("unchecked")
   private static final Matcher<MethodInvocationTree> arrayEqualsMatcher = Matchers.allOf(
@@ -68,4 +72,9 @@ public class ArrayEquals extends BugChecker implements MethodInvocationTreeMatch
         .addImport("java.util.Arrays");
     return describeMatch(t, fix);
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(arrayEqualsMatcher);
+  }
 }
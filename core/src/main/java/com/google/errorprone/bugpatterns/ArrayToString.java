@@ -29,10 +29,13 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 
+import java.util.Set;
+
 /**
  * @author adgar@google.com (Mike Edgar)
  */
@@ -42,7 +45,14 @@ import com.sun.source.tree.MethodInvocationTree;
         "The toString method on an array will print its identity, such as [I@4488aabb. This " +
         "is almost never needed. Use Arrays.toString to print a human-readable array summary.",
     category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
-public class ArrayToString extends BugChecker implements MethodInvocationTreeMatcher {
+public class ArrayToString extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
+
+  /**
+   * Matches calls to a toString instance method in which the receiver is an array type.
+   */
+  private static final Matcher<MethodInvocationTree> arrayToStringMatcher =
+      methodSelect(instanceMethod(Matchers.<ExpressionTree>isArrayType(), "toString"));
 
   /**
    * Matches calls to Throwable.getStackTrace().
@@ -50,13 +60,9 @@ public class ArrayToString extends BugChecker implements MethodInvocationTreeMat
   private static final Matcher<MethodInvocationTree> getStackTraceMatcher = methodSelect(
       instanceMethod(Matchers.<ExpressionTree>isSubtypeOf("java.lang.Throwable"), "getStackTrace"));
 
-  /**
-   * Matches calls to a toString instance method in which the receiver is an array type.
-   */
   @Override
   public Description matchMethodInvocation(MethodInvocationTree methodTree, VisitorState state) {
-    if (!methodSelect(instanceMethod(Matchers.<ExpressionTree>isArrayType(), "toString"))
-        .matches(methodTree, state)) {
+    if (!arrayToStringMatcher.matches(methodTree, state)) {
       return Description.NO_MATCH;
     }
 
@@ -80,4 +86,9 @@ public class ArrayToString extends BugChecker implements MethodInvocationTreeMat
     }
     return describeMatch(methodTree, fix);
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return Matchers.methodNames(arrayToStringMatcher);
+  }
 }
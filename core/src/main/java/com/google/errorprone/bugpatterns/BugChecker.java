@@ -19,6 +19,12 @@ import java.util.Set;
  * Subclasses should also implement one or more of the {@code *Checker} interfaces in this class
  * to declare which tree node types to match against.
  *
+ * <p>The {@link VisitorState} passed to the {@code match*} methods of those interfaces is only
+ * valid for the duration of the call: its path follows the scanner as it walks on, so
+ * {@code state.getPath()} answers for whichever node is being visited at the time it is called.
+ * A checker which keeps the state beyond the call, to report on a node later for instance, must
+ * keep {@link VisitorState#snapshot()} instead.
+ *
  * @author Colin Decker
  * @author Eddie Aftandilian (eaftan@google.com)
  */
@@ -48,7 +54,7 @@ public abstract class BugChecker implements Suppressable {
    * parameterized.
    */
   protected Description describeMatch(Tree node, SuggestedFix fix) {
-    return new Description(node, getDiagnosticMessage(), fix, pattern.severity());
+    return new Description(node, canonicalName, getDiagnosticMessage(), fix, pattern.severity());
   }
 
   /**
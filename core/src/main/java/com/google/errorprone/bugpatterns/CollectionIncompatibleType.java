@@ -30,9 +30,12 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 
+import java.util.Set;
+
 /**
  * @author alexeagle@google.com (Alex Eagle)
  */
@@ -44,7 +47,8 @@ import com.sun.source.tree.MethodInvocationTree;
         "and the developer relies on the Java compiler to detect callsites where the collection access " +
         "needs to be updated.",
     category = JDK, maturity = EXPERIMENTAL, severity = ERROR)
-public class CollectionIncompatibleType extends BugChecker implements MethodInvocationTreeMatcher {
+public class CollectionIncompatibleType extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings("unchecked")
   private static final Matcher<MethodInvocationTree> isGenericCollectionsMethod =
@@ -69,4 +73,9 @@ public class CollectionIncompatibleType extends BugChecker implements MethodInvo
     }
     return describeMatch(tree, new SuggestedFix().replace(tree, "false"));
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(matcher);
+  }
 }
@@ -27,10 +27,8 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.AnnotationType;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
-import com.google.errorprone.util.ASTHelpers;
 
 import com.sun.source.tree.AnnotationTree;
-import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 
@@ -72,7 +70,6 @@ public class GuiceInjectOnFinalField extends BugChecker implements AnnotationTre
 
   private static boolean isField(Tree tree, VisitorState state) {
     return tree.getKind().equals(VARIABLE)
-        && ASTHelpers.findEnclosingNode(state.getPath(), ClassTree.class)
-            .getMembers().contains(tree);
+        && state.getEnclosingClass().getMembers().contains(tree);
   }
 }
@@ -29,10 +29,8 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.AnnotationType;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
-import com.google.errorprone.util.ASTHelpers;
 
 import com.sun.source.tree.AnnotationTree;
-import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 
@@ -75,7 +73,6 @@ public class InjectJavaxInjectOnFinalField extends BugChecker implements Annotat
 
   private static boolean isField(Tree tree, VisitorState state) {
     return tree.getKind().equals(VARIABLE)
-        && ASTHelpers.findEnclosingNode(state.getPath(), ClassTree.class)
-            .getMembers().contains(tree);
+        && state.getEnclosingClass().getMembers().contains(tree);
   }
 }
@@ -27,11 +27,13 @@ import com.google.errorprone.VisitorState;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
 
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -43,7 +45,8 @@ import java.util.regex.PatternSyntaxException;
     explanation = "This error is triggered by calls to Pattern.compile() and String.split() "
         + "that are called with invalid syntax.",
     category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
-public class InvalidPatternSyntax extends BugChecker implements MethodInvocationTreeMatcher {
+public class InvalidPatternSyntax extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   /* Match string literals that are not valid syntax for regular expressions. */
   private static final Matcher<ExpressionTree> BAD_REGEX_LITERAL = new Matcher<ExpressionTree>() {
@@ -96,4 +99,9 @@ public class InvalidPatternSyntax extends BugChecker implements MethodInvocation
     }
     return describeMatch(methodInvocationTree, fix);
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(BAD_REGEX_USAGE);
+  }
 }
@@ -27,17 +27,22 @@ import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.google.errorprone.util.ASTHelpers;
 import com.google.errorprone.util.EditDistance;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
 import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Flags;
 import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.*;
 
+import java.util.Set;
+
 /**
  * @author scottjohnson@google.com (Scott Johnson)
  */
@@ -48,24 +53,32 @@ import com.sun.tools.javac.tree.JCTree.*;
         "and collection.removeAll(collection) is equivalent to collection.clear().",
     category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
 public class ModifyingCollectionWithItself extends BugChecker
-    implements MethodInvocationTreeMatcher {
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   /**
    * Matches calls to addAll, containsAll, removeAll, and retainAll on itself
    */
   @SuppressWarnings("unchecked")
+  private static final Matcher<MethodInvocationTree> matcher = allOf(anyOf(
+      methodSelect(instanceMethod(
+          Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "addAll")),
+      methodSelect(instanceMethod(
+          Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "removeAll")),
+      methodSelect(instanceMethod(
+          Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "containsAll")),
+      methodSelect(instanceMethod(
+          Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "retainAll"))),
+      receiverSameAsArgument(0));
+
+  private static final Matcher<MethodInvocationTree> REMOVE_ALL =
+      methodSelect(instanceMethod(Matchers.<ExpressionTree>anything(), "removeAll"));
+
+  private static final Matcher<VariableTree> COLLECTION_VARIABLE =
+      variableType(Matchers.<Tree>isSubtypeOf("java.util.Collection"));
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree t, VisitorState state) {
-    if(allOf(anyOf(
-        methodSelect(instanceMethod(
-            Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "addAll")),
-        methodSelect(instanceMethod(
-            Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "removeAll")),
-        methodSelect(instanceMethod(
-            Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "containsAll")),
-        methodSelect(instanceMethod(
-            Matchers.<ExpressionTree>isSubtypeOf("java.util.Collection"), "retainAll"))),
-        receiverSameAsArgument(0)).matches(t, state)) {
+    if (matcher.matches(t, state)) {
       return describe(t, state);
     }
     return Description.NO_MATCH;
@@ -97,8 +110,7 @@ public class ModifyingCollectionWithItself extends BugChecker
     
     // default fix for methods
     SuggestedFix fix = new SuggestedFix().delete(parent);
-    if (methodSelect(instanceMethod(Matchers.<ExpressionTree>anything(), "removeAll"))
-        .matches(methodInvocationTree, state)) {
+    if (REMOVE_ALL.matches(methodInvocationTree, state)) {
       fix = new SuggestedFix().replace(methodInvocationTree, lhs.toString() + ".clear()");
     }
 
@@ -126,7 +138,7 @@ public class ModifyingCollectionWithItself extends BugChecker
       int minEditDistance = Integer.MAX_VALUE;
       String replacement = null;
       for (JCVariableDecl var : method.params) {
-        if (variableType(isSubtypeOf("java.util.Collection")).matches(var, state)) {
+        if (COLLECTION_VARIABLE.matches(var, state)) {
           int editDistance = EditDistance.getEditDistance(rhsName, var.name.toString());
           if (editDistance < minEditDistance) {
             // pick one with minimum edit distance
@@ -160,7 +172,7 @@ public class ModifyingCollectionWithItself extends BugChecker
         if (member.getKind() == VARIABLE) {
           JCVariableDecl var = (JCVariableDecl) member;
           if (!Flags.isStatic(var.sym)
-              && variableType(isSubtypeOf("java.util.Collection")).matches(var, state)) {
+              && COLLECTION_VARIABLE.matches(var, state)) {
             int editDistance = EditDistance.getEditDistance(lhsName, var.name.toString());
             if (editDistance < minEditDistance) {
               // pick one with minimum edit distance
@@ -178,4 +190,9 @@ public class ModifyingCollectionWithItself extends BugChecker
 
     return describeMatch(methodInvocationTree, fix);
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(matcher);
+  }
 }
@@ -28,7 +28,9 @@ import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MemberSelectTree;
@@ -36,6 +38,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.code.Symbol.TypeSymbol;
 
 import java.lang.annotation.Retention;
+import java.util.Set;
 
 /**
  * @author scottjohnson@google.com (Scott Johnson)
@@ -45,14 +48,16 @@ import java.lang.annotation.Retention;
     explanation = "Calling getAnnotation on an annotation that does not have its Retention set to "
         + "RetentionPolicy.RUNTIME will always return null.", 
     category = JDK, severity = ERROR, maturity = EXPERIMENTAL)
-public class NonRuntimeAnnotation extends BugChecker implements MethodInvocationTreeMatcher {
+public class NonRuntimeAnnotation extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
+
+  private static final Matcher<MethodInvocationTree> getAnnotationMatcher = methodSelect(
+      instanceMethod(Matchers.<ExpressionTree>isSubtypeOf("java.lang.Class"), "getAnnotation"));
 
   @SuppressWarnings("deprecation")
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!methodSelect(
-        instanceMethod(Matchers.<ExpressionTree>isSubtypeOf("java.lang.Class"), "getAnnotation"))
-        .matches(tree, state)) {
+    if (!getAnnotationMatcher.matches(tree, state)) {
       return Description.NO_MATCH;
     }
     MemberSelectTree memTree = (MemberSelectTree) tree.getArguments().get(0);
@@ -65,4 +70,9 @@ public class NonRuntimeAnnotation extends BugChecker implements MethodInvocation
 
     return describeMatch(tree, new SuggestedFix().replace(tree, "null"));
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return Matchers.methodNames(getAnnotationMatcher);
+  }
 }
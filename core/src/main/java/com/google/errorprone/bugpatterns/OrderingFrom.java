@@ -27,6 +27,7 @@ import com.google.errorprone.VisitorState;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.google.errorprone.matchers.NewInstanceAnonymousInnerClass;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree;
@@ -37,6 +38,7 @@ import com.sun.tools.javac.util.List;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Set;
 
 /**
  * Checker for a call of the form:
@@ -62,7 +64,8 @@ import java.util.ArrayList;
         "{{{new Ordering<T>() { ... }}}}\n" +
         "which is shorter and cleaner (and potentially more efficient).",
     category = GUAVA, severity = WARNING, maturity = MATURE)
-public class OrderingFrom extends BugChecker implements MethodInvocationTreeMatcher {
+public class OrderingFrom extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings({"unchecked", "varargs"})
   private static final Matcher<MethodInvocationTree> matcher = allOf(
@@ -126,4 +129,9 @@ public class OrderingFrom extends BugChecker implements MethodInvocationTreeMatc
 
     return describeMatch(methodInvocation, fix);
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(matcher);
+  }
 }
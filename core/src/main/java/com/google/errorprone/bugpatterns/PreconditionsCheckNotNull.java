@@ -29,10 +29,12 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author alexeagle@google.com (Alex Eagle)
@@ -46,7 +48,8 @@ import java.util.List;
         "never actually checked for nullity. This check ensures that the first argument to " +
         "Preconditions.checkNotNull() is not a literal.",
     category = GUAVA, severity = ERROR, maturity = MATURE)
-public class PreconditionsCheckNotNull extends BugChecker implements MethodInvocationTreeMatcher {
+public class PreconditionsCheckNotNull extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings({"unchecked"})
   private static final Matcher<MethodInvocationTree> matcher = allOf(
@@ -69,4 +72,9 @@ public class PreconditionsCheckNotNull extends BugChecker implements MethodInvoc
     }
     return describeMatch(stringLiteralValue, fix);
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(matcher);
+  }
 }
@@ -26,7 +26,9 @@ import com.google.errorprone.BugPattern;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.*;
 import com.sun.source.tree.Tree.Kind;
@@ -34,6 +36,8 @@ import com.sun.source.util.TreePath;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
 
+import java.util.Set;
+
 /**
  * Checks that the 1st argument to Preconditions.checkNotNull() isn't a primitive.
  * The primitive would be autoboxed to a non-null boxed type, and the check would trivially
@@ -59,16 +63,16 @@ import com.sun.tools.javac.tree.JCTree.JCExpression;
         "Preconditions.checkArgument() instead.",
     category = GUAVA, severity = ERROR, maturity = EXPERIMENTAL)
 public class PreconditionsCheckNotNullPrimitive
-    extends BugChecker implements MethodInvocationTreeMatcher {
+    extends BugChecker implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings("unchecked")
+  private static final Matcher<MethodInvocationTree> matcher = allOf(
+      methodSelect(staticMethod("com.google.common.base.Preconditions", "checkNotNull")),
+      argument(0, Matchers.<ExpressionTree>isPrimitiveType()));
+
   @Override
   public Description matchMethodInvocation(MethodInvocationTree methodInvocationTree, VisitorState state) {
-    if (allOf(
-            methodSelect(staticMethod(
-                "com.google.common.base.Preconditions", "checkNotNull")),
-            argument(0, Matchers.<ExpressionTree>isPrimitiveType()))
-            .matches(methodInvocationTree, state)) {
+    if (matcher.matches(methodInvocationTree, state)) {
       return describe(methodInvocationTree, state);
     }
     return Description.NO_MATCH;
@@ -188,4 +192,9 @@ public class PreconditionsCheckNotNullPrimitive
     }
     return false;
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(matcher);
+  }
 }
@@ -28,6 +28,7 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MemberSelectTree;
@@ -35,6 +36,7 @@ import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree.Kind;
 
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 /**
@@ -55,7 +57,7 @@ import java.util.regex.Pattern;
         "are not constructed using expensive methods that are evaluated eagerly.",
     category = GUAVA, severity = WARNING, maturity = EXPERIMENTAL)
 public class PreconditionsExpensiveString
-    extends BugChecker implements MethodInvocationTreeMatcher {
+    extends BugChecker implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings({"vararg", "unchecked"})
   private static final Matcher<MethodInvocationTree> matcher = allOf(
@@ -95,6 +97,11 @@ public class PreconditionsExpensiveString
     return describeMatch(arguments.get(1), fix);
   }
 
+  @Override
+  public Set<String> getMethodNames() {
+    return methodNames(matcher);
+  }
+
   private static class StringFormatCallContainsNoSpecialFormattingMatcher
       implements Matcher<ExpressionTree> {
 
@@ -27,12 +27,15 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.tools.javac.tree.JCTree.JCExpression;
 import com.sun.tools.javac.util.List;
 
+import java.util.Set;
+
 /**
  * @author Louis Wasserman
  */
@@ -42,7 +45,8 @@ import com.sun.tools.javac.util.List;
         + "placeholder, and to take the corresponding number of arguments.  This bug can indicate "
         + "an improper format string, or simply forgetting to add all the arguments.",
     category = GUAVA, maturity = EXPERIMENTAL, severity = ERROR)
-public class PreconditionsTooManyArgs extends BugChecker implements MethodInvocationTreeMatcher {
+public class PreconditionsTooManyArgs extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   @SuppressWarnings("unchecked")
   private static final
@@ -101,4 +105,9 @@ public class PreconditionsTooManyArgs extends BugChecker implements MethodInvoca
       return describeMatch(t, fix);
     }
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return Matchers.methodNames(PRECONDITIONS_CHECK);
+  }
 }
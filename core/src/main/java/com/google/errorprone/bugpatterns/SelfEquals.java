@@ -28,6 +28,7 @@ import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.matchers.Matcher;
 import com.google.errorprone.matchers.Matchers;
+import com.google.errorprone.matchers.MethodNameFilter;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
@@ -39,7 +40,9 @@ import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 import com.sun.tools.javac.tree.JCTree.JCStatement;
 import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author alexeagle@google.com (Alex Eagle)
@@ -50,7 +53,8 @@ import java.util.List;
         "The arguments to this equal method are the same object, so it always returns " +
         "true.  Either change the arguments to point to different objects or substitute true.",
     category = GUAVA, severity = ERROR, maturity = MATURE)
-public class SelfEquals extends BugChecker implements MethodInvocationTreeMatcher {
+public class SelfEquals extends BugChecker
+    implements MethodInvocationTreeMatcher, MethodNameFilter {
 
   /**
    * Matches calls to the Guava method Objects.equal() in which the two arguments are
@@ -129,6 +133,18 @@ public class SelfEquals extends BugChecker implements MethodInvocationTreeMatche
     }
   }
 
+  @Override
+  public Set<String> getMethodNames() {
+    Set<String> names = new HashSet<String>();
+    if (checkGuava) {
+      names.addAll(methodNames(guavaMatcher));
+    }
+    if (checkEquals) {
+      names.addAll(methodNames(equalsMatcher));
+    }
+    return names;
+  }
+
   public Description describe(MethodInvocationTree methodInvocationTree, VisitorState state) {
     if (matchState == MatchState.NONE) {
       throw new IllegalStateException("describe() called without a match");
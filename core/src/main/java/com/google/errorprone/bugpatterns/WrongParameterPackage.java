@@ -26,9 +26,9 @@ import com.google.errorprone.VisitorState;
 import com.google.errorprone.fixes.SuggestedFix;
 import com.google.errorprone.matchers.Description;
 import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.MemberIndex;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.VariableTree;
-import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Symbol.TypeSymbol;
@@ -59,9 +59,9 @@ public class WrongParameterPackage extends BugChecker implements MethodTreeMatch
     ClassSymbol classSym = method.enclClass();
     TypeSymbol superClass = classSym.getSuperclass().tsym;
 
-    for (Symbol s : superClass.members().getElements()) {
-      if (s.name.contentEquals(method.name) && s.getKind() == ElementKind.METHOD) {
-        MethodSymbol supermethod = (MethodSymbol) s;
+    for (MethodSymbol supermethod
+        : MemberIndex.instance(state.context).getMethods(superClass, method.name)) {
+      if (supermethod.getKind() == ElementKind.METHOD) {
 
         // if this method actually overrides the supermethod, then it's correct and not a match.
         if (method.overrides(supermethod, superClass, state.getTypes(), true)) {
@@ -18,10 +18,6 @@ package com.google.errorprone.fixes;
 
 import com.sun.tools.javac.tree.JCTree;
 
-import java.io.IOException;
-import java.io.LineNumberReader;
-import java.io.StringReader;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -51,6 +47,7 @@ public class AppliedFix {
   public static class Applier {
     private final CharSequence source;
     private final Map<JCTree, Integer> endPositions;
+    private LineStarts lineStarts;
 
     public Applier(CharSequence source, Map<JCTree, Integer> endPositions) {
       this.source = source;
@@ -62,53 +59,54 @@ public class AppliedFix {
      * change to the source, or a change only to imports.
      */
     public AppliedFix apply(SuggestedFix suggestedFix) {
-      StringBuilder replaced = new StringBuilder(source);
-
-      Set<Integer> modifiedLines = new HashSet<Integer>();
-      for (Replacement repl : suggestedFix.getReplacements(endPositions)) {
-        replaced.replace(repl.startPosition, repl.endPosition, repl.replaceWith);
-
-        // Find the line number(s) being modified
-        // TODO: this could be more efficient
-        try {
-          LineNumberReader lineNumberReader =
-              new LineNumberReader(new StringReader(source.toString()));
-          lineNumberReader.skip(repl.startPosition);
-          modifiedLines.add(lineNumberReader.getLineNumber());
-        } catch (IOException e) {
-          // impossible since source is in-memory
-        }
+      Set<Replacement> replacements = suggestedFix.getReplacements(endPositions);
+      // Not sure this is really the right behavior, but otherwise there is no line to show.
+      if (replacements.isEmpty()) {
+        return null;
       }
 
-      // Not sure this is really the right behavior, but otherwise we can end up with an infinite
-      // loop below.
-      if (modifiedLines.isEmpty()) {
-        return null;
+      // The snippet is the first modified line.  Only the region from the start of that line to
+      // the end of the last modified line is copied and changed.
+      LineStarts lines = getLineStarts();
+      int firstLine = Integer.MAX_VALUE;
+      int regionEnd = 0;
+      for (Replacement repl : replacements) {
+        firstLine = Math.min(firstLine, lines.getLineNumber(repl.startPosition));
+        regionEnd = Math.max(regionEnd, repl.endPosition);
+      }
+      int regionStart = lines.getLineStart(firstLine);
+      regionEnd = LineStarts.endOfLine(source, regionEnd);
+      StringBuilder replaced = new StringBuilder(source.subSequence(regionStart, regionEnd));
+      // Replacements come in reverse order of startPosition, so earlier offsets stay valid.
+      for (Replacement repl : replacements) {
+        replaced.replace(repl.startPosition - regionStart, repl.endPosition - regionStart,
+            repl.replaceWith);
       }
 
-      LineNumberReader lineNumberReader =
-              new LineNumberReader(new StringReader(replaced.toString()));
-      String snippet = null;
+      // TODO: this is over-simplified; need a failing test case
+      String snippet = replaced.substring(0, LineStarts.endOfLine(replaced, 0)).trim();
       boolean isRemoveLine = false;
-      try {
-        while(!modifiedLines.contains(lineNumberReader.getLineNumber())) {
-          lineNumberReader.readLine();
-        }
-        // TODO: this is over-simplified; need a failing test case
-        snippet = lineNumberReader.readLine().trim();
-        // snip comment from line
-        if (snippet.contains("//")) {
-          snippet = snippet.substring(0, snippet.indexOf("//")).trim();
-        }
-        if (snippet.isEmpty()) {
-          isRemoveLine = true;
-          snippet = "to remove this line";
-        }
-      } catch (IOException e) {
-        // impossible since source is in-memory
+      // snip comment from line
+      if (snippet.contains("//")) {
+        snippet = snippet.substring(0, snippet.indexOf("//")).trim();
+      }
+      if (snippet.isEmpty()) {
+        isRemoveLine = true;
+        snippet = "to remove this line";
       }
       return new AppliedFix(snippet, isRemoveLine);
     }
+
+    /**
+     * The line starts of the source, computed the first time a fix is applied and shared by all
+     * the fixes applied to it.
+     */
+    public LineStarts getLineStarts() {
+      if (lineStarts == null) {
+        lineStarts = LineStarts.of(source);
+      }
+      return lineStarts;
+    }
   }
 
   public static Applier fromSource(CharSequence source, Map<JCTree, Integer> endPositions) {
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.fixes;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * All the suggested fixes for one compilation unit, merged so that they can be written out as a
+ * single unified diff.  A fix which overlaps one added before it is skipped as a whole.
+ */
+public class FilePatch {
+
+  private static final int CONTEXT_LINES = 3;
+
+  /**
+   * Orders replacements by where they start, and an insertion before a replacement at the same
+   * position, so that applying them back to front leaves the insertion in front.
+   */
+  private static final Comparator<Replacement> BY_POSITION = new Comparator<Replacement>() {
+    @Override
+    public int compare(Replacement a, Replacement b) {
+      if (a.startPosition != b.startPosition) {
+        return a.startPosition < b.startPosition ? -1 : 1;
+      }
+      if (a.endPosition != b.endPosition) {
+        return a.endPosition < b.endPosition ? -1 : 1;
+      }
+      return a.replaceWith.compareTo(b.replaceWith);
+    }
+  };
+
+  private final JCCompilationUnit compilationUnit;
+  private final Map<JCTree, Integer> endPositions;
+
+  /**
+   * The replacements of all the fixes accepted so far.  None of them conflict, so only the
+   * neighbours of a new replacement need be checked against it.
+   */
+  private final NavigableSet<Replacement> replacements = new TreeSet<Replacement>(BY_POSITION);
+  private final Set<String> importsToAdd = new LinkedHashSet<String>();
+  private final Set<String> importsToRemove = new LinkedHashSet<String>();
+
+  private int fixCount = 0;
+  private int conflictCount = 0;
+
+  public FilePatch(JCCompilationUnit compilationUnit, Map<JCTree, Integer> endPositions) {
+    this.compilationUnit = compilationUnit;
+    this.endPositions = endPositions;
+  }
+
+  /**
+   * Adds a fix to the patch, unless one of its replacements overlaps a replacement of a fix
+   * already added.  Returns whether it was added.
+   */
+  public boolean add(SuggestedFix fix) {
+    Set<Replacement> fixReplacements = fix.getReplacements(endPositions);
+    for (Replacement replacement : fixReplacements) {
+      if (conflictsWithAccepted(replacement)) {
+        conflictCount++;
+        return false;
+      }
+    }
+    replacements.addAll(fixReplacements);
+    importsToAdd.addAll(fix.getImportsToAdd());
+    importsToRemove.addAll(fix.getImportsToRemove());
+    fixCount++;
+    return true;
+  }
+
+  private boolean conflictsWithAccepted(Replacement replacement) {
+    Replacement start =
+        new Replacement(replacement.startPosition, replacement.startPosition, "");
+    // Of those starting earlier, only the last which isn't an insertion can reach this one.
+    for (Iterator<Replacement> earlier = replacements.headSet(start, false).descendingIterator();
+        earlier.hasNext();) {
+      Replacement accepted = earlier.next();
+      if (accepted.startPosition != accepted.endPosition) {
+        if (conflict(replacement, accepted)) {
+          return true;
+        }
+        break;
+      }
+    }
+    for (Replacement accepted : replacements.tailSet(start, true)) {
+      if (accepted.startPosition > replacement.endPosition) {
+        break;
+      }
+      if (conflict(replacement, accepted)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Two replacements conflict if they change overlapping text, if one inserts text inside the
+   * text the other changes, or if both insert different text at the same place.  Identical
+   * replacements, as when two fixes make the same change, do not conflict.
+   */
+  private static boolean conflict(Replacement a, Replacement b) {
+    if (a.equals(b)) {
+      return false;
+    }
+    if (a.startPosition == a.endPosition && b.startPosition == b.endPosition) {
+      return a.startPosition == b.startPosition;
+    }
+    return a.startPosition < b.endPosition && b.startPosition < a.endPosition;
+  }
+
+  public boolean isEmpty() {
+    return fixCount == 0;
+  }
+
+  public int getFixCount() {
+    return fixCount;
+  }
+
+  /**
+   * The number of fixes which were not added because they conflicted with others.
+   */
+  public int getConflictCount() {
+    return conflictCount;
+  }
+
+  /**
+   * Writes the patch as a unified diff of the given source, the contents of the file at
+   * {@code path}.
+   */
+  public void writeUnifiedDiff(CharSequence source, String path, Writer out) throws IOException {
+    List<Replacement> all = new ArrayList<Replacement>(replacements);
+    for (Replacement replacement : importReplacements(source)) {
+      if (!conflictsWithAccepted(replacement)) {
+        all.add(replacement);
+      }
+    }
+    if (all.isEmpty()) {
+      return;
+    }
+    Collections.sort(all, BY_POSITION);
+
+    LineStarts lines = LineStarts.of(source);
+    out.write("--- a/" + path + "\n");
+    out.write("+++ b/" + path + "\n");
+    int lineDelta = 0;
+    int i = 0;
+    while (i < all.size()) {
+      // Gather the replacements whose lines, with context, touch those of the first.
+      int firstLine = lines.getLineNumber(all.get(i).startPosition);
+      int lastLine = lastLineOf(all.get(i), lines);
+      int j = i + 1;
+      while (j < all.size()
+          && lines.getLineNumber(all.get(j).startPosition) <= lastLine + 2 * CONTEXT_LINES + 1) {
+        lastLine = Math.max(lastLine, lastLineOf(all.get(j), lines));
+        j++;
+      }
+      int hunkFirst = Math.max(0, firstLine - CONTEXT_LINES);
+      int hunkLast = Math.min(lines.getLineCount() - 1, lastLine + CONTEXT_LINES);
+      lineDelta += writeHunk(source, lines, all.subList(i, j), hunkFirst, hunkLast, lineDelta,
+          out);
+      i = j;
+    }
+  }
+
+  /**
+   * The last line a replacement changes.  A replacement which ends at the very start of a line,
+   * as deleting a whole line does, does not change that line.
+   */
+  private static int lastLineOf(Replacement replacement, LineStarts lines) {
+    int line = lines.getLineNumber(replacement.endPosition);
+    if (replacement.endPosition > replacement.startPosition && line > 0
+        && lines.getLineStart(line) == replacement.endPosition) {
+      line--;
+    }
+    return line;
+  }
+
+  /**
+   * Writes one hunk, covering lines {@code first} to {@code last} of the source, and returns how
+   * many lines it adds to the file.  Only the lines the replacements touch are shown as changed;
+   * the rest are context.
+   */
+  private static int writeHunk(CharSequence source, LineStarts lines,
+      List<Replacement> hunkReplacements, int first, int last, int lineDelta, Writer out)
+      throws IOException {
+    StringBuilder body = new StringBuilder();
+    int oldCount = 0;
+    int newCount = 0;
+    int line = first;
+    int i = 0;
+    while (i < hunkReplacements.size()) {
+      // Gather the replacements which touch the same or adjacent lines.
+      int changeFirst = lines.getLineNumber(hunkReplacements.get(i).startPosition);
+      int changeLast = lastLineOf(hunkReplacements.get(i), lines);
+      int j = i + 1;
+      while (j < hunkReplacements.size()
+          && lines.getLineNumber(hunkReplacements.get(j).startPosition) <= changeLast + 1) {
+        changeLast = Math.max(changeLast, lastLineOf(hunkReplacements.get(j), lines));
+        j++;
+      }
+      for (; line < changeFirst; line++) {
+        String text = linesText(source, lines, line, line);
+        appendLine(' ', text, body);
+        oldCount++;
+        newCount++;
+      }
+
+      int regionStart = lines.getLineStart(changeFirst);
+      String oldText = linesText(source, lines, changeFirst, changeLast);
+      StringBuilder newText = new StringBuilder(oldText);
+      // Back to front, so that earlier offsets stay valid.
+      for (int k = j - 1; k >= i; k--) {
+        Replacement replacement = hunkReplacements.get(k);
+        newText.replace(replacement.startPosition - regionStart,
+            replacement.endPosition - regionStart, replacement.replaceWith);
+      }
+      List<String> oldLines = splitLines(oldText);
+      List<String> newLines = splitLines(newText);
+      int common = 0;
+      while (common < oldLines.size() && common < newLines.size()
+          && oldLines.get(common).equals(newLines.get(common))) {
+        common++;
+      }
+      int commonEnd = 0;
+      while (commonEnd < oldLines.size() - common && commonEnd < newLines.size() - common
+          && oldLines.get(oldLines.size() - 1 - commonEnd)
+              .equals(newLines.get(newLines.size() - 1 - commonEnd))) {
+        commonEnd++;
+      }
+      for (int k = 0; k < common; k++) {
+        appendLine(' ', oldLines.get(k), body);
+      }
+      for (int k = common; k < oldLines.size() - commonEnd; k++) {
+        appendLine('-', oldLines.get(k), body);
+      }
+      for (int k = common; k < newLines.size() - commonEnd; k++) {
+        appendLine('+', newLines.get(k), body);
+      }
+      for (int k = oldLines.size() - commonEnd; k < oldLines.size(); k++) {
+        appendLine(' ', oldLines.get(k), body);
+      }
+      oldCount += oldLines.size();
+      newCount += newLines.size();
+      line = changeLast + 1;
+      i = j;
+    }
+    for (; line <= last; line++) {
+      String text = linesText(source, lines, line, line);
+      if (text.length() > 0) {
+        appendLine(' ', text, body);
+        oldCount++;
+        newCount++;
+      }
+    }
+
+    int oldStart = oldCount == 0 ? first : first + 1;
+    int newStart = (newCount == 0 ? first : first + 1) + lineDelta;
+    out.write("@@ -" + oldStart + "," + oldCount + " +" + newStart + "," + newCount + " @@\n");
+    out.append(body);
+    return newCount - oldCount;
+  }
+
+  /**
+   * The text of lines {@code first} to {@code last}, with their line terminators.
+   */
+  private static String linesText(CharSequence source, LineStarts lines, int first, int last) {
+    int end = last + 1 < lines.getLineCount() ? lines.getLineStart(last + 1) : source.length();
+    return source.subSequence(lines.getLineStart(first), end).toString();
+  }
+
+  /**
+   * Splits text into lines, each keeping its line terminator.
+   */
+  private static List<String> splitLines(CharSequence text) {
+    List<String> result = new ArrayList<String>();
+    int start = 0;
+    while (start < text.length()) {
+      int end = LineStarts.endOfLine(text, start);
+      if (end < text.length()) {
+        end += text.charAt(end) == '\r' && end + 1 < text.length()
+            && text.charAt(end + 1) == '\n' ? 2 : 1;
+      }
+      result.add(text.subSequence(start, end).toString());
+      start = end;
+    }
+    return result;
+  }
+
+  private static void appendLine(char prefix, String line, StringBuilder out) {
+    out.append(prefix).append(line);
+    if (!line.endsWith("\n") && !line.endsWith("\r")) {
+      out.append("\n\\ No newline at end of file\n");
+    }
+  }
+
+  /**
+   * Replacements which remove the imports to be removed, and add those to be added.
+   */
+  private Collection<Replacement> importReplacements(CharSequence source) {
+    return ImportReplacements.of(compilationUnit, endPositions, source, importsToAdd,
+        importsToRemove);
+  }
+}
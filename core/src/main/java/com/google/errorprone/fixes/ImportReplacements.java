@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.fixes;
+
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCImport;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns the imports which suggested fixes add and remove into replacements of a compilation
+ * unit's source, so that they can be applied or reported like the rest of a fix.
+ */
+public final class ImportReplacements {
+
+  private ImportReplacements() {}
+
+  /**
+   * Returns replacements which delete the lines of the imports to be removed, and insert those
+   * to be added after the last import (or the package declaration) unless they are already
+   * there.  Imports are given as {@link SuggestedFix#getImportsToAdd()} returns them, such as
+   * {@code import java.util.List}.
+   *
+   * @param source the contents of the compilation unit's file
+   */
+  public static List<Replacement> of(JCCompilationUnit compilationUnit,
+      Map<JCTree, Integer> endPositions, CharSequence source, Collection<String> importsToAdd,
+      Collection<String> importsToRemove) {
+    List<Replacement> result = new ArrayList<Replacement>();
+    Set<String> existing = new LinkedHashSet<String>();
+    int insertAt = 0;
+    if (compilationUnit.getPackageName() != null) {
+      insertAt = endOfLineAfter(source,
+          ((JCTree) compilationUnit.getPackageName()).getEndPosition(endPositions));
+    }
+    for (JCTree tree : compilationUnit.getImports()) {
+      JCImport importTree = (JCImport) tree;
+      String importString = (importTree.isStatic() ? "import static " : "import ")
+          + importTree.getQualifiedIdentifier();
+      existing.add(importString);
+      int end = endOfLineAfter(source, importTree.getEndPosition(endPositions));
+      insertAt = Math.max(insertAt, end);
+      if (importsToRemove.contains(importString)) {
+        result.add(new Replacement(importTree.getStartPosition(), end, ""));
+      }
+    }
+    StringBuilder added = new StringBuilder();
+    for (String importString : importsToAdd) {
+      if (!existing.contains(importString)) {
+        added.append(importString).append(";\n");
+      }
+    }
+    if (added.length() > 0) {
+      result.add(new Replacement(insertAt, insertAt, added.toString()));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the offset just after the line terminator which follows {@code position}, or the
+   * end of the source.
+   */
+  private static int endOfLineAfter(CharSequence source, int position) {
+    int end = LineStarts.endOfLine(source, Math.max(0, position));
+    if (end < source.length()) {
+      end += source.charAt(end) == '\r' && end + 1 < source.length()
+          && source.charAt(end + 1) == '\n' ? 2 : 1;
+    }
+    return end;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.fixes;
+
+import java.util.Arrays;
+
+/**
+ * The offset at which each line of a source file starts, found in a single pass over the
+ * source, so that the line containing an offset can be found by binary search.  Lines are
+ * numbered from 0, and end with \n, \r or \r\n, as for {@link java.io.LineNumberReader}.
+ */
+public class LineStarts {
+
+  private final CharSequence source;
+  private final int[] starts;
+  private final int lineCount;
+
+  private LineStarts(CharSequence source, int[] starts, int lineCount) {
+    this.source = source;
+    this.starts = starts;
+    this.lineCount = lineCount;
+  }
+
+  public static LineStarts of(CharSequence source) {
+    int[] starts = new int[16];
+    int lineCount = 1;
+    int length = source.length();
+    for (int i = 0; i < length; i++) {
+      char c = source.charAt(i);
+      if (c == '\r' && i + 1 < length && source.charAt(i + 1) == '\n') {
+        i++;
+      } else if (c != '\n' && c != '\r') {
+        continue;
+      }
+      if (lineCount == starts.length) {
+        starts = Arrays.copyOf(starts, lineCount * 2);
+      }
+      starts[lineCount++] = i + 1;
+    }
+    return new LineStarts(source, starts, lineCount);
+  }
+
+  public int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Returns the number of the line containing the given offset.
+   */
+  public int getLineNumber(int offset) {
+    int index = Arrays.binarySearch(starts, 0, lineCount, offset);
+    return index >= 0 ? index : -index - 2;
+  }
+
+  /**
+   * Returns the offset of the first character of the given line.
+   */
+  public int getLineStart(int line) {
+    return starts[line];
+  }
+
+  /**
+   * Returns the offset just past the last character of the given line, not counting its line
+   * terminator.
+   */
+  public int getLineEnd(int line) {
+    return endOfLine(source, starts[line]);
+  }
+
+  /**
+   * Returns the text of the given line, without its line terminator.
+   */
+  public String getLine(int line) {
+    return source.subSequence(getLineStart(line), getLineEnd(line)).toString();
+  }
+
+  /**
+   * Returns the offset of the first line terminator at or after {@code offset}, or the length of
+   * the text if there is none.
+   */
+  public static int endOfLine(CharSequence text, int offset) {
+    int length = text.length();
+    for (int i = offset; i < length; i++) {
+      char c = text.charAt(i);
+      if (c == '\n' || c == '\r') {
+        return i;
+      }
+    }
+    return length;
+  }
+}
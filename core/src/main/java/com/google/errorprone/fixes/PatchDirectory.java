@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.fixes;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+
+import javax.tools.JavaFileObject;
+
+/**
+ * A directory into which the patch for each compilation unit is written as a unified diff, as
+ * soon as the unit has been analyzed, so that only one file's patch is held in memory at a time.
+ * The patch for {@code src/Foo.java} is written to {@code src/Foo.java.diff} under the
+ * directory, with paths relative to the compile's working directory, so that all of them can be
+ * applied with {@code patch -p1} from there.
+ */
+public class PatchDirectory {
+
+  private static final String SUFFIX = ".diff";
+
+  private final File directory;
+  private final String workingDirectory;
+
+  private int patchCount = 0;
+  private int fixCount = 0;
+  private int conflictCount = 0;
+
+  public PatchDirectory(File directory, File workingDirectory) {
+    this.directory = directory;
+    this.workingDirectory = workingDirectory.getAbsolutePath();
+  }
+
+  /**
+   * Writes the patch for the given source file, unless it has no fixes.
+   */
+  public void write(JavaFileObject sourceFile, FilePatch patch) throws IOException {
+    conflictCount += patch.getConflictCount();
+    if (patch.isEmpty()) {
+      return;
+    }
+    String path = pathOf(sourceFile);
+    File file = new File(directory, path + SUFFIX);
+    file.getParentFile().mkdirs();
+    Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+    try {
+      patch.writeUnifiedDiff(sourceFile.getCharContent(true), path, out);
+    } finally {
+      out.close();
+    }
+    patchCount++;
+    fixCount += patch.getFixCount();
+  }
+
+  /**
+   * The path of a source file, relative to the working directory if it is under it.
+   */
+  private String pathOf(JavaFileObject sourceFile) {
+    URI uri = sourceFile.toUri();
+    String path = "file".equals(uri.getScheme())
+        ? new File(uri).getAbsolutePath() : uri.getPath();
+    if (path.startsWith(workingDirectory + File.separator)) {
+      path = path.substring(workingDirectory.length() + 1);
+    }
+    path = path.replace(File.separatorChar, '/');
+    while (path.startsWith("/")) {
+      path = path.substring(1);
+    }
+    return path;
+  }
+
+  public int getPatchCount() {
+    return patchCount;
+  }
+
+  public int getFixCount() {
+    return fixCount;
+  }
+
+  /**
+   * The number of fixes left out of the patches because they conflicted with other fixes.
+   */
+  public int getConflictCount() {
+    return conflictCount;
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.errorprone.matchers;
 
+import static com.google.errorprone.suppliers.Suppliers.erasureOf;
 import static com.google.errorprone.suppliers.Suppliers.identitySupplier;
 import static com.google.errorprone.suppliers.Suppliers.typeFromString;
 
@@ -27,14 +28,23 @@ import com.sun.tools.javac.code.Type;
 import com.sun.tools.javac.tree.JCTree;
 
 /**
- * Base class for type matchers.
+ * Base class for type matchers.  Types given by name are resolved once per compilation, by
+ * {@link VisitorState#getTypeFromString}; the erasures of types which are themselves computed
+ * once per compilation are too, see
+ * {@link com.google.errorprone.suppliers.Suppliers#contextConstant}.
  */
 public abstract class AbstractTypeMatcher<T extends Tree> implements Matcher<T> {
 
   protected Supplier<Type> typeToCompareSupplier;
 
+  /**
+   * Supplies the erasure of the type to compare.
+   */
+  protected final Supplier<Type> erasedTypeToCompareSupplier;
+
   public AbstractTypeMatcher(Supplier<Type> typeToCompareSupplier) {
     this.typeToCompareSupplier = typeToCompareSupplier;
+    this.erasedTypeToCompareSupplier = erasureOf(typeToCompareSupplier);
   }
 
   public AbstractTypeMatcher(Type typeToCompare) {
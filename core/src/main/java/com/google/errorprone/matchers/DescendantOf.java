@@ -24,19 +24,59 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 import com.sun.tools.javac.code.Type;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 /**
  * Matches an instance method that is a descendant of a method with the given class and
  * name.
  *
  * @author eaftan@google.com (Eddie Aftandilian)
  */
-public class DescendantOf implements Matcher<ExpressionTree> {
+public class DescendantOf implements Matcher<ExpressionTree>, MethodNameFilter {
   private final String fullClassName;
   private final String methodName;
 
+  /**
+   * The name of the method, without its type parameters or parameter types.
+   */
+  private final String simpleName;
+
+  /**
+   * The signature of each method symbol with the right name that we have seen, as rendered by
+   * {@code toString()}.  Symbols live as long as their compilation, so the keys are weak.
+   */
+  private final Map<Symbol, String> signatures = new WeakHashMap<Symbol, String>();
+
   public DescendantOf(String fullClassName, String methodName) {
     this.fullClassName = fullClassName;
     this.methodName = methodName;
+    this.simpleName = simpleName(methodName);
+  }
+
+  /**
+   * Returns the name in a method signature such as {@code <T>toArray(T[])}, as rendered by
+   * {@code MethodSymbol.toString()}: whatever lies between the type parameters and the
+   * parameter types.
+   */
+  private static String simpleName(String methodName) {
+    int start = 0;
+    if (methodName.startsWith("<")) {
+      // Type parameters may themselves be generic, as in <T extends Comparable<T>>.
+      int depth = 0;
+      do {
+        char c = methodName.charAt(start++);
+        if (c == '<') {
+          depth++;
+        } else if (c == '>') {
+          depth--;
+        }
+      } while (depth > 0 && start < methodName.length());
+    }
+    int paren = methodName.indexOf('(', start);
+    return paren < 0 ? methodName.substring(start) : methodName.substring(start, paren);
   }
 
   @Override
@@ -47,11 +87,11 @@ public class DescendantOf implements Matcher<ExpressionTree> {
       throw new IllegalArgumentException("DescendantOf matcher expects a method call but found "
           + symInfo + ". Expression: " + expressionTree);
     }
-    if (sym.isStatic()) {
+    if (sym.isStatic() || !sym.getQualifiedName().equals(state.getName(simpleName))) {
       return false;
     }
 
-    if (methodName.equals(sym.toString())) {
+    if (methodName.equals(signature(sym))) {
       Type accessedReferenceType = sym.owner.type;
       Type collectionType = state.getTypeFromString(fullClassName);
       if (collectionType != null) {
@@ -62,4 +102,18 @@ public class DescendantOf implements Matcher<ExpressionTree> {
 
     return false;
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return Collections.singleton(simpleName);
+  }
+
+  private String signature(Symbol sym) {
+    String signature = signatures.get(sym);
+    if (signature == null) {
+      signature = sym.toString();
+      signatures.put(sym, signature);
+    }
+    return signature;
+  }
 }
@@ -32,6 +32,11 @@ public class Description {
   public static final Description NO_MATCH =
       new Description(null, "<No match>", null, NOT_A_PROBLEM);
 
+  /**
+   * The name of the checker which matched, or null if it is not known.
+   */
+  public String checkerName;
+
   /**
    * The AST node which matched
    */
@@ -54,9 +59,15 @@ public class Description {
 
   public Description(Tree node, String message, SuggestedFix suggestedFix,
                      BugPattern.SeverityLevel severity) {
+    this(node, null, message, suggestedFix, severity);
+  }
+
+  public Description(Tree node, String checkerName, String message, SuggestedFix suggestedFix,
+                     BugPattern.SeverityLevel severity) {
     this.message = message;
     this.suggestedFix = suggestedFix;
     this.node = node;
     this.severity = severity;
+    this.checkerName = checkerName;
   }
 }
@@ -20,7 +20,6 @@ import com.google.errorprone.VisitorState;
 
 import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.Tree;
-import com.sun.source.util.TreePath;
 
 /**
  * Adapts a block matcher to match against the current enclosing block of whatever Tree last
@@ -36,11 +35,6 @@ public class EnclosingBlock<T extends Tree> implements Matcher<T> {
 
   @Override
   public boolean matches(T unused, VisitorState state) {
-    TreePath enclosingBlockPath = state.getPath();
-    while (!(enclosingBlockPath.getLeaf() instanceof BlockTree)) {
-      enclosingBlockPath = enclosingBlockPath.getParentPath();
-    }
-    BlockTree enclosingBlock = (BlockTree) enclosingBlockPath.getLeaf();
-    return matcher.matches(enclosingBlock, state);
+    return matcher.matches(state.getEnclosingBlock(), state);
   }
 }
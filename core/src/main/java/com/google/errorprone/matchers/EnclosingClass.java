@@ -19,7 +19,6 @@ package com.google.errorprone.matchers;
 import com.google.errorprone.VisitorState;
 import com.sun.source.tree.ClassTree;
 import com.sun.source.tree.Tree;
-import com.sun.source.util.TreePath;
 
 /**
  * Adapts a classTree matcher to match against the current enclosing classTree of whatever Tree last
@@ -41,10 +40,6 @@ public class EnclosingClass<T extends Tree> implements Matcher<T> {
   }
 
   public static ClassTree findEnclosingClass(VisitorState state) {
-    TreePath enclosingClassPath = state.getPath();
-    while (!(enclosingClassPath.getLeaf() instanceof ClassTree)) {
-      enclosingClassPath = enclosingClassPath.getParentPath();
-    }
-    return (ClassTree) enclosingClassPath.getLeaf();
+    return state.getEnclosingClass();
   }
 }
@@ -21,11 +21,13 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 import com.sun.source.tree.Tree.Kind;
 
+import java.util.Set;
+
 /**
  * @author sjnickerson@google.com (Simon Nickerson)
  *
  */
-public class ExpressionMethodSelect implements Matcher<ExpressionTree> {
+public class ExpressionMethodSelect implements Matcher<ExpressionTree>, MethodNameFilter {
 
   private final Matcher<ExpressionTree> methodSelectMatcher;
   
@@ -43,4 +45,9 @@ public class ExpressionMethodSelect implements Matcher<ExpressionTree> {
     return methodSelectMatcher.matches(methodInvocation.getMethodSelect(), state);
   }
 
+  @Override
+  public Set<String> getMethodNames() {
+    return Matchers.methodNames(methodSelectMatcher);
+  }
+
 }
@@ -24,12 +24,15 @@ import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.tree.JCTree.JCFieldAccess;
 import com.sun.tools.javac.tree.JCTree.JCIdent;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * Matches an instance method expression.
  *
  * @author eaftan@google.com (Eddie Aftandilian)
  */
-public class InstanceMethod implements Matcher<ExpressionTree> {
+public class InstanceMethod implements Matcher<ExpressionTree>, MethodNameFilter {
 
   private final Matcher<ExpressionTree> receiverMatcher;
   private final String methodName;
@@ -67,4 +70,9 @@ public class InstanceMethod implements Matcher<ExpressionTree> {
           + item.getClass().getName());
     }
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return Collections.singleton(methodName);
+  }
 }
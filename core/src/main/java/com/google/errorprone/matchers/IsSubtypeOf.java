@@ -48,8 +48,8 @@ public class IsSubtypeOf<T extends Tree> extends AbstractTypeMatcher<T> {
   @Override
   public boolean matches(T tree, VisitorState state) {
     Types types = state.getTypes();
-    Type typeToCompare = typeToCompareSupplier.get(state);
-    return (typeToCompare != null &&
-        types.isSubtype(((JCTree) tree).type, types.erasure(typeToCompare)));
+    Type erasedTypeToCompare = erasedTypeToCompareSupplier.get(state);
+    return (erasedTypeToCompare != null &&
+        types.isSubtype(((JCTree) tree).type, erasedTypeToCompare));
   }
 }
@@ -20,6 +20,11 @@ import com.google.errorprone.VisitorState;
 
 /**
  * Define a predicate on any type, which also accesses the state of AST traversal.
+ *
+ * <p>The state describes the traversal at the moment {@link #matches} is called, and changes as
+ * the traversal moves on.  A matcher which needs it later must keep
+ * {@link VisitorState#snapshot()} instead.
+ *
  * @param <T> typically a javac AST node
  * @author alexeagle@google.com (Alex Eagle)
  */
@@ -21,6 +21,7 @@ import com.google.errorprone.matchers.MethodVisibility.Visibility;
 import com.google.errorprone.matchers.MultiMatcher.MatchType;
 import com.google.errorprone.suppliers.Supplier;
 import com.google.errorprone.util.ASTHelpers;
+import com.google.errorprone.util.MemberIndex;
 import com.sun.source.tree.*;
 import com.sun.source.tree.Tree.Kind;
 import com.sun.tools.javac.code.Symbol;
@@ -29,7 +30,9 @@ import com.sun.tools.javac.tree.JCTree;
 import com.sun.tools.javac.tree.JCTree.*;
 
 import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -47,64 +50,254 @@ public class Matchers {
   /**
    * A matcher that matches any AST node.
    */
+  @SuppressWarnings("unchecked")  // Matches any T.
   public static <T extends Tree> Matcher<T> anything() {
-    return new Matcher<T>() {
-      @Override
-      public boolean matches(T t, VisitorState state) {
-        return true;
-      }
-    };
+    return (Matcher<T>) ANYTHING;
   }
 
+  /**
+   * A matcher that matches no AST node.
+   */
+  @SuppressWarnings("unchecked")  // Matches no T.
+  public static <T extends Tree> Matcher<T> nothing() {
+    return (Matcher<T>) NOTHING;
+  }
+
+  private static final Matcher<Tree> ANYTHING = new SyntacticMatcher<Tree>() {
+    @Override
+    public boolean matches(Tree t, VisitorState state) {
+      return true;
+    }
+  };
+
+  private static final Matcher<Tree> NOTHING = new SyntacticMatcher<Tree>() {
+    @Override
+    public boolean matches(Tree t, VisitorState state) {
+      return false;
+    }
+  };
+
   /**
    * Matches an AST node iff it does not match the given matcher.
    */
+  @SuppressWarnings("unchecked")  // The operand of a Not of a Matcher<T> is a Matcher<T>.
   public static <T extends Tree> Matcher<T> not(final Matcher<T> matcher) {
-    return new Matcher<T>() {
-      @Override
-      public boolean matches(T t, VisitorState state) {
-        return !matcher.matches(t, state);
-      }
-    };
+    if (matcher == ANYTHING) {
+      return nothing();
+    }
+    if (matcher == NOTHING) {
+      return anything();
+    }
+    if (matcher instanceof Not) {
+      return ((Not<T>) matcher).matcher;
+    }
+    return new Not<T>(matcher);
   }
 
   /**
    * Compose several matchers together, such that the composite matches an AST node iff all the given matchers do.
+   *
+   * <p>The composite is simplified as it is built: nested allOfs are flattened into it, matchers
+   * which match anything are dropped, and it matches nothing if any of them match nothing.  The
+   * given matchers are evaluated in order, except that cheap syntactic checks, such as
+   * {@link #kindIs} and {@link #methodIsNamed}, are moved ahead of the rest.
    */
   public static <T extends Tree> Matcher<T> allOf(final Matcher<? super T>... matchers) {
-    return new Matcher<T>() {
-      @Override public boolean matches(T t, VisitorState state) {
-        for (Matcher<? super T> matcher : matchers) {
-          if (!matcher.matches(t, state)) {
-            return false;
-          }
-        }
-        return true;
+    List<Matcher<? super T>> operands = new ArrayList<Matcher<? super T>>(matchers.length);
+    for (Matcher<? super T> matcher : matchers) {
+      if (matcher == NOTHING) {
+        return nothing();
       }
-    };
+      if (matcher instanceof AllOf) {
+        operands.addAll(Arrays.asList(((AllOf<? super T>) matcher).matchers));
+      } else if (matcher != ANYTHING) {
+        operands.add(matcher);
+      }
+    }
+    switch (operands.size()) {
+      case 0:
+        return anything();
+      case 1:
+        return narrow(operands.get(0));
+      default:
+        return new AllOf<T>(cheapestFirst(operands));
+    }
   }
 
   /**
    * Compose several matchers together, such that the composite matches an AST node if any of the given matchers do.
+   *
+   * <p>The composite is simplified as it is built, as for {@link #allOf}: nested anyOfs are
+   * flattened into it, matchers which match nothing are dropped, it matches anything if any of
+   * them match anything, and cheap syntactic checks are evaluated first.
    */
   public static <T extends Tree> Matcher<T> anyOf(final Matcher<? super T>... matchers) {
-    return new Matcher<T>() {
-      @Override public boolean matches(T t, VisitorState state) {
-        for (Matcher<? super T> matcher : matchers) {
-          if (matcher.matches(t, state)) {
-            return true;
+    List<Matcher<? super T>> operands = new ArrayList<Matcher<? super T>>(matchers.length);
+    for (Matcher<? super T> matcher : matchers) {
+      if (matcher == ANYTHING) {
+        return anything();
+      }
+      if (matcher instanceof AnyOf) {
+        operands.addAll(Arrays.asList(((AnyOf<? super T>) matcher).matchers));
+      } else if (matcher != NOTHING) {
+        operands.add(matcher);
+      }
+    }
+    switch (operands.size()) {
+      case 0:
+        return nothing();
+      case 1:
+        return narrow(operands.get(0));
+      default:
+        return new AnyOf<T>(cheapestFirst(operands));
+    }
+  }
+
+  /**
+   * A Matcher of a supertype of T is also a Matcher of T.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T extends Tree> Matcher<T> narrow(Matcher<? super T> matcher) {
+    return (Matcher<T>) matcher;
+  }
+
+  /**
+   * Returns the matchers with the syntactic ones first, and otherwise in the given order, so that
+   * a matcher which guards against a later one failing still runs before it.
+   */
+  @SuppressWarnings("unchecked")  // Generic array creation.
+  private static <T> Matcher<? super T>[] cheapestFirst(List<Matcher<? super T>> matchers) {
+    Matcher<? super T>[] result = new Matcher[matchers.size()];
+    int i = 0;
+    for (Matcher<? super T> matcher : matchers) {
+      if (isSyntactic(matcher)) {
+        result[i++] = matcher;
+      }
+    }
+    for (Matcher<? super T> matcher : matchers) {
+      if (!isSyntactic(matcher)) {
+        result[i++] = matcher;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Whether a matcher only looks at the tree itself, and not at the type system or the rest of
+   * the tree, so that it is cheap and can't fail.
+   */
+  static boolean isSyntactic(Matcher<?> matcher) {
+    return matcher instanceof SyntacticMatcher
+        || (matcher instanceof Not && isSyntactic(((Not<?>) matcher).matcher));
+  }
+
+  /**
+   * Returns the simple names of the methods whose invocations the given matcher can match, or null
+   * if it doesn't know.
+   *
+   * @see MethodNameFilter
+   */
+  public static Set<String> methodNames(Matcher<?> matcher) {
+    return matcher instanceof MethodNameFilter
+        ? ((MethodNameFilter) matcher).getMethodNames()
+        : null;
+  }
+
+  /**
+   * A matcher which only looks at the tree it is given.
+   */
+  private abstract static class SyntacticMatcher<T> implements Matcher<T> {
+  }
+
+  private static class Not<T> implements Matcher<T> {
+    final Matcher<T> matcher;
+
+    Not(Matcher<T> matcher) {
+      this.matcher = matcher;
+    }
+
+    @Override
+    public boolean matches(T t, VisitorState state) {
+      return !matcher.matches(t, state);
+    }
+  }
+
+  private static class AllOf<T> implements Matcher<T>, MethodNameFilter {
+    final Matcher<? super T>[] matchers;
+
+    AllOf(Matcher<? super T>[] matchers) {
+      this.matchers = matchers;
+    }
+
+    /**
+     * The names every operand that knows its names can match.
+     */
+    @Override
+    public Set<String> getMethodNames() {
+      Set<String> result = null;
+      for (Matcher<? super T> matcher : matchers) {
+        Set<String> names = methodNames(matcher);
+        if (names != null) {
+          if (result == null) {
+            result = new HashSet<String>(names);
+          } else {
+            result.retainAll(names);
           }
         }
-        return false;
       }
-    };
+      return result;
+    }
+
+    @Override
+    public boolean matches(T t, VisitorState state) {
+      for (int i = 0; i < matchers.length; i++) {
+        if (!matchers[i].matches(t, state)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static class AnyOf<T> implements Matcher<T>, MethodNameFilter {
+    final Matcher<? super T>[] matchers;
+
+    AnyOf(Matcher<? super T>[] matchers) {
+      this.matchers = matchers;
+    }
+
+    /**
+     * The names any operand can match, if every operand knows its names.
+     */
+    @Override
+    public Set<String> getMethodNames() {
+      Set<String> result = new HashSet<String>();
+      for (Matcher<? super T> matcher : matchers) {
+        Set<String> names = methodNames(matcher);
+        if (names == null) {
+          return null;
+        }
+        result.addAll(names);
+      }
+      return result;
+    }
+
+    @Override
+    public boolean matches(T t, VisitorState state) {
+      for (int i = 0; i < matchers.length; i++) {
+        if (matchers[i].matches(t, state)) {
+          return true;
+        }
+      }
+      return false;
+    }
   }
 
   /**
    * Matches if an AST node is an instance of the given class.
    */
   public static <T extends Tree> Matcher<T> isInstance(final Class<?> klass) {
-    return new Matcher<T>() {
+    return new SyntacticMatcher<T>() {
       @Override
       public boolean matches(T t, VisitorState state) {
         return klass.isInstance(t);
@@ -116,7 +309,7 @@ public class Matchers {
    * Matches an AST node of a given kind, for example, an Annotation or a switch block.
    */
   public static <T extends Tree> Matcher<T> kindIs(final Kind kind) {
-    return new Matcher<T>() {
+    return new SyntacticMatcher<T>() {
       @Override public boolean matches(T tree, VisitorState state) {
         return tree.getKind() == kind;
       }
@@ -127,7 +320,7 @@ public class Matchers {
    * Matches an AST node which is the same object reference as the given node.
    */
    public static <T extends Tree> Matcher<T> isSame(final Tree t) {
-    return new Matcher<T>() {
+    return new SyntacticMatcher<T>() {
       @Override public boolean matches(T tree, VisitorState state) {
         return tree == t;
       }
@@ -489,12 +682,26 @@ public class Matchers {
    * @param methodName The name of the method to match, e.g., "equals"
    */
   public static Matcher<MethodTree> methodIsNamed(final String methodName) {
-    return new Matcher<MethodTree>() {
-      @Override
-      public boolean matches(MethodTree methodTree, VisitorState state) {
-        return methodTree.getName().toString().equals(methodName);
-      }
-    };
+    return new MethodIsNamed(methodName);
+  }
+
+  private static class MethodIsNamed extends SyntacticMatcher<MethodTree>
+      implements MethodNameFilter {
+    private final String methodName;
+
+    MethodIsNamed(String methodName) {
+      this.methodName = methodName;
+    }
+
+    @Override
+    public boolean matches(MethodTree methodTree, VisitorState state) {
+      return methodTree.getName().contentEquals(methodName);
+    }
+
+    @Override
+    public Set<String> getMethodNames() {
+      return Collections.singleton(methodName);
+    }
   }
 
   /**
@@ -503,7 +710,7 @@ public class Matchers {
    * @param prefix The prefix.
    */
   public static Matcher<MethodTree> methodNameStartsWith(final String prefix) {
-    return new Matcher<MethodTree>() {
+    return new SyntacticMatcher<MethodTree>() {
       @Override
       public boolean matches(MethodTree methodTree, VisitorState state) {
         return methodTree.getName().toString().startsWith(prefix);
@@ -562,9 +769,22 @@ public class Matchers {
    * @return True if some method in the class matches the given methodMatcher.
    */
   public static Matcher<ClassTree> hasMethod(final Matcher<MethodTree> methodMatcher) {
+    final Set<String> methodNames = methodNames(methodMatcher);
     return new Matcher<ClassTree>() {
       @Override
       public boolean matches(ClassTree t, VisitorState state) {
+        if (methodNames != null) {
+          // Only the methods with the right names need to be looked at.
+          MemberIndex index = MemberIndex.instance(state.context);
+          for (String methodName : methodNames) {
+            for (MethodTree method : index.getMethods(t, state.getName(methodName))) {
+              if (methodMatcher.matches(method, state)) {
+                return true;
+              }
+            }
+          }
+          return false;
+        }
         for (Tree member : t.getMembers()) {
           if (member instanceof MethodTree) {
             if (methodMatcher.matches((MethodTree)member, state)) {
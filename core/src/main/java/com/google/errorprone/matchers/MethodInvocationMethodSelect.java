@@ -20,11 +20,14 @@ import com.google.errorprone.VisitorState;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.MethodInvocationTree;
 
+import java.util.Set;
+
 /**
  * Adapts a matcher on MethodInvocationTree to match the MethodSelect of the MethodInvocation.
  * @author alexeagle@google.com (Alex Eagle)
  */
-public class MethodInvocationMethodSelect implements Matcher<MethodInvocationTree> {
+public class MethodInvocationMethodSelect
+    implements Matcher<MethodInvocationTree>, MethodNameFilter {
   private final Matcher<ExpressionTree> methodSelectMatcher;
 
   public MethodInvocationMethodSelect(Matcher<ExpressionTree> methodSelectMatcher) {
@@ -35,4 +38,9 @@ public class MethodInvocationMethodSelect implements Matcher<MethodInvocationTre
   public boolean matches(MethodInvocationTree item, VisitorState state) {
     return methodSelectMatcher.matches(item.getMethodSelect(), state);
   }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return Matchers.methodNames(methodSelectMatcher);
+  }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.matchers;
+
+import java.util.Set;
+
+/**
+ * Implemented by matchers, and by checkers of method invocations, which can only match the
+ * invocation or declaration of a method with one of a few simple names.  The scanner uses this to
+ * skip a checker on invocations of any other method without calling it, and
+ * {@link Matchers#hasMethod} to look only at the methods of a class with those names.
+ *
+ * <p>Matchers built from {@link Matchers#staticMethod}, {@link Matchers#instanceMethod},
+ * {@link Matchers#isDescendantOfMethod} and {@link Matchers#methodIsNamed}, and from
+ * {@link Matchers#methodSelect}, {@link Matchers#allOf} and {@link Matchers#anyOf} over those,
+ * know their method names; a checker can usually just return
+ * {@code Matchers.methodNames(matcher)} for the matcher it guards on.
+ */
+public interface MethodNameFilter {
+
+  /**
+   * Returns the simple names of the methods that may be matched, or null if any method may be.
+   */
+  Set<String> getMethodNames();
+}
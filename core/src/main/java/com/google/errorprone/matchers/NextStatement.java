@@ -18,13 +18,7 @@ package com.google.errorprone.matchers;
 
 import com.google.errorprone.VisitorState;
 
-import com.sun.source.tree.BlockTree;
 import com.sun.source.tree.StatementTree;
-import com.sun.source.tree.Tree;
-import com.sun.source.tree.Tree.Kind;
-import com.sun.source.util.TreePath;
-
-import java.util.List;
 
 /**
  * A matcher for the next statement following a given statement.
@@ -39,31 +33,6 @@ public class NextStatement<T extends StatementTree> implements Matcher<T> {
 
   @Override
   public boolean matches(T stmt, VisitorState state) {
-    // find enclosing block
-    TreePath path = state.getPath();
-    Tree prev = null;
-    Tree curr = path.getLeaf();     // initialized to curr node (if stmt)
-    boolean found = false;
-    while (path != null) {
-      prev = curr;
-      path = path.getParentPath();
-      curr = path.getLeaf();
-      if (curr.getKind() == Kind.BLOCK) {
-        found = true;
-        break;
-      }
-    }
-    assert(found);      // should always find an enclosing block
-    BlockTree block = (BlockTree)curr;
-    
-    // find next statement
-    List<? extends StatementTree> stmts = block.getStatements();
-    int ifStmtIdx = stmts.indexOf(prev);
-    StatementTree nextStmt = null;
-    if (ifStmtIdx < stmts.size() - 1) {  // TODO(eaftan): off by one?
-      nextStmt = stmts.get(ifStmtIdx + 1);
-    }
-    
-    return matcher.matches(nextStmt, state);
+    return matcher.matches(state.getNextStatement(), state);
   }
 }
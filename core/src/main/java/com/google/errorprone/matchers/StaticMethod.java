@@ -23,12 +23,15 @@ import com.sun.source.tree.ExpressionTree;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.MethodSymbol;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * Matches a static method expression.
  *
  * @author alexeagle@google.com (Alex Eagle)
  */
-public class StaticMethod implements Matcher<ExpressionTree> {
+public class StaticMethod implements Matcher<ExpressionTree>, MethodNameFilter {
   private final String fullClass;
   private final String methodName;
 
@@ -47,8 +50,13 @@ public class StaticMethod implements Matcher<ExpressionTree> {
       return false;
     }
 
-    boolean methodSame = sym.getQualifiedName().toString().equals(methodName);
-    boolean classSame = sym.owner.getQualifiedName().toString().equals(fullClass);
-    return methodSame && classSame;
+    // Names are interned, so comparing them is cheaper than comparing the strings they render.
+    return sym.getQualifiedName().equals(state.getName(methodName))
+        && sym.owner.getQualifiedName().equals(state.getName(fullClass));
+  }
+
+  @Override
+  public Set<String> getMethodNames() {
+    return Collections.singleton(methodName);
   }
 }
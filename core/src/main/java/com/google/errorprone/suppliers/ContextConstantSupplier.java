@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.suppliers;
+
+import com.google.errorprone.VisitorState;
+
+import com.sun.tools.javac.util.Context;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A supplier whose value depends only on the compilation, and not on where the visitor is in it,
+ * such as a type from the symbol table.  The value is computed the first time it is asked for in
+ * each javac Context, and kept in the Context, so it goes away with the compilation.
+ *
+ * @see Suppliers#contextConstant
+ */
+public class ContextConstantSupplier<T> implements Supplier<T> {
+
+  private static final Object NULL = new Object();
+
+  private final Supplier<T> supplier;
+
+  ContextConstantSupplier(Supplier<T> supplier) {
+    this.supplier = supplier;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")  // Each supplier's entry holds what it supplied.
+  public T get(VisitorState state) {
+    Values values = Values.instance(state.context);
+    Object value = values.map.get(this);
+    if (value == null) {
+      value = supplier.get(state);
+      values.map.put(this, value == null ? NULL : value);
+    }
+    return value == NULL ? null : (T) value;
+  }
+
+  /**
+   * The values of the suppliers which have been asked for in one Context.
+   */
+  private static class Values {
+    final Map<ContextConstantSupplier<?>, Object> map =
+        new IdentityHashMap<ContextConstantSupplier<?>, Object>();
+
+    static Values instance(Context context) {
+      Values instance = context.get(Values.class);
+      if (instance == null) {
+        instance = new Values();
+        context.put(Values.class, instance);
+      }
+      return instance;
+    }
+  }
+}
@@ -65,7 +65,10 @@ public class Suppliers {
   }
 
   /**
-   * Given the string representation of a type, supplies the corresponding type.
+   * Given the string representation of a type, supplies the corresponding type.  The type is
+   * resolved once per compilation however many suppliers ask for it, since
+   * {@link VisitorState#getTypeFromString} caches it by name; this supplier keeps nothing itself,
+   * so matchers built on every call cost no more than those built once.
    *
    * @param typeString a string representation of a type, e.g., "java.util.List"
    */
@@ -78,26 +81,54 @@ public class Suppliers {
     };
   }
 
-  public static final Supplier<Type> BOOLEAN_TYPE = new Supplier<Type>() {
+  public static final Supplier<Type> BOOLEAN_TYPE = contextConstant(new Supplier<Type>() {
       @Override
       public Type get(VisitorState state) {
         return state.getSymtab().booleanType;
       }
-    };
+    });
 
-  public static final Supplier<Type> OBJECT_TYPE = new Supplier<Type>() {
+  public static final Supplier<Type> OBJECT_TYPE = contextConstant(new Supplier<Type>() {
       @Override
       public Type get(VisitorState state) {
         return state.getSymtab().objectType;
       }
-    };
+    });
 
-  public static final Supplier<Type> EXCEPTION_TYPE = new Supplier<Type>() {
+  public static final Supplier<Type> EXCEPTION_TYPE = contextConstant(new Supplier<Type>() {
       @Override
       public Type get(VisitorState state) {
         return state.getSymtab().exceptionType;
       }
+    });
+
+  /**
+   * Supplies what the given supplier does, computing it only once per compilation.  Only for
+   * suppliers which don't depend on where the visitor is, such as those which read the symbol
+   * table.  Each supplier returned keeps an entry in every compilation it is asked in, so this is
+   * meant for suppliers held in static fields rather than built per match.
+   */
+  public static <T> Supplier<T> contextConstant(Supplier<T> supplier) {
+    if (supplier instanceof ContextConstantSupplier) {
+      return supplier;
+    }
+    return new ContextConstantSupplier<T>(supplier);
+  }
+
+  /**
+   * Supplies the erasure of the type the given supplier supplies, or null if it supplies null.
+   * The erasure is computed once per compilation if the type is.
+   */
+  public static Supplier<Type> erasureOf(final Supplier<Type> typeSupplier) {
+    Supplier<Type> erasure = new Supplier<Type>() {
+      @Override
+      public Type get(VisitorState state) {
+        Type type = typeSupplier.get(state);
+        return type == null ? null : state.getTypes().erasure(type);
+      }
     };
+    return typeSupplier instanceof ContextConstantSupplier ? contextConstant(erasure) : erasure;
+  }
 
   /**
    * Supplies what was given. Useful for adapting to methods that require a supplier.
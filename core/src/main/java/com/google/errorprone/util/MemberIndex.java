@@ -0,0 +1,105 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.Tree;
+import com.sun.tools.javac.code.Scope;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+import com.sun.tools.javac.code.Symbol.TypeSymbol;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.Name;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Looks up the methods of a class by name, so that checkers in one compilation need not pass over
+ * all of the class's members.  A class symbol's scope is already hashed by name, so its methods
+ * are looked up there directly.  A class tree's methods are indexed the first time it is asked
+ * about; the index lives as long as the compilation, but the trees, which javac may drop once a
+ * compilation unit has been generated, are only weakly held.
+ */
+public class MemberIndex {
+
+  private final Map<ClassTree, Map<Name, List<MethodTree>>> trees =
+      new WeakHashMap<ClassTree, Map<Name, List<MethodTree>>>();
+
+  /**
+   * Returns the index for the given context, creating it if needed.
+   */
+  public static MemberIndex instance(Context context) {
+    MemberIndex instance = context.get(MemberIndex.class);
+    if (instance == null) {
+      instance = new MemberIndex();
+      context.put(MemberIndex.class, instance);
+    }
+    return instance;
+  }
+
+  /**
+   * Returns the methods and constructors with the given name which are members of the given
+   * class's scope, in the order the scope lists them.
+   */
+  public List<MethodSymbol> getMethods(TypeSymbol owner, Name name) {
+    List<MethodSymbol> methods = new ArrayList<MethodSymbol>(1);
+    for (Scope.Entry e = owner.members().lookup(name); e.scope != null; e = e.next()) {
+      if (e.sym instanceof MethodSymbol) {
+        methods.add((MethodSymbol) e.sym);
+      }
+    }
+    return methods;
+  }
+
+  /**
+   * Returns the method declarations with the given name among the members of the given class,
+   * in declaration order.  The list must not be modified.
+   */
+  public List<MethodTree> getMethods(ClassTree owner, Name name) {
+    Map<Name, List<MethodTree>> byName = trees.get(owner);
+    if (byName == null) {
+      byName = new HashMap<Name, List<MethodTree>>();
+      for (Tree member : owner.getMembers()) {
+        if (member instanceof MethodTree) {
+          MethodTree method = (MethodTree) member;
+          add(byName, (Name) method.getName(), method);
+        }
+      }
+      trees.put(owner, byName);
+    }
+    return get(byName, name);
+  }
+
+  private static <T> void add(Map<Name, List<T>> byName, Name name, T member) {
+    List<T> members = byName.get(name);
+    if (members == null) {
+      members = new ArrayList<T>(1);
+      byName.put(name, members);
+    }
+    members.add(member);
+  }
+
+  private static <T> List<T> get(Map<Name, List<T>> byName, Name name) {
+    List<T> members = byName.get(name);
+    return members == null ? Collections.<T>emptyList() : members;
+  }
+}
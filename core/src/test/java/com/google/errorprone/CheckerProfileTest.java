@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.internal.matchers.StringContains.containsString;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link CheckerProfile}.
+ */
+public class CheckerProfileTest {
+
+  private CheckerProfile profile;
+
+  @Before
+  public void setUp() {
+    profile = new CheckerProfile(Arrays.asList("Fast", "Slow", "Unused"));
+    profile.recordCall(0, 1000000, false);
+    profile.recordCall(1, 3000000, true);
+    profile.recordCall(1, 2000000, false);
+    profile.recordSuppressed(1);
+    profile.recordSuppressionHandling(500000);
+    profile.recordReport(250000);
+  }
+
+  @Test
+  public void tableListsTheSlowestCheckersFirst() {
+    String table = profile.toTable();
+    assertTrue(table, table.indexOf("Slow") < table.indexOf("Fast"));
+    assertThat(table, containsString(String.format("%-40s %10d %8d %10d %10.2f",
+        "Slow", 2, 1, 1, 5.0)));
+    assertThat(table.contains("Unused"), is(false));
+    assertThat(table, containsString("suppressions (1 declarations)"));
+    assertThat(table, containsString("reporting and fixes (1 findings)"));
+  }
+
+  @Test
+  public void jsonHasEveryChecker() throws Exception {
+    StringWriter json = new StringWriter();
+    profile.writeJson(json);
+    assertThat(json.toString(), containsString(
+        "{\"name\": \"Slow\", \"calls\": 2, \"matches\": 1, \"suppressed\": 1, "
+        + "\"nanos\": 5000000},\n    {\"name\": \"Fast\""));
+    assertThat(json.toString(), containsString(
+        "{\"name\": \"Unused\", \"calls\": 0, \"matches\": 0, \"suppressed\": 0, \"nanos\": 0}"));
+    assertThat(json.toString(), containsString(
+        "\"suppressions\": {\"declarations\": 1, \"nanos\": 500000}"));
+    assertThat(json.toString(), containsString(
+        "\"reporting\": {\"findings\": 1, \"nanos\": 250000}"));
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.SelfEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the {@link CheckerRegistry} generated for error-prone's own checkers.
+ */
+public class CheckerRegistryTest {
+
+  @Test
+  public void registersTheCheckers() {
+    List<Class<?>> checkerClasses = new ArrayList<Class<?>>();
+    for (CheckerRegistry.Entry entry : CheckerRegistry.allEntries()) {
+      checkerClasses.add(entry.getCheckerClass());
+    }
+    assertTrue(checkerClasses.contains(SelfEquals.class));
+  }
+
+  @Test
+  public void entriesAgreeWithTheCheckerClasses() {
+    for (CheckerRegistry.Entry entry : CheckerRegistry.allEntries()) {
+      BugPattern annotation = entry.getCheckerClass().getAnnotation(BugPattern.class);
+      BugPattern pattern = entry.getPattern();
+      assertThat(pattern.name(), is(annotation.name()));
+      assertThat(Arrays.asList(pattern.altNames()), is(Arrays.asList(annotation.altNames())));
+      assertThat(pattern.linkType(), is(annotation.linkType()));
+      assertThat(pattern.link(), is(annotation.link()));
+      assertThat(pattern.category(), is(annotation.category()));
+      assertThat(pattern.summary(), is(annotation.summary()));
+      assertThat(pattern.formatSummary(), is(annotation.formatSummary()));
+      assertThat(pattern.explanation(), is(annotation.explanation()));
+      assertThat(pattern.severity(), is(annotation.severity()));
+      assertThat(pattern.maturity(), is(annotation.maturity()));
+
+      Set<Class<?>> matcherTypes = new HashSet<Class<?>>();
+      for (Class<?> matcherType : BugChecker.class.getDeclaredClasses()) {
+        if (matcherType.isInterface() && matcherType.isAssignableFrom(entry.getCheckerClass())) {
+          matcherTypes.add(matcherType);
+        }
+      }
+      assertThat(new HashSet<Class<?>>(entry.getMatcherTypes()), is(matcherTypes));
+
+      BugChecker checker = entry.newChecker();
+      assertThat(checker.getClass() == entry.getCheckerClass(), is(true));
+    }
+  }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.errorprone.CompilationTestHelper.sources;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.internal.matchers.StringContains.containsString;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+/**
+ * Tests for {@link CompileServer} and {@link CompileClient}.
+ */
+public class CompileServerTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private CompileServer server;
+  private Thread serverThread;
+  private File addressFile;
+  private File classes;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new CompileServer(0);
+    addressFile = new File(temporaryFolder.getRoot(), "address");
+    server.writeAddressTo(addressFile);
+    classes = temporaryFolder.newFolder("classes");
+    serverThread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          server.serve();
+        } catch (IOException e) {
+          throw new AssertionError(e);
+        }
+      }
+    };
+    serverThread.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.stop();
+    serverThread.join();
+  }
+
+  private int compile(StringWriter output, String... args) throws IOException {
+    return CompileClient.compile(addressFile, args, new PrintWriter(output, true));
+  }
+
+  @Test
+  public void compilesOnTheServer() throws Exception {
+    String[] source = sources(getClass(),
+        "com/google/errorprone/bugpatterns/EmptyIfStatementNegativeCases.java");
+    StringWriter output = new StringWriter();
+    int exitCode = compile(output, "-d", classes.getPath(), source[0]);
+    assertThat(output.toString(), exitCode, is(0));
+    assertTrue(new File(classes,
+        "com/google/errorprone/bugpatterns/EmptyIfStatementNegativeCases.class").exists());
+  }
+
+  @Test
+  public void reportsFindingsFromEachCompile() throws Exception {
+    String[] source = sources(getClass(),
+        "com/google/errorprone/bugpatterns/EmptyIfStatementPositiveCases.java");
+    for (int i = 0; i < 2; i++) {
+      StringWriter output = new StringWriter();
+      int exitCode = compile(output, "-d", classes.getPath(), source[0]);
+      assertThat(exitCode, is(1));
+      assertThat(output.toString(), containsString("[EmptyIf]"));
+    }
+  }
+
+  /**
+   * Compiles run one at a time, since some checkers share static matchers which keep state while
+   * matching; so compiles sent at the same time should report exactly what they would alone.
+   */
+  @Test
+  public void concurrentCompilesReportTheirOwnFindings() throws Exception {
+    String[] sources = sources(getClass(),
+        "com/google/errorprone/bugpatterns/EmptyIfStatementPositiveCases.java",
+        "com/google/errorprone/bugpatterns/GuiceAssistedInjectScopingPositiveCases.java");
+    final String classpath = System.getProperty("java.class.path");
+    String[] expected = new String[sources.length];
+    for (int i = 0; i < sources.length; i++) {
+      StringWriter output = new StringWriter();
+      assertThat(compile(output, "-cp", classpath, "-d", classes.getPath(), sources[i]), is(1));
+      expected[i] = output.toString();
+    }
+    assertThat(expected[1], containsString("[GuiceAssistedInjectScoping]"));
+
+    final int compiles = 8;
+    final String[] outputs = new String[compiles];
+    final Throwable[] failures = new Throwable[compiles];
+    Thread[] threads = new Thread[compiles];
+    for (int i = 0; i < compiles; i++) {
+      final int compile = i;
+      final String source = sources[i % sources.length];
+      final File output = temporaryFolder.newFolder("classes" + i);
+      threads[i] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            StringWriter out = new StringWriter();
+            compile(out, "-cp", classpath, "-d", output.getPath(), source);
+            outputs[compile] = out.toString();
+          } catch (Throwable t) {
+            failures[compile] = t;
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (int i = 0; i < compiles; i++) {
+      threads[i].join();
+      if (failures[i] != null) {
+        throw new AssertionError(failures[i]);
+      }
+      assertThat(outputs[i], is(expected[i % sources.length]));
+    }
+  }
+
+  @Test
+  public void refusesRequestsWithoutTheToken() throws Exception {
+    File wrongAddress = new File(temporaryFolder.getRoot(), "wrong");
+    Files.write(server.getPort() + " 0123\n", wrongAddress, Charsets.UTF_8);
+    try {
+      CompileClient.compile(wrongAddress, new String[0], new PrintWriter(new StringWriter()));
+      fail();
+    } catch (IOException expected) {
+      assertThat(expected.getMessage(), containsString("wrong token"));
+    }
+  }
+
+  @Test
+  public void refusesOverlongTokens() throws Exception {
+    File wrongAddress = new File(temporaryFolder.getRoot(), "wrong");
+    StringBuilder token = new StringBuilder();
+    for (int i = 0; i < 65; i++) {
+      token.append('0');
+    }
+    Files.write(server.getPort() + " " + token + "\n", wrongAddress, Charsets.UTF_8);
+    try {
+      CompileClient.compile(wrongAddress, new String[0], new PrintWriter(new StringWriter()));
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void failsWithoutAServer() throws Exception {
+    try {
+      CompileClient.compile(new File(temporaryFolder.getRoot(), "missing"), new String[0],
+          new PrintWriter(new StringWriter()));
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void resolvesPathsAgainstTheClientsDirectory() {
+    File dir = new File("/work");
+    String[] resolved = CompileServer.resolveAgainst(dir, new String[] {
+        "-d", "out", "-cp", "lib/a.jar" + File.pathSeparator + "/abs/b.jar", "-encoding", "UTF-8",
+        "-XepProfile=profile.json", "src/A.java", "/abs/B.java"});
+    assertThat(Arrays.asList(resolved), is(Arrays.asList(
+        "-XepWorkingDir=" + dir.getPath(),
+        "-d", new File(dir, "out").getPath(),
+        "-cp", new File(dir, "lib/a.jar").getPath() + File.pathSeparator + "/abs/b.jar",
+        "-encoding", "UTF-8",
+        "-XepProfile=" + new File(dir, "profile.json").getPath(),
+        new File(dir, "src/A.java").getPath(),
+        "/abs/B.java")));
+  }
+
+  @Test
+  public void defaultsTheClasspathToTheClientsDirectory() {
+    File dir = new File("/work");
+    String[] resolved = CompileServer.resolveAgainst(dir, new String[] {"A.java"});
+    assertThat(Arrays.asList(resolved), is(Arrays.asList(
+        "-XepWorkingDir=" + dir.getPath(),
+        "-classpath", dir.getPath(), new File(dir, "A.java").getPath())));
+  }
+
+  @Test
+  public void keepsAWorkingDirectoryTheClientGives() {
+    File dir = new File("/work");
+    String[] resolved = CompileServer.resolveAgainst(dir, new String[] {
+        "-cp", "/abs", "-XepWorkingDir=src", "A.java"});
+    assertThat(Arrays.asList(resolved), is(Arrays.asList(
+        "-cp", "/abs",
+        "-XepWorkingDir=" + new File(dir, "src").getPath(),
+        new File(dir, "A.java").getPath())));
+  }
+}
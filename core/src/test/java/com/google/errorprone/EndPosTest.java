@@ -21,6 +21,9 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -60,4 +63,25 @@ public class EndPosTest {
         containsString("Did you mean 'this.a = b;'?"));
 
   }
+
+  @Test
+  public void endPositionsAreRecordedWhenParsing() throws Exception {
+    final boolean[] hasEndPositions = new boolean[1];
+    compiler = new ErrorProneCompiler.Builder()
+        .named("test")
+        .redirectOutputTo(printWriter)
+        .report(new Scanner() {
+          @Override
+          public Void visitCompilationUnit(CompilationUnitTree tree, VisitorState state) {
+            hasEndPositions[0] = ((JCCompilationUnit) tree).endPositions != null;
+            return null;
+          }
+        })
+        .build();
+    int exitCode = compiler.compile(sources(getClass(),
+        "com/google/errorprone/bugpatterns/SelfAssignmentPositiveCases1.java"));
+    outputStream.flush();
+    assertThat(exitCode, is(0));
+    assertThat("End positions should not need a second parse", hasEndPositions[0], is(true));
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * Tests for {@link EndPositionIndex}.
+ */
+public class EndPositionIndexTest {
+
+  private static final String SOURCE =
+      "import java.util.List;\n"
+      + "public class A {\n"
+      + "  @SuppressWarnings(\"unchecked\")\n"
+      + "  int sum(List<Integer> values, int[] more) {\n"
+      + "    int sum = 0;\n"
+      + "    for (int value : values) {\n"
+      + "      sum += value * 2 + more[value % more.length];\n"
+      + "    }\n"
+      + "    return sum > 0 ? sum : -sum;\n"
+      + "  }\n"
+      + "}\n";
+
+  @Test
+  public void findsEndPositionsByTheTreesOfAnotherParse() throws Exception {
+    Map<JCTree, Integer> original = parse(SOURCE).endPositions;
+    Map<JCTree, Integer> reparsed = parse(SOURCE).endPositions;
+    EndPositionIndex index = new EndPositionIndex(original);
+    assertThat(index.size(), is(original.size()));
+
+    // Trees which share a start position, kind and tag can't be told apart; skip those.
+    Map<Long, Integer> keyCounts = new HashMap<Long, Integer>();
+    for (JCTree tree : original.keySet()) {
+      Long key = EndPositionIndex.keyOf(tree);
+      keyCounts.put(key, keyCounts.containsKey(key) ? keyCounts.get(key) + 1 : 1);
+    }
+    int checked = 0;
+    for (Map.Entry<JCTree, Integer> entry : reparsed.entrySet()) {
+      if (keyCounts.get(EndPositionIndex.keyOf(entry.getKey())) == 1) {
+        assertThat(entry.getKey().toString(), index.get(entry.getKey()), is(entry.getValue()));
+        checked++;
+      }
+    }
+    assertThat(checked > original.size() / 2, is(true));
+  }
+
+  @Test
+  public void returnsNullForUnknownTrees() throws Exception {
+    EndPositionIndex index = new EndPositionIndex(parse(SOURCE).endPositions);
+    JCCompilationUnit other = parse("class B {}\n");
+    assertThat(index.get(other.getTypeDecls().get(0)), is(nullValue()));
+    assertThat(index.get("not a tree"), is(nullValue()));
+  }
+
+  private static JCCompilationUnit parse(final String source) throws Exception {
+    JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///A.java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+    // javac records end positions whenever a diagnostic listener is registered.
+    JavacTask task = (JavacTask) ToolProvider.getSystemJavaCompiler().getTask(null, null,
+        new DiagnosticCollector<JavaFileObject>(), null, null, Arrays.asList(file));
+    CompilationUnitTree unit = task.parse().iterator().next();
+    return (JCCompilationUnit) unit;
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2012 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static com.google.errorprone.BugPattern.Category.ONE_OFF;
+import static com.google.errorprone.BugPattern.MaturityLevel.EXPERIMENTAL;
+import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.errorprone.bugpatterns.BugChecker;
+import com.google.errorprone.bugpatterns.BugChecker.MethodInvocationTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.ReturnTreeMatcher;
+import com.google.errorprone.bugpatterns.BugChecker.UnaryTreeMatcher;
+import com.google.errorprone.matchers.CompilerBasedTest;
+import com.google.errorprone.matchers.Description;
+import com.google.errorprone.matchers.MethodNameFilter;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.ReturnTree;
+import com.sun.source.tree.UnaryTree;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the node-kind and method-name dispatch and SuppressWarnings handling in
+ * {@link ErrorProneScanner}.
+ */
+public class ErrorProneScannerTest extends CompilerBasedTest {
+
+  @Test
+  public void dispatchesToMatchersForAllNodeKinds() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  int count(int i) {",
+        "    i++;",
+        "    --i;",
+        "    return -i;",
+        "  }",
+        "}"
+    );
+    CountingChecker checker = new CountingChecker();
+    assertCompiles(new ErrorProneScanner(checker));
+    assertThat(checker.returns, is(1));
+    // POSTFIX_INCREMENT, PREFIX_DECREMENT and UNARY_MINUS all share the UnaryTree interface.
+    assertThat(checker.unaries, is(3));
+  }
+
+  @Test
+  public void respectsSuppressWarningsForNewNodeKinds() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  @SuppressWarnings(\"CountingChecker\")",
+        "  int count(int i) {",
+        "    return -i;",
+        "  }",
+        "}"
+    );
+    CountingChecker checker = new CountingChecker();
+    assertCompiles(new ErrorProneScanner(checker));
+    assertThat(checker.returns, is(0));
+    assertThat(checker.unaries, is(0));
+  }
+
+  @Test
+  public void suppressionsAreScopedToTheAnnotatedDeclaration() throws Exception {
+    writeFile("A.java",
+        "@SuppressWarnings(\"unchecked\")",
+        "public class A {",
+        "  @SuppressWarnings({\"deprecation\", \"CountingChecker\"})",
+        "  int suppressed(int i) {",
+        "    return -i;",
+        "  }",
+        "  int notSuppressed(int i) {",
+        "    return -i;",
+        "  }",
+        "}"
+    );
+    CountingChecker checker = new CountingChecker();
+    assertCompiles(new ErrorProneScanner(checker));
+    assertThat(checker.returns, is(1));
+    assertThat(checker.unaries, is(1));
+  }
+
+  @Test
+  public void readsAnnotationsOfDeclarationsOnly() throws Exception {
+    List<String> lines = new ArrayList<String>();
+    lines.add("public class A {");
+    lines.add("  @SuppressWarnings(\"unchecked\") int field;");
+    lines.add("  int sum() {");
+    lines.add("    int sum = 0;");
+    for (int i = 0; i < 500; i++) {
+      lines.add("    sum += field;");
+    }
+    lines.add("    return sum;");
+    lines.add("  }");
+    lines.add("}");
+    writeFile("A.java", lines.toArray(new String[lines.size()]));
+    ErrorProneScanner scanner = new ErrorProneScanner(new CountingChecker());
+    assertCompiles(scanner);
+    // The package, the class, its default constructor, the field, the method and the local.
+    assertThat(scanner.getAnnotationLookups(), is(6));
+  }
+
+  @Test
+  public void doesNotInternWarningNamesNoCheckerAnswersTo() throws Exception {
+    List<String> lines = new ArrayList<String>();
+    lines.add("public class A {");
+    for (int i = 0; i < 100; i++) {
+      lines.add("  @SuppressWarnings({\"unchecked\", \"name" + i + "\"}) int field" + i + ";");
+    }
+    lines.add("}");
+    writeFile("A.java", lines.toArray(new String[lines.size()]));
+    ErrorProneScanner scanner = new ErrorProneScanner(new CountingChecker());
+    int checkerNames = scanner.getInternedNameCount();
+    assertCompiles(scanner);
+    assertCompiles(scanner);
+    assertThat(scanner.getInternedNameCount(), is(checkerNames));
+  }
+
+  @Test
+  public void callsMethodNameFiltersOnlyForTheirMethods() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  String f(String s) {",
+        "    s.trim();",
+        "    s.length();",
+        "    return s.trim().toString();",
+        "  }",
+        "}"
+    );
+    InvocationCountingChecker everything = new InvocationCountingChecker(null);
+    InvocationCountingChecker trims = new InvocationCountingChecker(Collections.singleton("trim"));
+    assertCompiles(new ErrorProneScanner(everything, trims));
+    // The default constructor's call to super(), trim() twice, length() and toString().
+    assertThat(everything.invocations, is(5));
+    assertThat(trims.invocations, is(2));
+  }
+
+  @BugPattern(name = "CountingChecker", summary = "Counts nodes", explanation = "Counts nodes",
+      category = ONE_OFF, severity = WARNING, maturity = EXPERIMENTAL)
+  private static class CountingChecker extends BugChecker
+      implements ReturnTreeMatcher, UnaryTreeMatcher {
+    int returns = 0;
+    int unaries = 0;
+
+    @Override
+    public Description matchReturn(ReturnTree tree, VisitorState state) {
+      returns++;
+      return Description.NO_MATCH;
+    }
+
+    @Override
+    public Description matchUnary(UnaryTree tree, VisitorState state) {
+      unaries++;
+      return Description.NO_MATCH;
+    }
+  }
+
+  @BugPattern(name = "InvocationCountingChecker", summary = "Counts method invocations",
+      explanation = "Counts method invocations", category = ONE_OFF, severity = WARNING,
+      maturity = EXPERIMENTAL)
+  private static class InvocationCountingChecker extends BugChecker
+      implements MethodInvocationTreeMatcher, MethodNameFilter {
+    private final Set<String> methodNames;
+    int invocations = 0;
+
+    InvocationCountingChecker(Set<String> methodNames) {
+      this.methodNames = methodNames;
+    }
+
+    @Override
+    public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
+      invocations++;
+      return Description.NO_MATCH;
+    }
+
+    @Override
+    public Set<String> getMethodNames() {
+      return methodNames;
+    }
+  }
+}
@@ -23,12 +23,17 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.internal.matchers.StringContains.containsString;
 
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 import com.google.errorprone.bugpatterns.DeadException;
 import org.hamcrest.Matcher;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 
@@ -40,6 +45,8 @@ import javax.tools.JavaFileObject;
  */
 public class ErrorReportingJavaCompilerIntegrationTest {
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private DiagnosticTestHelper diagnosticHelper;
   private PrintWriter printWriter;
   private ByteArrayOutputStream outputStream;
@@ -121,4 +128,175 @@ public class ErrorReportingJavaCompilerIntegrationTest {
     assertThat("Warning should be found. " + diagnosticHelper.describe(),
         diagnosticHelper.getDiagnostics(), matcher);
   }
+
+  @Test
+  public void cachedFindingsAreReportedWithoutScanning() throws Exception {
+    String[] args = {
+        "-XepCacheDir=" + temporaryFolder.newFolder("cache").getAbsolutePath(),
+        "-cp", temporaryFolder.newFolder("classpath").getAbsolutePath(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        sources(getClass(),
+            "com/google/errorprone/bugpatterns/EmptyIfStatementPositiveCases.java")[0]};
+    assertThat(compiler.compile(args), is(1));
+    assertThat(diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString("0 hits, 1 misses"))));
+
+    diagnosticHelper = new DiagnosticTestHelper();
+    compiler = compilerBuilder.listenToDiagnostics(diagnosticHelper.collector).build();
+    assertThat(compiler.compile(args), is(1));
+    assertThat("Error should be found. " + diagnosticHelper.describe(),
+        diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString("[EmptyIf]"))));
+    assertThat(diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString("1 hits, 0 misses"))));
+  }
+
+  @Test
+  public void cachedFindingsAreNotReusedWhenAnotherSourceChanges() throws Exception {
+    File sources = temporaryFolder.newFolder("src");
+    File dependency = new File(sources, "B.java");
+    Files.write("public class A { B b; }", new File(sources, "A.java"), Charsets.UTF_8);
+    Files.write("public class B {}", dependency, Charsets.UTF_8);
+    String[] args = {
+        "-XepCacheDir=" + temporaryFolder.newFolder("cache").getAbsolutePath(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        new File(sources, "A.java").getAbsolutePath(), dependency.getAbsolutePath()};
+    assertCacheStatistics(args, "0 hits, 2 misses");
+    assertCacheStatistics(args, "2 hits, 0 misses");
+
+    Files.write("public class B { int i; }", dependency, Charsets.UTF_8);
+    assertCacheStatistics(args, "0 hits, 2 misses");
+  }
+
+  @Test
+  public void cachedFindingsAreNotReusedWhenTheSourcepathChanges() throws Exception {
+    File sources = temporaryFolder.newFolder("src");
+    File dependency = new File(sources, "B.java");
+    Files.write("public class A { B b; }", new File(sources, "A.java"), Charsets.UTF_8);
+    Files.write("public class B {}", dependency, Charsets.UTF_8);
+    String[] args = {
+        "-XepCacheDir=" + temporaryFolder.newFolder("cache").getAbsolutePath(),
+        "-sourcepath", sources.getAbsolutePath(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        new File(sources, "A.java").getAbsolutePath()};
+    assertCacheStatistics(args, "0 hits, 1 misses");
+    assertCacheStatistics(args, "1 hits, 0 misses");
+
+    Files.write("public class B { int i; }", dependency, Charsets.UTF_8);
+    assertCacheStatistics(args, "0 hits, 1 misses");
+  }
+
+  @Test
+  public void cachedFindingsAreReusedWhenTheClassOutputIsOnTheClasspath() throws Exception {
+    File sources = temporaryFolder.newFolder("src");
+    Files.write("public class A {}", new File(sources, "A.java"), Charsets.UTF_8);
+    File classes = temporaryFolder.newFolder("classes");
+    String[] args = {
+        "-XepCacheDir=" + temporaryFolder.newFolder("cache").getAbsolutePath(),
+        "-cp", classes.getAbsolutePath(),
+        "-d", classes.getAbsolutePath(),
+        new File(sources, "A.java").getAbsolutePath()};
+    assertCacheStatistics(args, "0 hits, 1 misses");
+    assertCacheStatistics(args, "1 hits, 0 misses");
+  }
+
+  @Test
+  public void cachedFindingsAreNotReusedWhenAClassOnTheClasspathChanges() throws Exception {
+    File sources = temporaryFolder.newFolder("src");
+    File dependency = new File(sources, "B.java");
+    Files.write("public class A { B b; }", new File(sources, "A.java"), Charsets.UTF_8);
+    Files.write("public class B {}", dependency, Charsets.UTF_8);
+    File library = temporaryFolder.newFolder("lib");
+    String[] libraryArgs = {"-d", library.getAbsolutePath(), dependency.getAbsolutePath()};
+    assertThat(compilerBuilder.build().compile(libraryArgs), is(0));
+    String[] args = {
+        "-XepCacheDir=" + temporaryFolder.newFolder("cache").getAbsolutePath(),
+        "-cp", library.getAbsolutePath(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        new File(sources, "A.java").getAbsolutePath()};
+    assertCacheStatistics(args, "0 hits, 1 misses");
+    assertCacheStatistics(args, "1 hits, 0 misses");
+
+    Files.write("public class B { int i; }", dependency, Charsets.UTF_8);
+    assertThat(compilerBuilder.build().compile(libraryArgs), is(0));
+    assertCacheStatistics(args, "0 hits, 1 misses");
+  }
+
+  private void assertCacheStatistics(String[] args, String statistics) {
+    diagnosticHelper = new DiagnosticTestHelper();
+    compiler = compilerBuilder.listenToDiagnostics(diagnosticHelper.collector).build();
+    assertThat(compiler.compile(args), is(0));
+    assertThat(diagnosticHelper.describe(), diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString(statistics))));
+  }
+
+  @Test
+  public void suggestedFixesAreWrittenToPatchDirectory() throws Exception {
+    File patchDirectory = temporaryFolder.newFolder("patches");
+    String[] args = {
+        "-XepPatchDir=" + patchDirectory.getAbsolutePath(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        sources(getClass(),
+            "com/google/errorprone/bugpatterns/EmptyIfStatementPositiveCases.java")[0]};
+    assertThat(compiler.compile(args), is(1));
+    assertThat(diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString("to 1 patch files"))));
+    assertThat(patchDirectory.list().length, is(1));
+  }
+
+  @Test
+  public void patchPathsAreRelativeToTheGivenWorkingDirectory() throws Exception {
+    File patchDirectory = temporaryFolder.newFolder("patches");
+    File source = new File(sources(getClass(),
+        "com/google/errorprone/bugpatterns/EmptyIfStatementPositiveCases.java")[0]);
+    String[] args = {
+        "-XepPatchDir=" + patchDirectory.getAbsolutePath(),
+        "-XepWorkingDir=" + source.getAbsoluteFile().getParent(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        source.getPath()};
+    assertThat(compiler.compile(args), is(1));
+    assertThat(new File(patchDirectory, source.getName() + ".diff").isFile(), is(true));
+  }
+
+  @Test
+  public void profileIsReportedAndWrittenAsJson() throws Exception {
+    File profileFile = new File(temporaryFolder.getRoot(), "profile.json");
+    String[] args = {
+        "-XepProfile=" + profileFile.getAbsolutePath(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        sources(getClass(),
+            "com/google/errorprone/bugpatterns/EmptyIfStatementPositiveCases.java")[0]};
+    assertThat(compiler.compile(args), is(1));
+    assertThat(diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString("error-prone profile"))));
+    assertThat(diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString("EmptyIf"))));
+    String json = Files.toString(profileFile, Charsets.UTF_8);
+    assertThat(json, containsString("{\"name\": \"EmptyIf\", \"calls\": "));
+  }
+
+  @Test
+  public void findingsAreWrittenAsJsonLines() throws Exception {
+    File findingsFile = new File(temporaryFolder.getRoot(), "findings.jsonl");
+    String[] args = {
+        "-XepFindings=" + findingsFile.getAbsolutePath(),
+        "-d", temporaryFolder.newFolder("classes").getAbsolutePath(),
+        sources(getClass(),
+            "com/google/errorprone/bugpatterns/EmptyIfStatementPositiveCases.java")[0]};
+    assertThat(compiler.compile(args), is(1));
+    assertThat(diagnosticHelper.getDiagnostics(),
+        hasItem(diagnosticMessage(containsString("findings to " + findingsFile))));
+    String json = Files.toString(findingsFile, Charsets.UTF_8);
+    assertThat(json, containsString("{\"checker\": \"EmptyIf\", \"severity\": \"ERROR\""));
+    assertThat(json, containsString("\"replacements\": [{\"start\": "));
+  }
+
+  @Test
+  public void unknownErrorProneOptionIsRejected() throws Exception {
+    int exitCode = compiler.compile(new String[] {"-XepNoSuchOption",
+        sources(getClass(), "com/google/errorprone/MultipleTopLevelClassesWithNoErrors.java")[0]});
+    outputStream.flush();
+    assertThat(exitCode, is(2));
+    assertThat(outputStream.toString(), containsString("-XepNoSuchOption"));
+  }
 }
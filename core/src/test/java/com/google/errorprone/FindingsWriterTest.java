@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.internal.matchers.StringContains.containsString;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.fixes.Replacement;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for {@link FindingsWriter} and its formats.
+ */
+public class FindingsWriterTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final FindingsWriter.Finding WITH_FIX = new FindingsWriter.Finding("EmptyIf",
+      SeverityLevel.ERROR, "src/Foo.java", "file:/work/src/Foo.java", 120, 121, 7, 15,
+      "[EmptyIf] \"Empty\" statement\n  (see link)",
+      Arrays.asList(new Replacement(120, 121, ""), new Replacement(130, 130, "{}")));
+
+  private static final FindingsWriter.Finding WITHOUT_FIX = new FindingsWriter.Finding(null,
+      SeverityLevel.WARNING, "src/Bar.java", "file:/work/src/Bar.java", 5, 9, 1, 6, "message",
+      Collections.<Replacement>emptyList());
+
+  @Test
+  public void jsonLinesHasAnObjectPerLine() throws Exception {
+    StringWriter out = new StringWriter();
+    FindingsWriter writer = new JsonLinesFindingsWriter(out);
+    writer.write(WITH_FIX);
+    writer.write(WITHOUT_FIX);
+    writer.close();
+    String[] lines = out.toString().split("\n");
+    assertThat(lines.length, is(2));
+    assertThat(lines[0], is("{\"checker\": \"EmptyIf\", \"severity\": \"ERROR\", "
+        + "\"file\": \"src/Foo.java\", \"start\": 120, \"end\": 121, \"line\": 7, \"column\": 15, "
+        + "\"message\": \"[EmptyIf] \\\"Empty\\\" statement\\u000a  (see link)\", "
+        + "\"replacements\": [{\"start\": 120, \"end\": 121, \"replaceWith\": \"\"}, "
+        + "{\"start\": 130, \"end\": 130, \"replaceWith\": \"{}\"}]}"));
+    assertThat(lines[1], containsString("{\"checker\": null, \"severity\": \"WARNING\""));
+    assertThat(lines[1], containsString("\"replacements\": []}"));
+    assertThat(writer.getCount(), is(2));
+  }
+
+  @Test
+  public void sarifHasAResultPerFinding() throws Exception {
+    StringWriter out = new StringWriter();
+    FindingsWriter writer = new SarifFindingsWriter(out);
+    writer.writeHeader();
+    writer.write(WITH_FIX);
+    writer.write(WITHOUT_FIX);
+    writer.close();
+    String sarif = out.toString();
+    assertThat(sarif, containsString("\"version\": \"2.1.0\""));
+    assertThat(sarif, containsString("{\"ruleId\": \"EmptyIf\", \"level\": \"error\""));
+    assertThat(sarif, containsString(
+        "\"artifactLocation\": {\"uri\": \"file:/work/src/Foo.java\"}, \"region\": "
+        + "{\"startLine\": 7, \"startColumn\": 15, \"charOffset\": 120, \"charLength\": 1}"));
+    assertThat(sarif, containsString("{\"deletedRegion\": {\"charOffset\": 130, "
+        + "\"charLength\": 0}, \"insertedContent\": {\"text\": \"{}\"}}"));
+    assertThat(sarif, containsString("},\n      {\"level\": \"warning\""));
+    assertTrue(sarif, sarif.endsWith("}\n    ]\n  }]\n}\n"));
+  }
+
+  @Test
+  public void sarifWithNoFindingsIsComplete() throws Exception {
+    StringWriter out = new StringWriter();
+    FindingsWriter writer = new SarifFindingsWriter(out);
+    writer.writeHeader();
+    writer.close();
+    assertTrue(out.toString(), out.toString().endsWith("\"results\": [\n    ]\n  }]\n}\n"));
+  }
+
+  @Test
+  public void formatFollowsTheFileName() throws Exception {
+    File sarif = new File(temporaryFolder.getRoot(), "findings.sarif");
+    FindingsWriter.open(sarif).close();
+    assertThat(Files.toString(sarif, Charsets.UTF_8), containsString("\"runs\""));
+    File jsonLines = new File(temporaryFolder.getRoot(), "findings.jsonl");
+    FindingsWriter writer = FindingsWriter.open(jsonLines);
+    writer.write(WITHOUT_FIX);
+    writer.close();
+    assertTrue(Files.toString(jsonLines, Charsets.UTF_8).startsWith("{\"checker\": null"));
+  }
+}
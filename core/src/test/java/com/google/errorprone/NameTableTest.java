@@ -0,0 +1,57 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.errorprone.matchers.CompilerBasedTest;
+
+import com.sun.source.tree.MethodTree;
+import com.sun.tools.javac.tree.JCTree.JCMethodDecl;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link NameTable}.
+ */
+public class NameTableTest extends CompilerBasedTest {
+
+  @Test
+  public void returnsTheCompilersNames() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  void frobnicate() {}",
+        "}"
+    );
+    final boolean[] visited = {false};
+    assertCompiles(new Scanner() {
+      @Override
+      public Void visitMethod(MethodTree node, VisitorState state) {
+        if (node.getName().toString().equals("frobnicate")) {
+          assertThat(state.getName("frobnicate"), is(sameInstance(((JCMethodDecl) node).name)));
+          assertThat(state.getName("frobnicate"),
+              is(sameInstance(NameTable.instance(state.context).fromString("frobnicate"))));
+          visited[0] = true;
+        }
+        return super.visitMethod(node, state);
+      }
+    });
+    assertThat(visited[0], is(true));
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.google.errorprone.BugPattern.SeverityLevel;
+import com.google.errorprone.fixes.Replacement;
+import com.google.errorprone.fixes.SuggestedFix;
+import com.google.errorprone.matchers.Description;
+
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * Tests for {@link StructuredDescriptionListener}.
+ */
+public class StructuredDescriptionListenerTest {
+
+  private static final String SOURCE =
+      "package p;\n"
+      + "\n"
+      + "import java.util.List;\n"
+      + "\n"
+      + "class A {\n"
+      + "  List<String> a;\n"
+      + "  int b = 1;\n"
+      + "}\n";
+
+  private JavaFileObject file;
+  private JCCompilationUnit unit;
+  private JCVariableDecl field;
+  private RecordingWriter writer;
+
+  @Before
+  public void setUp() {
+    file = new SimpleJavaFileObject(URI.create("string:///p/A.java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return SOURCE;
+      }
+    };
+    // javac records end positions whenever a diagnostic listener is registered.
+    JavacTask task = (JavacTask) ToolProvider.getSystemJavaCompiler().getTask(null, null,
+        new DiagnosticCollector<JavaFileObject>(), null, null, Arrays.asList(file));
+    try {
+      unit = (JCCompilationUnit) task.parse().iterator().next();
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    field = (JCVariableDecl) ((JCClassDecl) unit.getTypeDecls().get(0)).getMembers().get(1);
+    writer = new RecordingWriter();
+  }
+
+  @Test
+  public void writesAddedImportsAsReplacements() {
+    describe(new SuggestedFix().replace(field.getInitializer(), "2")
+        .addImport("java.util.ArrayList"));
+
+    List<Replacement> replacements = writer.findings.get(0).replacements;
+    assertThat(replacements.size(), is(2));
+    int afterImports = SOURCE.indexOf("\n\nclass") + 1;
+    assertThat(replacements.get(0).startPosition, is(afterImports));
+    assertThat(replacements.get(0).endPosition, is(afterImports));
+    assertThat(replacements.get(0).replaceWith, is("import java.util.ArrayList;\n"));
+    assertThat(replacements.get(1).startPosition, is(SOURCE.indexOf("1;")));
+    assertThat(replacements.get(1).replaceWith, is("2"));
+  }
+
+  @Test
+  public void writesRemovedImportsAsReplacements() {
+    describe(new SuggestedFix().removeImport("java.util.List"));
+
+    List<Replacement> replacements = writer.findings.get(0).replacements;
+    assertThat(replacements.size(), is(1));
+    assertThat(replacements.get(0).startPosition, is(SOURCE.indexOf("import")));
+    assertThat(replacements.get(0).endPosition, is(SOURCE.indexOf("\n\nclass") + 1));
+    assertThat(replacements.get(0).replaceWith, is(""));
+  }
+
+  private void describe(SuggestedFix fix) {
+    new StructuredDescriptionListener(writer, unit, file).onDescribed(
+        new Description(field, "Checker", "message", fix, SeverityLevel.WARNING));
+  }
+
+  private static class RecordingWriter extends FindingsWriter {
+    final List<FindingsWriter.Finding> findings = new ArrayList<FindingsWriter.Finding>();
+
+    RecordingWriter() {
+      super(new StringWriter());
+    }
+
+    @Override
+    protected void writeFinding(FindingsWriter.Finding finding) {
+      findings.add(finding);
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.errorprone.matchers.CompilerBasedTest;
+
+import com.sun.source.tree.BlockTree;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.source.tree.StatementTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for {@link TreePathCursor}, and the paths and enclosing trees the {@link Scanner} gives
+ * matchers through it.
+ */
+public class TreePathCursorTest extends CompilerBasedTest {
+
+  @Test
+  public void matchersSeeThePathOfTheCurrentNode() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  void f(int x) {",
+        "    f(x);",
+        "  }",
+        "}"
+    );
+    final List<VisitorState> snapshots = new ArrayList<VisitorState>();
+    final List<Tree> identifiers = new ArrayList<Tree>();
+    assertCompiles(new Scanner() {
+      @Override
+      public Void visitIdentifier(IdentifierTree node, VisitorState state) {
+        if (node.getName().contentEquals("super")) {
+          // In the default constructor javac adds.
+          return super.visitIdentifier(node, state);
+        }
+        assertThat(state.getPath().getLeaf(), is(sameInstance((Tree) node)));
+        assertThat(getCurrentPath(), is(sameInstance(state.getPath())));
+        assertThat(enclosing(state.getPath(), MethodTree.class), is(not(nullValue())));
+        snapshots.add(state.snapshot());
+        identifiers.add(node);
+        return super.visitIdentifier(node, state);
+      }
+    });
+
+    assertThat(identifiers.size(), is(2));
+    for (int i = 0; i < identifiers.size(); i++) {
+      // Snapshots keep the path they were taken at, after the scanner has moved on.
+      TreePath path = snapshots.get(i).getPath();
+      assertThat(path.getLeaf(), is(sameInstance(identifiers.get(i))));
+      assertThat(enclosing(path, ClassTree.class), is(not(nullValue())));
+    }
+    // Both identifiers are in the same method invocation, whose path is built only once.
+    assertThat(snapshots.get(0).getPath().getParentPath(),
+        is(sameInstance(snapshots.get(1).getPath().getParentPath())));
+  }
+
+  @Test
+  public void enclosingTreesMatchThoseFoundFromThePath() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  int f(int x) {",
+        "    if (x > 0) {",
+        "      x++;",
+        "      Runnable r = new Runnable() {",
+        "        public void run() {",
+        "          g();",
+        "        }",
+        "      };",
+        "      x--;",
+        "    }",
+        "    return x;",
+        "  }",
+        "  void g() {}",
+        "  static class B {",
+        "    int y = 1;",
+        "  }",
+        "}"
+    );
+    final int[] visited = {0};
+    assertCompiles(new Scanner() {
+      @Override
+      protected void visitNode(Tree tree, VisitorState state) {
+        // A snapshot has a fixed path, so finds the enclosing trees by walking it.
+        VisitorState walking = state.snapshot();
+        assertThat(state.getEnclosingClass(),
+            is(sameInstance(enclosing(state.getPath(), ClassTree.class))));
+        assertThat(state.getEnclosingMethod(),
+            is(sameInstance(enclosing(state.getPath(), MethodTree.class))));
+        assertThat(state.getEnclosingBlock(),
+            is(sameInstance(enclosing(state.getPath(), BlockTree.class))));
+        assertThat(state.getEnclosingClass(), is(sameInstance(walking.getEnclosingClass())));
+        assertThat(state.getNextStatement(), is(sameInstance(walking.getNextStatement())));
+        visited[0]++;
+      }
+    });
+    assertThat(visited[0] > 40, is(true));
+  }
+
+  @Test
+  public void findsTheNextStatementInTheEnclosingBlock() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  void f(int x) {",
+        "    x++;",
+        "    x--;",
+        "  }",
+        "}"
+    );
+    final List<StatementTree> nextStatements = new ArrayList<StatementTree>();
+    assertCompiles(new Scanner() {
+      @Override
+      public Void visitIdentifier(IdentifierTree node, VisitorState state) {
+        if (node.getName().contentEquals("x")) {
+          nextStatements.add(state.getNextStatement());
+        }
+        return super.visitIdentifier(node, state);
+      }
+    });
+    assertThat(nextStatements.size(), is(2));
+    assertThat(nextStatements.get(0).toString(), is("x--;"));
+    assertThat(nextStatements.get(1), is(nullValue()));
+  }
+
+  private static Tree enclosing(TreePath path, Class<? extends Tree> type) {
+    for (TreePath p = path; p != null; p = p.getParentPath()) {
+      if (type.isInstance(p.getLeaf())) {
+        return p.getLeaf();
+      }
+    }
+    return null;
+  }
+}
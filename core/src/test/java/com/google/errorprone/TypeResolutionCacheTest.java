@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.errorprone.matchers.CompilerBasedTest;
+
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.tools.javac.code.Type;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link TypeResolutionCache}.
+ */
+public class TypeResolutionCacheTest extends CompilerBasedTest {
+
+  @Test
+  public void resolvesEachTypeStringOnce() throws Exception {
+    writeFile("A.java",
+        "public class A {",
+        "  void f() {",
+        "    f();",
+        "    f();",
+        "  }",
+        "}"
+    );
+    final int[] invocations = {0};
+    assertCompiles(new Scanner() {
+      @Override
+      public Void visitMethodInvocation(MethodInvocationTree node, VisitorState state) {
+        Type string = state.getTypeFromString("java.lang.String");
+        assertThat(string, is(notNullValue()));
+        assertThat(state.getTypeFromString("java.lang.String"), is(sameInstance(string)));
+        assertThat(state.getTypeFromString("com.google.NotOnTheClasspath"), is(nullValue()));
+        invocations[0]++;
+
+        TypeResolutionCache cache = TypeResolutionCache.instance(state.context);
+        assertThat(cache.getMisses(), is(2));
+        assertThat(cache.getHits(), is(invocations[0] * 3 - 2));
+        return super.visitMethodInvocation(node, state);
+      }
+    });
+    assertThat(invocations[0], is(2));
+  }
+}
@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Maps;
@@ -70,6 +71,35 @@ public class AppliedFixTest {
     assertThat(fix.getNewCodeSnippet().toString(), equalTo("int three3tres;"));
   }
 
+  @Test
+  public void shouldReportTheFirstChangedLineOfSeveral() {
+    JCTree other = mock(JCTree.class);
+    when(node.getStartPosition()).thenReturn(25);
+    when(node.getEndPosition(same(endPositions))).thenReturn(26);
+    when(other.getStartPosition()).thenReturn(34);
+    when(other.getEndPosition(same(endPositions))).thenReturn(35);
+
+    AppliedFix fix = AppliedFix.fromSource(
+        "public class Foo {\n" +
+        "  int 3;\n" +
+        "  int 4;\n" +
+        "}", endPositions)
+        .apply(new SuggestedFix().replace(node, "three").replace(other, "four"));
+    assertThat(fix.getNewCodeSnippet().toString(), equalTo("int three;"));
+  }
+
+  @Test
+  public void shouldApplyFixOnLastLineWithoutNewline() {
+    when(node.getStartPosition()).thenReturn(21);
+    when(node.getEndPosition(same(endPositions))).thenReturn(22);
+
+    AppliedFix fix = AppliedFix.fromSource(
+        "public class Foo {\n" +
+        "  3; // three", endPositions)
+        .apply(new SuggestedFix().replace(node, "tres"));
+    assertThat(fix.getNewCodeSnippet().toString(), equalTo("tres;"));
+  }
+
   @Test
   public void shouldReturnNullOnEmptyFix() {
     AppliedFix fix = AppliedFix.fromSource(
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.fixes;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import com.sun.source.util.JavacTask;
+import com.sun.tools.javac.tree.JCTree.JCClassDecl;
+import com.sun.tools.javac.tree.JCTree.JCCompilationUnit;
+import com.sun.tools.javac.tree.JCTree.JCVariableDecl;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.Arrays;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+/**
+ * Tests for {@link FilePatch}.
+ */
+public class FilePatchTest {
+
+  private static final String SOURCE =
+      "package p;\n"
+      + "\n"
+      + "import java.util.List;\n"
+      + "\n"
+      + "class A {\n"
+      + "  List<String> a;\n"
+      + "  int b = 1;\n"
+      + "  int c = 1;\n"
+      + "}\n";
+
+  @Test
+  public void writesReplacementsAndImportsAsOneDiff() throws Exception {
+    JCCompilationUnit unit = parse(SOURCE);
+    FilePatch patch = new FilePatch(unit, unit.endPositions);
+    patch.add(new SuggestedFix().replace(field(unit, 1).getInitializer(), "2")
+        .addImport("java.util.ArrayList"));
+    patch.add(new SuggestedFix().replace(field(unit, 2).getInitializer(), "3"));
+
+    assertThat(diff(patch), is(
+        "--- a/p/A.java\n"
+        + "+++ b/p/A.java\n"
+        + "@@ -1,9 +1,10 @@\n"
+        + " package p;\n"
+        + " \n"
+        + " import java.util.List;\n"
+        + "+import java.util.ArrayList;\n"
+        + " \n"
+        + " class A {\n"
+        + "   List<String> a;\n"
+        + "-  int b = 1;\n"
+        + "-  int c = 1;\n"
+        + "+  int b = 2;\n"
+        + "+  int c = 3;\n"
+        + " }\n"));
+    assertThat(patch.getFixCount(), is(2));
+  }
+
+  @Test
+  public void skipsFixesWhichConflict() throws Exception {
+    JCCompilationUnit unit = parse(SOURCE);
+    FilePatch patch = new FilePatch(unit, unit.endPositions);
+    JCVariableDecl field = field(unit, 1);
+    assertThat(patch.add(new SuggestedFix().replace(field.getInitializer(), "2")), is(true));
+    assertThat(patch.add(new SuggestedFix().delete(field)), is(false));
+    // The same change twice is not a conflict.
+    assertThat(patch.add(new SuggestedFix().replace(field.getInitializer(), "2")), is(true));
+
+    assertThat(patch.getFixCount(), is(2));
+    assertThat(patch.getConflictCount(), is(1));
+    assertThat(diff(patch), is(
+        "--- a/p/A.java\n"
+        + "+++ b/p/A.java\n"
+        + "@@ -4,6 +4,6 @@\n"
+        + " \n"
+        + " class A {\n"
+        + "   List<String> a;\n"
+        + "-  int b = 1;\n"
+        + "+  int b = 2;\n"
+        + "   int c = 1;\n"
+        + " }\n"));
+  }
+
+  @Test
+  public void removesImportLines() throws Exception {
+    JCCompilationUnit unit = parse(SOURCE);
+    FilePatch patch = new FilePatch(unit, unit.endPositions);
+    patch.add(new SuggestedFix().removeImport("java.util.List"));
+
+    assertThat(diff(patch), is(
+        "--- a/p/A.java\n"
+        + "+++ b/p/A.java\n"
+        + "@@ -1,6 +1,5 @@\n"
+        + " package p;\n"
+        + " \n"
+        + "-import java.util.List;\n"
+        + " \n"
+        + " class A {\n"
+        + "   List<String> a;\n"));
+  }
+
+  private static String diff(FilePatch patch) throws Exception {
+    StringWriter out = new StringWriter();
+    patch.writeUnifiedDiff(SOURCE, "p/A.java", out);
+    return out.toString();
+  }
+
+  private static JCVariableDecl field(JCCompilationUnit unit, int index) {
+    return (JCVariableDecl) ((JCClassDecl) unit.getTypeDecls().get(0)).getMembers().get(index);
+  }
+
+  private static JCCompilationUnit parse(final String source) throws Exception {
+    JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///p/A.java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+    // javac records end positions whenever a diagnostic listener is registered.
+    JavacTask task = (JavacTask) ToolProvider.getSystemJavaCompiler().getTask(null, null,
+        new DiagnosticCollector<JavaFileObject>(), null, null, Arrays.asList(file));
+    return (JCCompilationUnit) task.parse().iterator().next();
+  }
+}
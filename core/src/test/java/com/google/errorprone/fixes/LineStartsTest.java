@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.fixes;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import java.io.LineNumberReader;
+import java.io.StringReader;
+
+/**
+ * Tests for {@link LineStarts}.
+ */
+public class LineStartsTest {
+
+  private static final String SOURCE = "class A {\n  int a;\r\n  int b;\r}\n\nlast";
+
+  @Test
+  public void agreesWithLineNumberReader() throws Exception {
+    LineStarts lines = LineStarts.of(SOURCE);
+    for (int offset = 0; offset <= SOURCE.length(); offset++) {
+      // The middle of a \r\n pair belongs to the line it ends.
+      if (offset > 0 && SOURCE.charAt(offset - 1) == '\r' && SOURCE.charAt(offset) == '\n') {
+        continue;
+      }
+      LineNumberReader reader = new LineNumberReader(new StringReader(SOURCE));
+      reader.skip(offset);
+      assertThat("offset " + offset, lines.getLineNumber(offset),
+          equalTo(reader.getLineNumber()));
+    }
+  }
+
+  @Test
+  public void findsTheTextOfEachLine() {
+    LineStarts lines = LineStarts.of(SOURCE);
+    assertThat(lines.getLineCount(), equalTo(6));
+    assertThat(lines.getLine(0), equalTo("class A {"));
+    assertThat(lines.getLine(1), equalTo("  int a;"));
+    assertThat(lines.getLine(2), equalTo("  int b;"));
+    assertThat(lines.getLine(3), equalTo("}"));
+    assertThat(lines.getLine(4), equalTo(""));
+    assertThat(lines.getLine(5), equalTo("last"));
+  }
+
+  @Test
+  public void emptySourceHasOneLine() {
+    LineStarts lines = LineStarts.of("");
+    assertThat(lines.getLineCount(), equalTo(1));
+    assertThat(lines.getLineNumber(0), equalTo(0));
+    assertThat(lines.getLine(0), equalTo(""));
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.google.errorprone.matchers;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import com.google.errorprone.Scanner;
@@ -30,6 +32,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -134,6 +137,21 @@ public class DescendantOfTest extends CompilerBasedTest {
     assertCompiles(memberSelectMatches(false, new DescendantOf("com.google.A", "count()")));
   }
 
+  @Test
+  public void shouldMatchGenericMethod() throws IOException {
+    writeFile("B.java",
+      "import java.util.ArrayList;",
+      "public class B {",
+      "  public String[] toArray(ArrayList<String> list) {",
+      "    return list.toArray(new String[0]);",
+      "  }",
+      "}"
+    );
+    DescendantOf matcher = new DescendantOf("java.util.Collection", "<T>toArray(T[])");
+    assertThat(matcher.getMethodNames(), is(Collections.singleton("toArray")));
+    assertCompiles(memberSelectMatches(true, matcher));
+  }
+
   @Test
   public void shouldMatchTransitively() throws Exception {
     writeFile("I1.java",
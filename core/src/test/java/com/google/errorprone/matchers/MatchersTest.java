@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.matchers;
+
+import static com.google.errorprone.matchers.Matchers.allOf;
+import static com.google.errorprone.matchers.Matchers.anyOf;
+import static com.google.errorprone.matchers.Matchers.anything;
+import static com.google.errorprone.matchers.Matchers.argument;
+import static com.google.errorprone.matchers.Matchers.instanceMethod;
+import static com.google.errorprone.matchers.Matchers.isDescendantOfMethod;
+import static com.google.errorprone.matchers.Matchers.kindIs;
+import static com.google.errorprone.matchers.Matchers.methodNames;
+import static com.google.errorprone.matchers.Matchers.methodSelect;
+import static com.google.errorprone.matchers.Matchers.not;
+import static com.google.errorprone.matchers.Matchers.nothing;
+import static com.google.errorprone.matchers.Matchers.staticMethod;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.errorprone.VisitorState;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.Tree.Kind;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for the simplification of composite matchers by {@link Matchers}.
+ */
+public class MatchersTest {
+
+  private final List<String> evaluated = new ArrayList<String>();
+
+  @Test
+  public void compositesStillMatchTheSameTrees() {
+    Tree tree = tree(Kind.IDENTIFIER);
+    assertThat(allOf(kindIs(Kind.IDENTIFIER), recording("a", true)).matches(tree, null), is(true));
+    assertThat(allOf(kindIs(Kind.IDENTIFIER), recording("b", false)).matches(tree, null),
+        is(false));
+    assertThat(anyOf(kindIs(Kind.NULL_LITERAL), recording("c", false)).matches(tree, null),
+        is(false));
+    assertThat(anyOf(kindIs(Kind.NULL_LITERAL), recording("d", true)).matches(tree, null),
+        is(true));
+    assertThat(not(allOf(recording("e", true), not(kindIs(Kind.IDENTIFIER)))).matches(tree, null),
+        is(true));
+  }
+
+  @Test
+  public void syntacticChecksRunFirst() {
+    Matcher<Tree> matcher = allOf(recording("type1", true), kindIs(Kind.IDENTIFIER),
+        recording("type2", true), not(kindIs(Kind.NULL_LITERAL)));
+    assertThat(matcher.matches(tree(Kind.IDENTIFIER), null), is(true));
+    assertThat(evaluated, is(Arrays.asList("type1", "type2")));
+
+    evaluated.clear();
+    assertThat(matcher.matches(tree(Kind.NULL_LITERAL), null), is(false));
+    assertThat(evaluated.isEmpty(), is(true));
+  }
+
+  @Test
+  public void nestedCompositesAreFlattened() {
+    Matcher<Tree> matcher = anyOf(recording("a", false),
+        anyOf(recording("b", false), anyOf(recording("c", false), kindIs(Kind.IDENTIFIER))));
+    assertThat(matcher.matches(tree(Kind.IDENTIFIER), null), is(true));
+    // The kindIs from the innermost anyOf ran first, so no other matcher was needed.
+    assertThat(evaluated.isEmpty(), is(true));
+  }
+
+  @Test
+  public void constantsAreFolded() {
+    Matcher<Tree> a = recording("a", true);
+    assertThat(allOf(a, Matchers.<Tree>anything()), is(sameInstance(a)));
+    assertThat(anyOf(a, Matchers.<Tree>nothing()), is(sameInstance(a)));
+    assertThat(allOf(a, Matchers.<Tree>nothing()), is(sameInstance(Matchers.<Tree>nothing())));
+    assertThat(anyOf(a, Matchers.<Tree>anything()), is(sameInstance(Matchers.<Tree>anything())));
+    assertThat(not(Matchers.<Tree>anything()), is(sameInstance(Matchers.<Tree>nothing())));
+    assertThat(not(not(a)), is(sameInstance(a)));
+    assertThat(evaluated.isEmpty(), is(true));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void methodNamesAreKnownFromTheMethodMatchers() {
+    Matcher<MethodInvocationTree> compile =
+        methodSelect(staticMethod("java.util.regex.Pattern", "compile"));
+    Matcher<MethodInvocationTree> get =
+        methodSelect(isDescendantOfMethod("java.util.Map", "get(java.lang.Object)"));
+    Matcher<MethodInvocationTree> trim =
+        methodSelect(instanceMethod(Matchers.<ExpressionTree>anything(), "trim"));
+    Matcher<MethodInvocationTree> firstArgumentIsNull =
+        argument(0, Matchers.<ExpressionTree>kindIs(Kind.NULL_LITERAL));
+
+    assertThat(methodNames(compile), is(names("compile")));
+    assertThat(methodNames(get), is(names("get")));
+    assertThat(methodNames(anyOf(compile, get, trim)), is(names("compile", "get", "trim")));
+    assertThat(methodNames(allOf(anyOf(compile, get), firstArgumentIsNull)),
+        is(names("compile", "get")));
+    assertThat(methodNames(allOf(anyOf(compile, get), anyOf(get, trim))), is(names("get")));
+    assertThat(methodNames(anyOf(compile, firstArgumentIsNull)), is(nullValue()));
+    assertThat(methodNames(firstArgumentIsNull), is(nullValue()));
+  }
+
+  private static Set<String> names(String... names) {
+    return new HashSet<String>(Arrays.asList(names));
+  }
+
+  private Matcher<Tree> recording(final String name, final boolean result) {
+    return new Matcher<Tree>() {
+      @Override
+      public boolean matches(Tree t, VisitorState state) {
+        evaluated.add(name);
+        return result;
+      }
+    };
+  }
+
+  private static Tree tree(Kind kind) {
+    Tree tree = mock(Tree.class);
+    when(tree.getKind()).thenReturn(kind);
+    return tree;
+  }
+}
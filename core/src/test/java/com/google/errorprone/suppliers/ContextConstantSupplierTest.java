@@ -0,0 +1,90 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.suppliers;
+
+import static com.google.errorprone.suppliers.Suppliers.contextConstant;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.errorprone.DescriptionListener;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.Description;
+
+import com.sun.tools.javac.util.Context;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ContextConstantSupplier}.
+ */
+public class ContextConstantSupplierTest {
+
+  private static final DescriptionListener NO_LISTENER = new DescriptionListener() {
+    @Override
+    public void onDescribed(Description description) {}
+  };
+
+  @Test
+  public void computesOncePerContext() {
+    CountingSupplier counting = new CountingSupplier(false);
+    Supplier<Object> supplier = contextConstant(counting);
+    VisitorState state = new VisitorState(new Context(), NO_LISTENER);
+
+    Object first = supplier.get(state);
+    assertThat(supplier.get(state), is(sameInstance(first)));
+    assertThat(supplier.get(state.withPath(null)), is(sameInstance(first)));
+    assertThat(counting.calls, is(1));
+
+    Object second = supplier.get(new VisitorState(new Context(), NO_LISTENER));
+    assertThat(second == first, is(false));
+    assertThat(counting.calls, is(2));
+  }
+
+  @Test
+  public void remembersNull() {
+    CountingSupplier counting = new CountingSupplier(true);
+    Supplier<Object> supplier = contextConstant(counting);
+    VisitorState state = new VisitorState(new Context(), NO_LISTENER);
+
+    assertThat(supplier.get(state), is(nullValue()));
+    assertThat(supplier.get(state), is(nullValue()));
+    assertThat(counting.calls, is(1));
+  }
+
+  @Test
+  public void isNotWrappedTwice() {
+    Supplier<Object> supplier = contextConstant(new CountingSupplier(false));
+    assertThat(contextConstant(supplier), is(sameInstance(supplier)));
+  }
+
+  private static class CountingSupplier implements Supplier<Object> {
+    private final boolean suppliesNull;
+    int calls = 0;
+
+    CountingSupplier(boolean suppliesNull) {
+      this.suppliesNull = suppliesNull;
+    }
+
+    @Override
+    public Object get(VisitorState state) {
+      calls++;
+      return suppliesNull ? null : new Object();
+    }
+  }
+}
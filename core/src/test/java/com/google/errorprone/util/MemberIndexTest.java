@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.errorprone.Scanner;
+import com.google.errorprone.VisitorState;
+import com.google.errorprone.matchers.CompilerBasedTest;
+
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.MethodTree;
+import com.sun.tools.javac.code.Symbol.ClassSymbol;
+import com.sun.tools.javac.code.Symbol.MethodSymbol;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tests for {@link MemberIndex}.
+ */
+public class MemberIndexTest extends CompilerBasedTest {
+
+  @Test
+  public void findsMethodsByName() throws IOException {
+    writeFile("A.java",
+        "public class A {",
+        "  int foo;",
+        "  public A() {}",
+        "  public void foo() {}",
+        "  public void bar() {}",
+        "  public void foo(int i) {}",
+        "  class foo {}",
+        "}");
+    IndexScanner scanner = new IndexScanner();
+    assertCompiles(scanner);
+    assertTrue(scanner.visitedA);
+  }
+
+  private static class IndexScanner extends Scanner {
+    boolean visitedA = false;
+
+    @Override
+    public Void visitClass(ClassTree tree, VisitorState state) {
+      if (tree.getSimpleName().contentEquals("A")) {
+        visitedA = true;
+        MemberIndex index = MemberIndex.instance(state.context);
+        assertThat(MemberIndex.instance(state.context), is(sameInstance(index)));
+
+        List<MethodTree> trees = index.getMethods(tree, state.getName("foo"));
+        assertThat(trees.size(), is(2));
+        assertThat(trees.get(0).getParameters().size(), is(0));
+        assertThat(trees.get(1).getParameters().size(), is(1));
+        assertThat(index.getMethods(tree, state.getName("bar")).size(), is(1));
+        assertThat(index.getMethods(tree, state.getName("<init>")).size(), is(1));
+        assertThat(index.getMethods(tree, state.getName("baz")).isEmpty(), is(true));
+
+        ClassSymbol sym = (ClassSymbol) ASTHelpers.getSymbol(tree);
+        List<MethodSymbol> symbols = index.getMethods(sym, state.getName("foo"));
+        assertThat(symbols.size(), is(2));
+        for (MethodSymbol method : symbols) {
+          assertThat(method.name.toString(), is("foo"));
+        }
+        assertThat(index.getMethods(sym, state.getName("bar")).size(), is(1));
+        assertThat(index.getMethods(sym, state.getName("baz")).isEmpty(), is(true));
+      }
+      return super.visitClass(tree, state);
+    }
+  }
+}
@@ -0,0 +1,471 @@
+/*
+ * Copyright 2013 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.errorprone;
+
+import org.kohsuke.MetaInfServices;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedSourceVersion;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.SimpleAnnotationValueVisitor6;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a subclass of {@code com.google.errorprone.CheckerRegistry} for the bug checkers in a
+ * compilation, and the service file which lists it, so that the scanner can find and create the
+ * checkers without reflection.
+ *
+ * <p>Each checker is recorded with the values of its {@code @BugPattern} annotation and the
+ * {@code *Matcher} interfaces of {@code BugChecker} it implements.  The registry is named
+ * {@code GeneratedCheckerRegistry}, in the innermost package which contains all the checkers.
+ * Checkers which the registry could not create, because they are not public or have no public
+ * no-argument constructor, are left out with a warning.
+ *
+ * <p>An incremental build compiles only some of the checkers, so the names of the registered
+ * checkers are also written to {@code META-INF/error-prone/checkers} in the class output.  The
+ * registry is regenerated from the checkers being compiled and those listed there, which are
+ * read from their class files; a listed checker which can no longer be found is dropped with a
+ * warning.
+ */
+@MetaInfServices(Processor.class)
+@SupportedAnnotationTypes({"com.google.errorprone.BugPattern"})
+@SupportedSourceVersion(SourceVersion.RELEASE_6)
+public class CheckerRegistryGenerator extends AbstractProcessor {
+
+  private static final String BUG_CHECKER = "com.google.errorprone.bugpatterns.BugChecker";
+  private static final String REGISTRY = "com.google.errorprone.CheckerRegistry";
+  private static final String REGISTRY_NAME = "GeneratedCheckerRegistry";
+  private static final String PATTERN_NAME = "GeneratedPattern";
+  private static final String CHECKERS_FILE = "META-INF/error-prone/checkers";
+
+  private boolean generated = false;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (processingEnv.getElementUtils().getTypeElement(BUG_CHECKER) == null) {
+      // Not compiling against error-prone's core, so there are no checkers to register.
+      return false;
+    }
+    List<TypeElement> checkers = new ArrayList<TypeElement>();
+    for (Element element : roundEnv.getElementsAnnotatedWith(BugPattern.class)) {
+      if (isCreatableChecker(element)) {
+        checkers.add((TypeElement) element);
+      }
+    }
+    if (checkers.isEmpty()) {
+      return false;
+    }
+    if (generated) {
+      // The registry is written in the first round, so it can be compiled with the checkers.
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          "Bug checkers generated by other annotation processors are not registered",
+          checkers.get(0));
+      return false;
+    }
+    generated = true;
+    addPreviouslyRegisteredCheckers(checkers);
+    Collections.sort(checkers, new Comparator<TypeElement>() {
+      @Override
+      public int compare(TypeElement a, TypeElement b) {
+        return a.getQualifiedName().toString().compareTo(b.getQualifiedName().toString());
+      }
+    });
+    try {
+      writeRegistry(checkers);
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+          "Could not write the checker registry: " + e);
+    }
+    // Other processors, such as DocGen, also read @BugPattern.
+    return false;
+  }
+
+  /**
+   * Adds the checkers registered by an earlier compile into the same class output which are not
+   * being compiled now.
+   */
+  private void addPreviouslyRegisteredCheckers(List<TypeElement> checkers) {
+    Set<String> compiled = new HashSet<String>();
+    for (TypeElement checker : checkers) {
+      compiled.add(checker.getQualifiedName().toString());
+    }
+    for (String name : readRegisteredCheckers()) {
+      if (compiled.contains(name)) {
+        continue;
+      }
+      TypeElement checker = processingEnv.getElementUtils().getTypeElement(name);
+      if (checker == null || checker.getAnnotation(BugPattern.class) == null) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+            "Bug checker " + name + " was registered by an earlier compile but can no longer be "
+            + "found, and is not registered");
+      } else if (isCreatableChecker(checker)) {
+        checkers.add(checker);
+      }
+    }
+  }
+
+  /**
+   * Returns the names of the checkers listed by an earlier compile into the same class output,
+   * or none if there was none.
+   */
+  private List<String> readRegisteredCheckers() {
+    List<String> names = new ArrayList<String>();
+    try {
+      FileObject file = processingEnv.getFiler()
+          .getResource(StandardLocation.CLASS_OUTPUT, "", CHECKERS_FILE);
+      BufferedReader in = new BufferedReader(file.openReader(true));
+      try {
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+          if (!line.trim().isEmpty()) {
+            names.add(line.trim());
+          }
+        }
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      // Not written yet: this is a clean build.
+    }
+    return names;
+  }
+
+  /**
+   * Whether the element is a checker the registry can create, warning if it is not.
+   */
+  private boolean isCreatableChecker(Element element) {
+    String problem = null;
+    TypeElement bugChecker = processingEnv.getElementUtils().getTypeElement(BUG_CHECKER);
+    if (element.getKind() != ElementKind.CLASS
+        || !processingEnv.getTypeUtils().isSubtype(element.asType(), bugChecker.asType())) {
+      problem = "is not a subclass of BugChecker";
+    } else if (element.getModifiers().contains(Modifier.ABSTRACT)) {
+      problem = "is abstract";
+    } else if (!isAccessible((TypeElement) element)) {
+      problem = "is not public";
+    } else if (!hasPublicNoArgConstructor((TypeElement) element)) {
+      problem = "has no public no-argument constructor";
+    }
+    if (problem != null) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          "Not registering bug checker which " + problem, element);
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean isAccessible(TypeElement type) {
+    while (true) {
+      if (!type.getModifiers().contains(Modifier.PUBLIC)) {
+        return false;
+      }
+      if (type.getNestingKind() == NestingKind.TOP_LEVEL) {
+        return true;
+      }
+      if (type.getNestingKind() != NestingKind.MEMBER
+          || !type.getModifiers().contains(Modifier.STATIC)) {
+        return false;
+      }
+      type = (TypeElement) type.getEnclosingElement();
+    }
+  }
+
+  private static boolean hasPublicNoArgConstructor(TypeElement type) {
+    for (ExecutableElement constructor
+        : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()
+          && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void writeRegistry(List<TypeElement> checkers) throws IOException {
+    String packageName = commonPackage(checkers);
+    String registryName = packageName.isEmpty()
+        ? REGISTRY_NAME
+        : packageName + "." + REGISTRY_NAME;
+    TypeElement annotationType =
+        processingEnv.getElementUtils().getTypeElement(BugPattern.class.getName());
+    List<ExecutableElement> elements =
+        ElementFilter.methodsIn(annotationType.getEnclosedElements());
+
+    Writer source = processingEnv.getFiler()
+        .createSourceFile(registryName, checkers.toArray(new Element[checkers.size()]))
+        .openWriter();
+    PrintWriter out = new PrintWriter(source);
+    if (!packageName.isEmpty()) {
+      out.println("package " + packageName + ";");
+      out.println();
+    }
+    out.println("/**");
+    out.println(" * The bug checkers in this package and its subpackages.  Generated by");
+    out.println(" * " + getClass().getName() + " from their @BugPattern annotations.");
+    out.println(" */");
+    out.println("public final class " + REGISTRY_NAME + " extends " + REGISTRY + " {");
+    out.println();
+    out.println("  public " + REGISTRY_NAME + "() {");
+    for (TypeElement checker : checkers) {
+      out.println("    add(" + checker.getQualifiedName() + ".class,");
+      out.print("        new " + PATTERN_NAME + "(");
+      Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+          processingEnv.getElementUtils().getElementValuesWithDefaults(bugPattern(checker));
+      for (int i = 0; i < elements.size(); i++) {
+        ExecutableElement element = elements.get(i);
+        out.print(i == 0 ? "" : ", ");
+        out.print(new LiteralRenderer(element.getReturnType()).visit(values.get(element)));
+      }
+      out.print(")");
+      for (String matcherType : matcherTypes(checker)) {
+        out.print(",\n        " + matcherType + ".class");
+      }
+      out.println(");");
+    }
+    out.println("  }");
+    out.println();
+    out.println("  @Override");
+    out.println("  protected " + BUG_CHECKER + " newChecker(int index) {");
+    out.println("    switch (index) {");
+    for (int i = 0; i < checkers.size(); i++) {
+      out.println("      case " + i + ": return new " + checkers.get(i).getQualifiedName() + "();");
+    }
+    out.println("      default: throw new IndexOutOfBoundsException(String.valueOf(index));");
+    out.println("    }");
+    out.println("  }");
+    out.println();
+    writePattern(out, elements);
+    out.println("}");
+    out.close();
+
+    Writer services = processingEnv.getFiler()
+        .createResource(StandardLocation.CLASS_OUTPUT, "", "META-INF/services/" + REGISTRY)
+        .openWriter();
+    services.write(registryName + "\n");
+    services.close();
+
+    Writer names = processingEnv.getFiler()
+        .createResource(StandardLocation.CLASS_OUTPUT, "", CHECKERS_FILE)
+        .openWriter();
+    for (TypeElement checker : checkers) {
+      names.write(checker.getQualifiedName() + "\n");
+    }
+    names.close();
+  }
+
+  /**
+   * Writes the implementation of BugPattern which holds the recorded annotation values, with a
+   * field for each element of the annotation.
+   */
+  private void writePattern(PrintWriter out, List<ExecutableElement> elements) {
+    String annotationName = BugPattern.class.getCanonicalName();
+    out.println("  private static final class " + PATTERN_NAME + " implements "
+        + annotationName + " {");
+    for (ExecutableElement element : elements) {
+      out.println("    private final " + element.getReturnType() + " "
+          + element.getSimpleName() + ";");
+    }
+    out.println();
+    out.print("    " + PATTERN_NAME + "(");
+    for (int i = 0; i < elements.size(); i++) {
+      ExecutableElement element = elements.get(i);
+      out.print((i == 0 ? "" : ", ") + element.getReturnType() + " " + element.getSimpleName());
+    }
+    out.println(") {");
+    for (ExecutableElement element : elements) {
+      out.println("      this." + element.getSimpleName() + " = " + element.getSimpleName() + ";");
+    }
+    out.println("    }");
+    for (ExecutableElement element : elements) {
+      boolean isArray = element.getReturnType().getKind() == TypeKind.ARRAY;
+      out.println();
+      out.println("    public " + element.getReturnType() + " " + element.getSimpleName()
+          + "() {");
+      out.println("      return " + element.getSimpleName() + (isArray ? ".clone()" : "") + ";");
+      out.println("    }");
+    }
+    out.println();
+    out.println("    public Class<? extends java.lang.annotation.Annotation> annotationType() {");
+    out.println("      return " + annotationName + ".class;");
+    out.println("    }");
+    out.println();
+    out.println("    @Override");
+    out.println("    public String toString() {");
+    out.println("      return \"@" + annotationName + "(name=\" + name + \")\";");
+    out.println("    }");
+    out.println("  }");
+  }
+
+  private AnnotationMirror bugPattern(TypeElement checker) {
+    for (AnnotationMirror mirror : checker.getAnnotationMirrors()) {
+      TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+      if (type.getQualifiedName().contentEquals(BugPattern.class.getName())) {
+        return mirror;
+      }
+    }
+    throw new IllegalStateException("No @BugPattern on " + checker);
+  }
+
+  /**
+   * Returns the names of the {@code *Matcher} interfaces of BugChecker which the checker, or any
+   * of its supertypes, implements.
+   */
+  private Set<String> matcherTypes(TypeElement checker) {
+    Set<String> matcherTypes = new LinkedHashSet<String>();
+    addMatcherTypes(checker.asType(), matcherTypes);
+    return matcherTypes;
+  }
+
+  private void addMatcherTypes(TypeMirror type, Set<String> matcherTypes) {
+    for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type)) {
+      TypeElement element = (TypeElement) ((DeclaredType) supertype).asElement();
+      Element enclosing = element.getEnclosingElement();
+      if (element.getKind() == ElementKind.INTERFACE
+          && enclosing instanceof TypeElement
+          && ((TypeElement) enclosing).getQualifiedName().contentEquals(BUG_CHECKER)
+          && element.getSimpleName().toString().endsWith("Matcher")) {
+        matcherTypes.add(element.getQualifiedName().toString());
+      }
+      addMatcherTypes(supertype, matcherTypes);
+    }
+  }
+
+  /**
+   * Returns the innermost package which contains all of the checkers.
+   */
+  private String commonPackage(List<TypeElement> checkers) {
+    String common = null;
+    for (TypeElement checker : checkers) {
+      String packageName = processingEnv.getElementUtils().getPackageOf(checker)
+          .getQualifiedName().toString();
+      if (common == null) {
+        common = packageName;
+      }
+      while (!packageName.equals(common) && !packageName.startsWith(common + ".")) {
+        int dot = common.lastIndexOf('.');
+        common = dot < 0 ? "" : common.substring(0, dot);
+        if (common.isEmpty()) {
+          break;
+        }
+      }
+    }
+    return common;
+  }
+
+  /**
+   * Renders an annotation value as a Java expression of the given type.
+   */
+  private static class LiteralRenderer extends SimpleAnnotationValueVisitor6<String, Void> {
+    private final TypeMirror type;
+
+    LiteralRenderer(TypeMirror type) {
+      this.type = type;
+    }
+
+    @Override
+    protected String defaultAction(Object value, Void unused) {
+      return String.valueOf(value);
+    }
+
+    @Override
+    public String visitString(String value, Void unused) {
+      return quote(value);
+    }
+
+    @Override
+    public String visitEnumConstant(VariableElement constant, Void unused) {
+      TypeElement enumType = (TypeElement) constant.getEnclosingElement();
+      return enumType.getQualifiedName() + "." + constant.getSimpleName();
+    }
+
+    @Override
+    public String visitArray(List<? extends AnnotationValue> values, Void unused) {
+      TypeMirror componentType = ((ArrayType) type).getComponentType();
+      StringBuilder result = new StringBuilder("new ").append(type).append(" {");
+      for (int i = 0; i < values.size(); i++) {
+        result.append(i == 0 ? "" : ", ")
+            .append(new LiteralRenderer(componentType).visit(values.get(i)));
+      }
+      return result.append("}").toString();
+    }
+  }
+
+  private static String quote(String value) {
+    StringBuilder result = new StringBuilder("\"");
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          result.append("\\\"");
+          break;
+        case '\\':
+          result.append("\\\\");
+          break;
+        case '\n':
+          result.append("\\n");
+          break;
+        case '\r':
+          result.append("\\r");
+          break;
+        case '\t':
+          result.append("\\t");
+          break;
+        default:
+          if (c < 0x20 || c > 0x7e) {
+            result.append(String.format("\\u%04x", (int) c));
+          } else {
+            result.append(c);
+          }
+      }
+    }
+    return result.append("\"").toString();
+  }
+}
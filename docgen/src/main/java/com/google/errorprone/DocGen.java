@@ -93,7 +93,8 @@ public class DocGen extends AbstractProcessor {
       // this was the last round, do cleanup
       cleanup();
     }
-    return true;
+    // CheckerRegistryGenerator also processes @BugPattern, so don't claim it.
+    return false;
   }
 
   /**
@@ -208,7 +208,9 @@ public class ErrorProneIdeaCompiler extends ExternalCompiler {
 
     commandLine.add(sdkType.getToolsPath(jdk) + File.pathSeparator + PathUtil.getJarPathForClass(Matcher.class));
 
-    commandLine.add("com.google.errorprone.ErrorProneCompiler");
+    // Compiles on a running error-prone compile server, if there is one, so that every module
+    // doesn't pay for warming up a new JVM; otherwise in the forked JVM, like ErrorProneCompiler.
+    commandLine.add("com.google.errorprone.CompileClient");
 
     addCommandLineOptions(chunk, commandLine, outputPath, jdk, myAnnotationProcessorMode);
 